@@ -0,0 +1,51 @@
+package com.obatis.config.response.result;
+
+import java.util.List;
+
+/**
+ * 游标(keyset)分页结果，不统计总条数，返回下一页的游标值
+ * @author HuangLongPu
+ */
+public class SeekPageInfo<T> {
+
+    private List<T> list;
+    private Object[] nextSeek;
+    private boolean hasMore;
+
+    public SeekPageInfo() {
+
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public void setList(List<T> list) {
+        this.list = list;
+    }
+
+    /**
+     * 下一页的游标值，为本页最后一行排序字段的值，查询下一页时传入 QueryProvider.seekAfter
+     * 没有下一页时为 null
+     * @return
+     */
+    public Object[] getNextSeek() {
+        return nextSeek;
+    }
+
+    public void setNextSeek(Object[] nextSeek) {
+        this.nextSeek = nextSeek;
+    }
+
+    /**
+     * 是否可能还有下一页，本页行数等于每页行数时为 true
+     * @return
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -2,11 +2,15 @@ package com.obatis.orm;
 
 import com.obatis.config.response.result.PageInfo;
 import com.obatis.config.response.result.ResultInfo;
+import com.obatis.config.response.result.SeekPageInfo;
 import com.obatis.exception.HandleException;
+import com.obatis.orm.constant.type.BatchInsertEnum;
+import com.obatis.orm.model.BatchInsertInfo;
 import com.obatis.orm.model.CommonModel;
 import com.obatis.orm.provider.DeleteProvider;
 import com.obatis.orm.provider.QueryProvider;
 import com.obatis.orm.provider.UpdateProvider;
+import com.obatis.orm.sql.SessionCursor;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -16,6 +20,7 @@ import java.time.LocalTime;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public interface SqlHandle<T extends CommonModel> {
 
@@ -33,6 +38,42 @@ public interface SqlHandle<T extends CommonModel> {
      */
     int batchInsert(List<T> list) throws HandleException;
 
+    /**
+     * 批量添加，指定执行方式，JDBC_BATCH 方式默认每 1000 条提交一次，返回影响行数
+     * @param list
+     * @param batchInsertType
+     * @return
+     */
+    int batchInsert(List<T> list, BatchInsertEnum batchInsertType) throws HandleException;
+
+    /**
+     * 批量添加，指定执行方式，flushSize 为 JDBC_BATCH 方式每次提交的条数，返回影响行数
+     * @param list
+     * @param batchInsertType
+     * @param flushSize
+     * @return
+     */
+    int batchInsert(List<T> list, BatchInsertEnum batchInsertType, int flushSize) throws HandleException;
+
+    /**
+     * 分批添加，每 chunkSize 条为一批依次执行，返回每批的行数和耗时。
+     * 没有事务时每批单独提交，某一批失败时之前的批次已添加
+     * @param list
+     * @param chunkSize
+     * @return
+     */
+    BatchInsertInfo batchInsert(List<T> list, int chunkSize) throws HandleException;
+
+    /**
+     * 分批添加，每 chunkSize 条为一批，parallel 为 true 且当前没有事务时，多批并行执行，返回每批的行数和耗时。
+     * 没有事务时每批单独提交，执行失败时已执行的批次不会回滚，需要整体成功或失败时应在事务中调用
+     * @param list
+     * @param chunkSize
+     * @param parallel
+     * @return
+     */
+    BatchInsertInfo batchInsert(List<T> list, int chunkSize, boolean parallel) throws HandleException;
+
     /**
      * 传入数据库封装操作对象 QueryProvider，进行更新
      * @param provider
@@ -48,6 +89,23 @@ public interface SqlHandle<T extends CommonModel> {
      */
     int batchUpdate(List<UpdateProvider> list) throws HandleException;
 
+    /**
+     * 批量更新，返回每个操作对象的影响行数，默认每 1000 条提交一次
+     * @param list
+     * @return
+     * @throws HandleException
+     */
+    int[] batchUpdateCounts(List<UpdateProvider> list) throws HandleException;
+
+    /**
+     * 批量更新，返回每个操作对象的影响行数，下标与 list 一致，驱动未返回行数时为 Statement.SUCCESS_NO_INFO
+     * @param list
+     * @param flushSize
+     * @return
+     * @throws HandleException
+     */
+    int[] batchUpdateCounts(List<UpdateProvider> list, int flushSize) throws HandleException;
+
     /**
      * 根据传入的id主键，删除一条记录
      * @param id
@@ -170,6 +228,37 @@ public interface SqlHandle<T extends CommonModel> {
      */
     List<Map<String, Object>> listConvertMap(QueryProvider provider);
 
+    /**
+     * 根据传入的 QueryProvider 对象流式查询，结果逐行读取并转换，不一次性加载到内存，适用于大数据量导出。
+     * 游标持有独立的 session，使用完毕必须调用 close 关闭
+     * @param provider
+     * @return
+     */
+    SessionCursor<T> cursor(QueryProvider provider);
+
+    /**
+     * 根据传入的 QueryProvider 对象流式查询，返回类型为预设的 class 类型，使用完毕必须调用 close 关闭
+     * @param provider
+     * @param resultCls
+     * @return
+     */
+    <M extends ResultInfo> SessionCursor<M> cursor(QueryProvider provider, Class<M> resultCls);
+
+    /**
+     * 根据传入的 QueryProvider 对象流式查询，返回顺序流，使用完毕必须关闭流
+     * @param provider
+     * @return
+     */
+    Stream<T> stream(QueryProvider provider);
+
+    /**
+     * 根据传入的 QueryProvider 对象流式查询，返回类型为预设的 class 类型的顺序流，使用完毕必须关闭流
+     * @param provider
+     * @param resultCls
+     * @return
+     */
+    <M extends ResultInfo> Stream<M> stream(QueryProvider provider, Class<M> resultCls);
+
     /**
      * 查询单个字段返回 List<Integer> 数据
      * @param provider
@@ -529,4 +618,20 @@ public interface SqlHandle<T extends CommonModel> {
      * @return
      */
     <M extends ResultInfo> PageInfo<M> page(QueryProvider provider, Class<M> resultCls);
+
+    /**
+     * 游标(keyset)分页查询，通过 QueryProvider.seekAfter 传入上一页的游标值，按排序字段定位，不统计总条数。
+     * 返回本页数据和下一页的游标值，未设置查询行数时默认每页 10 条
+     * @param provider
+     * @return
+     */
+    SeekPageInfo<T> seekPage(QueryProvider provider);
+
+    /**
+     * 游标(keyset)分页查询，返回类型为预设的 class 类型
+     * @param provider
+     * @param resultCls
+     * @return
+     */
+    <M extends ResultInfo> SeekPageInfo<M> seekPage(QueryProvider provider, Class<M> resultCls);
 }
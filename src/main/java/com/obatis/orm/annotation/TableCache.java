@@ -0,0 +1,30 @@
+package com.obatis.orm.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 与 @Table 一起使用，开启实体按 id 查询的缓存，适用于读多写少的数据，如租户、商品配置等
+ * @author HuangLongPu
+ */
+@Retention(RUNTIME)
+@Documented
+@Target(ElementType.TYPE)
+public @interface TableCache {
+
+	/**
+	 * 最多缓存的记录条数，超过后淘汰最久未访问的记录
+	 * @return
+	 */
+	int maxSize() default 1024;
+
+	/**
+	 * 缓存时间，单位毫秒
+	 * @return
+	 */
+	long ttlMillis() default 60000;
+}
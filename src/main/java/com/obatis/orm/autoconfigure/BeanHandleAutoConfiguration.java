@@ -13,7 +13,7 @@ import java.util.Set;
 
 public class BeanHandleAutoConfiguration {
 
-    private static boolean CREATE_BEAN_FLAG = false;
+    private static volatile boolean CREATE_BEAN_FLAG = false;
 
     @Bean
 	public int beanHandleAutoConfiguration(SqlSession sqlSession) {
@@ -1,45 +1,68 @@
 package com.obatis.orm.constant;
 
+import com.obatis.orm.convert.EntityAccessor;
+import com.obatis.orm.convert.EntityMetadata;
 import com.obatis.orm.mapper.BaseBeanSessionMapper;
 import com.obatis.orm.mapper.BaseResultSessionMapper;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 缓存静态属性，主要用于存放实体信息、数据库表相关信息
+ * 缓存均为并发容器，写入的值构建完成后不再修改，读取时无需加锁
  * @author HuangLongPu
  */
 public class CacheInfoConstant {
 
 	private CacheInfoConstant() {}
 
+	/**
+	 * 存放实体元数据，key 为表名
+	 */
+	public static final Map<String, EntityMetadata> ENTITY_CACHE = new ConcurrentHashMap<>();
 	/**
 	 * 存放表名
 	 */
-	public static final Map<String, String> TABLE_CACHE = new HashMap<>();
+	public static final Map<String, String> TABLE_CACHE = new ConcurrentHashMap<>();
 	/**
 	 * 存放实体中通过 @Column 注解的属性，key 为实体属性，value为数据库字段
 	 */
-	public static final Map<String, Map<String, String>> COLUMN_CACHE = new HashMap<>();
+	public static final Map<String, Map<String, String>> COLUMN_CACHE = new ConcurrentHashMap<>();
 	/**
 	 * 存放表与实体的映射属性， key为数据库字段，value为实体属性
 	 */
-	public static final Map<String, Map<String, String>> FIELD_CACHE = new HashMap<>();
+	public static final Map<String, Map<String, String>> FIELD_CACHE = new ConcurrentHashMap<>();
+	/**
+	 * 存放实体属性访问器，key 为表名
+	 */
+	public static final Map<String, EntityAccessor> ACCESSOR_CACHE = new ConcurrentHashMap<>();
 	/**
 	 * 存放 ResultInfoOutput 的子类的属性
 	 */
-	public static final Map<String, List<String[]>> RESULT_CACHE = new HashMap<>();
+	public static final Map<String, List<String[]>> RESULT_CACHE = new ConcurrentHashMap<>();
+	/**
+	 * 存放 ResultInfoOutput 的子类的属性访问器，key 为类名
+	 */
+	public static final Map<String, EntityAccessor> RESULT_ACCESSOR_CACHE = new ConcurrentHashMap<>();
 
 	/**
 	 * 存放实体的 sessionMapper
 	 */
-	public static final Map<String, BaseBeanSessionMapper> BEAN_SESSION_MAPPER = new HashMap<>();
+	public static final Map<String, BaseBeanSessionMapper> BEAN_SESSION_MAPPER = new ConcurrentHashMap<>();
+	/**
+	 * 存放实体动态构建的 sessionMapper 接口类型，用于在其他执行器类型的 session 中获取 mapper
+	 */
+	public static final Map<String, Class<?>> BEAN_SESSION_MAPPER_CLASS = new ConcurrentHashMap<>();
 	/**
 	 * 存放 ResultInfoOutput 的子类的 sessionMapper
 	 */
-	public static final Map<String, BaseResultSessionMapper> RESULT_SESSION_MAPPER = new HashMap<>();
+	public static final Map<String, BaseResultSessionMapper> RESULT_SESSION_MAPPER = new ConcurrentHashMap<>();
+	/**
+	 * 存放 ResultInfoOutput 的子类动态构建的 sessionMapper 接口类型
+	 */
+	public static final Map<String, Class<?>> RESULT_SESSION_MAPPER_CLASS = new ConcurrentHashMap<>();
 
 	public static final String TABLE_AS_START_PREFIX = "#as_";
 }
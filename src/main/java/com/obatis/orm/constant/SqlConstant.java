@@ -25,9 +25,29 @@ public class SqlConstant {
 	 * 查询 sql
 	 */
 	public static final String PROVIDER_QUERY_SQL = "query_sql";
+	/**
+	 * 已生成的查询 sql，存在时 find、list 不再重新生成
+	 */
+	public static final String PROVIDER_SELECT_SQL = "select_sql";
 	/**
 	 * 默认起始值
 	 */
 	public static final int DEFAULT_INIT = 0;
+	/**
+	 * JDBC batch 方式批量添加时，默认每多少条提交一次
+	 */
+	public static final int DEFAULT_BATCH_FLUSH_SIZE = 1000;
+	/**
+	 * 分批添加、分页统计等并行执行时，默认的最大并行数
+	 */
+	public static final int DEFAULT_SQL_TASK_PARALLELISM = 4;
+	/**
+	 * 游标分页未设置查询行数时，默认每页行数
+	 */
+	public static final int DEFAULT_SEEK_PAGE_SIZE = 10;
+	/**
+	 * 分页查询缓存总条数时，默认的缓存时间，单位毫秒
+	 */
+	public static final long DEFAULT_PAGE_COUNT_CACHE_MILLIS = 60000;
 
 }
@@ -0,0 +1,17 @@
+package com.obatis.orm.constant.type;
+
+/**
+ * 批量添加的执行方式
+ * @author HuangLongPu
+ */
+public enum BatchInsertEnum {
+
+    /**
+     * 拼接为一条 insert ... values (...),(...) 语句执行(默认)
+     */
+    MULTI_VALUES,
+    /**
+     * 使用固定的单行 insert 语句，通过 JDBC batch 分批提交执行
+     */
+    JDBC_BATCH
+}
@@ -0,0 +1,21 @@
+package com.obatis.orm.constant.type;
+
+/**
+ * in 查询值个数超过拆分阈值时的执行方式
+ * @author HuangLongPu
+ */
+public enum InFilterStrategyEnum {
+
+    /**
+     * 单条语句执行，查询结构不支持拆分(存在 or 条件、排序、分组、聚合、limit、union 等)时使用
+     */
+    SINGLE,
+    /**
+     * 按批次拆分为多条语句，在当前线程依次执行，结果按批次顺序合并
+     */
+    CHUNK,
+    /**
+     * 按批次拆分为多条语句，提交到有界线程池并行执行，结果按批次顺序合并，存在事务时按 CHUNK 方式执行
+     */
+    PARALLEL_CHUNK
+}
@@ -0,0 +1,25 @@
+package com.obatis.orm.constant.type;
+
+/**
+ * 分页查询统计总条数的方式
+ * @author HuangLongPu
+ */
+public enum PageCountEnum {
+
+    /**
+     * 先统计总条数再查询数据，总条数为 0 时不查询数据(默认)
+     */
+    COUNT,
+    /**
+     * 不统计总条数，返回的总条数为 -1
+     */
+    NONE,
+    /**
+     * 统计总条数和查询数据在两个连接上并行执行，存在事务时按 COUNT 方式执行
+     */
+    CONCURRENT,
+    /**
+     * 缓存总条数，统计 SQL 和条件值相同的分页查询在缓存时间内复用上一次的总条数
+     */
+    CACHED
+}
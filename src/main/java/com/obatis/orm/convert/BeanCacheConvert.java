@@ -5,13 +5,15 @@ import com.obatis.exception.HandleException;
 import com.obatis.orm.annotation.Column;
 import com.obatis.orm.annotation.NotColumn;
 import com.obatis.orm.annotation.Table;
+import com.obatis.orm.annotation.TableCache;
 import com.obatis.orm.constant.CacheInfoConstant;
-import com.obatis.orm.constant.SqlConstant;
+import com.obatis.orm.sql.EntityCache;
 import com.obatis.tools.ValidateTool;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,14 +45,35 @@ public class BeanCacheConvert {
 			throw new HandleException("error: " + canonicalName + " tableName is empty");
 		}
 		
-		if(CacheInfoConstant.FIELD_CACHE.containsKey(name)) {
+		addColumnCache(cls, columnMap, fieldMap);
+		/**
+		 * 预先生成实体属性访问器，和字段映射一起构建为不可修改的元数据，构建完成后再发布到缓存
+		 */
+		EntityMetadata metadata = new EntityMetadata(cls, name, columnMap, fieldMap, EntityAccessor.of(cls, columnMap));
+		if(CacheInfoConstant.ENTITY_CACHE.putIfAbsent(name, metadata) != null) {
 			throw new HandleException("error: " + canonicalName + " tableName(" + name + ") is exist");
 		}
+		CacheInfoConstant.FIELD_CACHE.put(name, metadata.getFieldMap());
+		CacheInfoConstant.COLUMN_CACHE.put(name, metadata.getColumnMap());
+		CacheInfoConstant.ACCESSOR_CACHE.put(name, metadata.getAccessor());
 		CacheInfoConstant.TABLE_CACHE.put(canonicalName, name);
-		addColumnCache(cls, name, columnMap, fieldMap, 0);
+
+		TableCache tableCache = cls.getAnnotation(TableCache.class);
+		if(tableCache != null) {
+			EntityCache.register(name, tableCache.maxSize(), tableCache.ttlMillis());
+		}
 	}
 
-	private static final void addColumnCache(Class<?> cls, String tableName, Map<String, String> columnMap, Map<String, String> fieldMap, int index) {
+	/**
+	 * 获取实体元数据
+	 * @param tableName
+	 * @return
+	 */
+	public static EntityMetadata getEntityMetadata(String tableName) {
+		return CacheInfoConstant.ENTITY_CACHE.get(tableName);
+	}
+
+	private static final void addColumnCache(Class<?> cls, Map<String, String> columnMap, Map<String, String> fieldMap) {
 		Field[] fields = cls.getDeclaredFields();
 
 		for (Field field : fields) {
@@ -83,38 +106,42 @@ public class BeanCacheConvert {
 
 		Class<?> supCls = cls.getSuperclass();
 		if (supCls != null) {
-			addColumnCache(supCls, tableName, columnMap, fieldMap, index + 1);
-		}
-
-		if (index == SqlConstant.DEFAULT_INIT) {
-			int len = columnMap.size();
-			if (len > 0) {
-				CacheInfoConstant.FIELD_CACHE.put(tableName, fieldMap);
-				CacheInfoConstant.COLUMN_CACHE.put(tableName, columnMap);
-			}
+			addColumnCache(supCls, columnMap, fieldMap);
 		}
 	}
 
 	public static List<String[]> getResultFields(Class<?> cls) {
 		String clsName = cls.getCanonicalName();
-		if(CacheInfoConstant.RESULT_CACHE.containsKey(clsName)) {
-			return CacheInfoConstant.RESULT_CACHE.get(clsName);
-		} else {
-			return getResultFields(cls, clsName);
+		List<String[]> resultList = CacheInfoConstant.RESULT_CACHE.get(clsName);
+		if(resultList != null) {
+			return resultList;
 		}
+		return CacheInfoConstant.RESULT_CACHE.computeIfAbsent(clsName, key -> {
+			List<String[]> result = new ArrayList<>();
+			getResultFields(cls, result);
+			return Collections.unmodifiableList(result);
+		});
     }
 	
-	private static synchronized List<String[]> getResultFields(Class<?> cls, String clsName) {
-		if(CacheInfoConstant.RESULT_CACHE.containsKey(clsName)) {
-			return CacheInfoConstant.RESULT_CACHE.get(clsName);
+	/**
+	 * 获取 ResultInfoOutput 子类的属性访问器，每个类只生成一次
+	 * @param cls
+	 * @return
+	 */
+	public static EntityAccessor getResultAccessor(Class<?> cls) {
+		EntityAccessor accessor = CacheInfoConstant.RESULT_ACCESSOR_CACHE.get(cls.getCanonicalName());
+		if(accessor != null) {
+			return accessor;
 		}
-		
-		List<String[]> resultList = new ArrayList<>();
-		getResultFields(cls, resultList);
-		CacheInfoConstant.RESULT_CACHE.put(clsName, resultList);
-		return resultList;
+		return CacheInfoConstant.RESULT_ACCESSOR_CACHE.computeIfAbsent(cls.getCanonicalName(), key -> {
+			Map<String, String> columnMap = new HashMap<>();
+			for (String[] result : getResultFields(cls)) {
+				columnMap.putIfAbsent(result[1], result[0]);
+			}
+			return EntityAccessor.of(cls, columnMap);
+		});
 	}
-	
+
 	private static void getResultFields(Class<?> cls, List<String[]> resultList) {
 		Field[] fields = cls.getDeclaredFields();
 		for (Field field : fields) {
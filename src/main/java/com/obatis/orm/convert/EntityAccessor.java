@@ -0,0 +1,219 @@
+package com.obatis.orm.convert;
+
+import com.obatis.convert.date.DateConvert;
+import com.obatis.exception.HandleException;
+import com.obatis.generator.NumberGenerator;
+import com.obatis.orm.annotation.NotColumn;
+import com.obatis.orm.model.CommonField;
+import com.obatis.tools.ValidateTool;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 实体属性访问器，加载实体缓存时按字段顺序为每个属性预先生成读写方法句柄，
+ * 添加数据时直接调用，不再每行数据反射遍历实体属性
+ * @author HuangLongPu
+ */
+public class EntityAccessor {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+	private final FieldAccessor[] fields;
+	/**
+	 * 无参构造方法，不存在时为 null
+	 */
+	private final MethodHandle constructor;
+
+	private EntityAccessor(FieldAccessor[] fields, MethodHandle constructor) {
+		this.fields = fields;
+		this.constructor = constructor;
+	}
+
+	/**
+	 * 按实体属性顺序(子类在前，父类在后)生成访问器，属性与字段的对应关系取自 columnMap
+	 * @param cls
+	 * @param columnMap
+	 * @return
+	 */
+	protected static EntityAccessor of(Class<?> cls, Map<String, String> columnMap) {
+		List<FieldAccessor> fieldList = new ArrayList<>();
+		Set<String> fieldNames = new HashSet<>();
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		for (Class<?> item = cls; item != null; item = item.getSuperclass()) {
+			for (Field field : item.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || field.getAnnotation(NotColumn.class) != null) {
+					continue;
+				}
+				String fieldName = field.getName();
+				if (!columnMap.containsKey(fieldName) || !fieldNames.add(fieldName)) {
+					continue;
+				}
+				try {
+					field.setAccessible(true);
+					MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+					MethodHandle setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field).asType(SETTER_TYPE);
+					fieldList.add(new FieldAccessor(fieldName, columnMap.get(fieldName), getter, setter));
+				} catch (IllegalAccessException e) {
+					e.printStackTrace();
+					throw new HandleException("error: load class fields fail");
+				}
+			}
+		}
+		MethodHandle constructor;
+		try {
+			Constructor<?> declared = cls.getDeclaredConstructor();
+			declared.setAccessible(true);
+			constructor = lookup.unreflectConstructor(declared).asType(CONSTRUCTOR_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			constructor = null;
+		}
+		return new EntityAccessor(fieldList.toArray(new FieldAccessor[0]), constructor);
+	}
+
+	public FieldAccessor[] getFields() {
+		return fields;
+	}
+
+	/**
+	 * 复制对象，通过无参构造方法创建新对象后逐个复制可赋值的属性值，属性值本身不复制
+	 * @param source
+	 * @return
+	 */
+	public Object copy(Object source) {
+		if (constructor == null) {
+			throw new HandleException("error: " + source.getClass().getCanonicalName() + " has no default constructor");
+		}
+		Object target;
+		try {
+			target = (Object) constructor.invokeExact();
+		} catch (Throwable e) {
+			throw new HandleException("error: " + source.getClass().getCanonicalName() + " instance fail, " + e.getMessage());
+		}
+		for (FieldAccessor field : fields) {
+			if (field.isWritable()) {
+				field.set(target, field.get(source));
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * 按属性名或字段名获取访问器，不存在返回 null
+	 * @param name
+	 * @return
+	 */
+	public FieldAccessor getField(String name) {
+		for (FieldAccessor field : fields) {
+			if (field.fieldName.equals(name) || field.columnName.equals(name)) {
+				return field;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 单个属性的访问器，id 和 create_time 字段为空时，添加数据前自动赋默认值
+	 */
+	public static class FieldAccessor {
+
+		private static final int DEFAULT_NONE = 0;
+		private static final int DEFAULT_ID = 1;
+		private static final int DEFAULT_CREATE_TIME = 2;
+
+		private final String fieldName;
+		private final String columnName;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final int defaultType;
+
+		private FieldAccessor(String fieldName, String columnName, MethodHandle getter, MethodHandle setter) {
+			this.fieldName = fieldName;
+			this.columnName = columnName;
+			this.getter = getter;
+			this.setter = setter;
+			if (CommonField.FIELD_ID.equals(columnName)) {
+				this.defaultType = DEFAULT_ID;
+			} else if (CommonField.FIELD_CREATE_TIME.equals(columnName)) {
+				this.defaultType = DEFAULT_CREATE_TIME;
+			} else {
+				this.defaultType = DEFAULT_NONE;
+			}
+		}
+
+		public String getFieldName() {
+			return fieldName;
+		}
+
+		public String getColumnName() {
+			return columnName;
+		}
+
+		/**
+		 * 是否为添加数据时需要自动赋值的字段
+		 * @return
+		 */
+		public boolean isDefaultValue() {
+			return defaultType != DEFAULT_NONE;
+		}
+
+		/**
+		 * 是否可以赋值，final 属性不可赋值
+		 * @return
+		 */
+		public boolean isWritable() {
+			return setter != null;
+		}
+
+		public Object get(Object obj) {
+			try {
+				return (Object) getter.invokeExact(obj);
+			} catch (Throwable e) {
+				e.printStackTrace();
+				throw new HandleException("error: load class fields fail");
+			}
+		}
+
+		public void set(Object obj, Object value) {
+			if (setter == null) {
+				throw new HandleException("error: field " + fieldName + " is final");
+			}
+			try {
+				setter.invokeExact(obj, value);
+			} catch (Throwable e) {
+				e.printStackTrace();
+				throw new HandleException("error: load class fields fail");
+			}
+		}
+
+		/**
+		 * 获取属性值，值为空时如果是 id 或 create_time 字段，先赋默认值再返回
+		 * @param obj
+		 * @return
+		 */
+		public Object getOrDefault(Object obj) {
+			Object value = get(obj);
+			if (defaultType == DEFAULT_NONE || !ValidateTool.isEmpty(value)) {
+				return value;
+			}
+			if (defaultType == DEFAULT_ID) {
+				value = NumberGenerator.getNumber();
+			} else {
+				value = DateConvert.getDateTime();
+			}
+			set(obj, value);
+			return value;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.obatis.orm.convert;
+
+import com.obatis.orm.convert.EntityAccessor.FieldAccessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 实体元数据，加载实体缓存时一次性构建，构建后不可修改，可在多线程间安全共享
+ * @author HuangLongPu
+ */
+public final class EntityMetadata {
+
+	private final Class<?> entityClass;
+	private final String tableName;
+	private final List<String> columns;
+	private final Map<String, String> columnMap;
+	private final Map<String, String> fieldMap;
+	private final EntityAccessor accessor;
+
+	protected EntityMetadata(Class<?> entityClass, String tableName, Map<String, String> columnMap, Map<String, String> fieldMap, EntityAccessor accessor) {
+		this.entityClass = entityClass;
+		this.tableName = tableName;
+		this.columnMap = Collections.unmodifiableMap(new HashMap<>(columnMap));
+		this.fieldMap = Collections.unmodifiableMap(new HashMap<>(fieldMap));
+		this.accessor = accessor;
+		List<String> columnList = new ArrayList<>(accessor.getFields().length);
+		for (FieldAccessor field : accessor.getFields()) {
+			columnList.add(field.getColumnName());
+		}
+		this.columns = Collections.unmodifiableList(columnList);
+	}
+
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * 数据库字段，按实体属性顺序(子类在前，父类在后)
+	 * @return
+	 */
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * key 为实体属性，value 为数据库字段
+	 * @return
+	 */
+	public Map<String, String> getColumnMap() {
+		return columnMap;
+	}
+
+	/**
+	 * key 为数据库字段，value 为实体属性，只包含两者不同的属性
+	 * @return
+	 */
+	public Map<String, String> getFieldMap() {
+		return fieldMap;
+	}
+
+	public EntityAccessor getAccessor() {
+		return accessor;
+	}
+}
@@ -1,5 +1,6 @@
 package com.obatis.orm.mapper;
 
+import com.obatis.orm.sql.ProviderLanguageDriver;
 import com.obatis.orm.sql.SqlProvider;
 import org.apache.ibatis.annotations.*;
 
@@ -17,25 +18,41 @@ public interface BaseBeanSessionMapper<T> extends CommonMapper<T> {
 	@InsertProvider(type = SqlProvider.class, method = "batchInsert")
 	int insertBatch(@Param("request") List<T> list, String tableName, Class<T> cls);
 	
+	@InsertProvider(type = SqlProvider.class, method = "batchInsertChunk")
+	int insertBatchChunk(@Param("request") List<T> list, String tableName, Class<T> cls);
+	
+	@InsertProvider(type = SqlProvider.class, method = "insertRow")
+	int insertRow(@Param("request") T t, String tableName, Class<T> cls);
+	
 	@UpdateProvider(type = SqlProvider.class, method = "update")
+	@Lang(ProviderLanguageDriver.class)
 	int update(@Param("request") Map<String, Object> params, String tableName);
 	
 	@UpdateProvider(type = SqlProvider.class, method = "batchUpdate")
+	@Lang(ProviderLanguageDriver.class)
 	int updateBatch(@Param("request") Map<String, Object> params, String tableName);
 	
+	@UpdateProvider(type = SqlProvider.class, method = "returnParamSql")
+	@Lang(ProviderLanguageDriver.class)
+	int updateBySql(String sql, @Param("request") Map<String, Object> params);
+	
 	@DeleteProvider(type = SqlProvider.class, method = "deleteById")
 	int deleteById(@Param("id") Object id, String tableName);
 	
 	@DeleteProvider(type = SqlProvider.class, method = "delete")
+	@Lang(ProviderLanguageDriver.class)
 	int delete(@Param("request") Map<String, Object> param, String tableName);
 
 	@SelectProvider(type = SqlProvider.class, method = "validate")
+	@Lang(ProviderLanguageDriver.class)
 	int validate(@Param("request") Map<String, Object> param, String tableName);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
+	@Lang(ProviderLanguageDriver.class)
 	Map<String, Object> findToMap(@Param("request") Map<String, Object> params, String tableName);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
+	@Lang(ProviderLanguageDriver.class)
 	Object findObject(@Param("request") Map<String, Object> param, String tableName);
 	
 	@SelectProvider(type = SqlProvider.class, method = "replaceSql")
@@ -45,9 +62,11 @@ public interface BaseBeanSessionMapper<T> extends CommonMapper<T> {
 	Map<String, Object> findMapBySql(String sql, @Param("request") List<Object> list);
 
 	@SelectProvider(type = SqlProvider.class, method = "find")
+	@Lang(ProviderLanguageDriver.class)
 	List<Map<String, Object>> query(@Param("request") Map<String, Object> params, String tableName);
 
 	@SelectProvider(type = SqlProvider.class, method = "returnParamSql")
+	@Lang(ProviderLanguageDriver.class)
 	int findTotal(String sql, @Param("request") Map<String, Object> params);
 	
 	@SelectProvider(type = SqlProvider.class, method = "replaceSql")
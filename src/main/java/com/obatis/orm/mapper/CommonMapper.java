@@ -1,8 +1,12 @@
 package com.obatis.orm.mapper;
 
+import com.obatis.orm.sql.ProviderLanguageDriver;
 import com.obatis.orm.sql.SqlProvider;
+import org.apache.ibatis.annotations.Lang;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -16,41 +20,61 @@ import java.util.Map;
 public interface CommonMapper<R> {
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     R find(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     Integer findInteger(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     BigInteger findBigInteger(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     Long findLong(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     Double findDouble(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     BigDecimal findBigDecimal(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     Date findDate(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     LocalDate findLocalDate(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     LocalDateTime findLocalDateTime(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     LocalTime findLocalTime(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     String findString(@Param("request") Map<String, Object> param, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<R> list(@Param("request") Map<String, Object> param, String tableName);
 
+    /**
+     * 流式查询，MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行读取结果集
+     */
+    @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<R> cursor(@Param("request") Map<String, Object> param, String tableName);
+
     @SelectProvider(type = SqlProvider.class, method = "replaceSql")
     R findBySql(String sql, @Param("request") List<Object> list);
 
@@ -61,32 +85,42 @@ public interface CommonMapper<R> {
     List<Map<String, Object>> listMapBySql(String sql, @Param("request") List<Object> list);
 
     @SelectProvider(type = SqlProvider.class, method = "pageSql")
+    @Lang(ProviderLanguageDriver.class)
     List<R> page(String sql, @Param("request") Map<String, Object> params);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<Integer> listInteger(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<BigInteger> listBigInteger(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<Long> listLong(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<Double> listDouble(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<BigDecimal> listBigDecimal(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<String> listString(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<Date> listDate(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<LocalDate> listLocalDate(@Param("request") Map<String, Object> params, String tableName);
 
     @SelectProvider(type = SqlProvider.class, method = "find")
+    @Lang(ProviderLanguageDriver.class)
     List<LocalDateTime> listLocalDateTime(@Param("request") Map<String, Object> params, String tableName);
 }
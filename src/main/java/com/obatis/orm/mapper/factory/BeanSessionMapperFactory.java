@@ -33,13 +33,26 @@ public class BeanSessionMapperFactory {
 		return sessionMapper;
 	}
 
-	private static BaseBeanSessionMapper getSessionMapper(String canonicalName) throws HandleException {
+	/**
+	 * 获取动态构建的 mapper 接口类型
+	 * @param sqlSession
+	 * @param canonicalName
+	 * @return
+	 * @throws HandleException
+	 */
+	public static Class<?> getSessionMapperClass(SqlSession sqlSession, String canonicalName) throws HandleException {
 
-		if(CacheInfoConstant.BEAN_SESSION_MAPPER.containsKey(canonicalName)) {
-			return CacheInfoConstant.BEAN_SESSION_MAPPER.get(canonicalName);
+		getSessionMapper(sqlSession, canonicalName);
+		Class<?> mapperCls = CacheInfoConstant.BEAN_SESSION_MAPPER_CLASS.get(canonicalName);
+		if(mapperCls == null) {
+			throw new HandleException("error: sessionMapper is null");
 		}
+		return mapperCls;
+	}
 
-		return null;
+	private static BaseBeanSessionMapper getSessionMapper(String canonicalName) throws HandleException {
+
+		return CacheInfoConstant.BEAN_SESSION_MAPPER.get(canonicalName);
 	}
 
 	private static synchronized void createSessionMapper(SqlSession sqlSession, String canonicalName) {
@@ -72,12 +85,17 @@ public class BeanSessionMapperFactory {
 			return;
 		}
 
-		Class<?> mapperCls;
-		try {
-			mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseBeanSessionMapper.class);
-		} catch (Exception e) {
-			e.printStackTrace();
-			throw new HandleException("error: compilerMapper is fail");
+		/**
+		 * 优先使用编译期生成的 mapper，编译期未处理的类再运行时编译
+		 */
+		Class<?> mapperCls = SessionMapperIndex.getMapperClass(canonicalName, BaseBeanSessionMapper.class);
+		if(mapperCls == null) {
+			try {
+				mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseBeanSessionMapper.class);
+			} catch (Exception e) {
+				e.printStackTrace();
+				throw new HandleException("error: compilerMapper is fail");
+			}
 		}
 
 		if(mapperCls == null) {
@@ -89,6 +107,7 @@ public class BeanSessionMapperFactory {
 		if(mapper == null) {
 			throw new HandleException("error: compilerMapper is fail");
 		}
+		CacheInfoConstant.BEAN_SESSION_MAPPER_CLASS.put(canonicalName, mapperCls);
 		CacheInfoConstant.BEAN_SESSION_MAPPER.put(canonicalName, mapper);
 	}
 }
@@ -30,13 +30,25 @@ public class ResultSessionMapperFactory {
 		return sessionMapper;
 	}
 
-	private static BaseResultSessionMapper getSessionMapper(String canonicalName) throws HandleException {
+	/**
+	 * 获取动态构建的 mapper 接口类型
+	 * @param sqlSession
+	 * @param canonicalName
+	 * @return
+	 */
+	public static Class<?> getSessionMapperClass(SqlSession sqlSession, String canonicalName) {
 
-		if(CacheInfoConstant.RESULT_SESSION_MAPPER.containsKey(canonicalName)) {
-			return CacheInfoConstant.RESULT_SESSION_MAPPER.get(canonicalName);
+		getSessionMapper(sqlSession, canonicalName);
+		Class<?> mapperCls = CacheInfoConstant.RESULT_SESSION_MAPPER_CLASS.get(canonicalName);
+		if(mapperCls == null) {
+			throw new HandleException("error: result sessionMapper is null");
 		}
+		return mapperCls;
+	}
 
-		return null;
+	private static BaseResultSessionMapper getSessionMapper(String canonicalName) throws HandleException {
+
+		return CacheInfoConstant.RESULT_SESSION_MAPPER.get(canonicalName);
 	}
 
 	private static synchronized void createSessionMapper(SqlSession sqlSession, String canonicalName) {
@@ -60,12 +72,17 @@ public class ResultSessionMapperFactory {
 			return;
 		}
 
-		Class<?> mapperCls;
-		try {
-			mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseResultSessionMapper.class);
-		} catch (Exception e) {
-			e.printStackTrace();
-			throw new HandleException("error: compilerMapper is fail");
+		/**
+		 * 优先使用编译期生成的 mapper，编译期未处理的类再运行时编译
+		 */
+		Class<?> mapperCls = SessionMapperIndex.getMapperClass(canonicalName, BaseResultSessionMapper.class);
+		if(mapperCls == null) {
+			try {
+				mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseResultSessionMapper.class);
+			} catch (Exception e) {
+				e.printStackTrace();
+				throw new HandleException("error: compilerMapper is fail");
+			}
 		}
 
 		if(mapperCls == null) {
@@ -77,6 +94,7 @@ public class ResultSessionMapperFactory {
 		if(resultMapper == null) {
 			throw new HandleException("error: compilerMapper is fail");
 		}
+		CacheInfoConstant.RESULT_SESSION_MAPPER_CLASS.put(canonicalName, mapperCls);
 		CacheInfoConstant.RESULT_SESSION_MAPPER.put(canonicalName, resultMapper);
 	}
 }
@@ -0,0 +1,84 @@
+package com.obatis.orm.mapper.factory;
+
+import com.obatis.orm.processor.SessionMapperProcessor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 编译期生成的 sessionMapper 索引，读取 classpath 下所有的 META-INF/obatis/session-mapper.index
+ * @author HuangLongPu
+ */
+public class SessionMapperIndex {
+
+	private static volatile Map<String, String[]> INDEX_MAP;
+
+	private SessionMapperIndex() {}
+
+	/**
+	 * 获取编译期生成的 mapper 接口，索引中不存在或者加载失败返回 null，由调用方在运行时编译
+	 * @param canonicalName
+	 * @param mapperCls
+	 * @return
+	 */
+	public static Class<?> getMapperClass(String canonicalName, Class<?> mapperCls) {
+		String[] item = getIndexMap().get(canonicalName);
+		if (item == null) {
+			return null;
+		}
+		try {
+			Class<?> cls = Class.forName(item[1], true, getClassLoader());
+			return cls.isInterface() && mapperCls.isAssignableFrom(cls) ? cls : null;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+
+	private static Map<String, String[]> getIndexMap() {
+		Map<String, String[]> indexMap = INDEX_MAP;
+		if (indexMap == null) {
+			synchronized (SessionMapperIndex.class) {
+				indexMap = INDEX_MAP;
+				if (indexMap == null) {
+					indexMap = loadIndex();
+					INDEX_MAP = indexMap;
+				}
+			}
+		}
+		return indexMap;
+	}
+
+	private static Map<String, String[]> loadIndex() {
+		Map<String, String[]> indexMap = new HashMap<>();
+		try {
+			Enumeration<URL> resources = getClassLoader().getResources(SessionMapperProcessor.INDEX_RESOURCE);
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						String[] item = line.trim().split("\\|");
+						if (item.length == 3) {
+							indexMap.putIfAbsent(item[0], new String[] {item[1], item[2]});
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return Collections.unmodifiableMap(indexMap);
+	}
+
+	private static ClassLoader getClassLoader() {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return classLoader == null ? SessionMapperIndex.class.getClassLoader() : classLoader;
+	}
+}
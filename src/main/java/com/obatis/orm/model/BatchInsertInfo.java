@@ -0,0 +1,117 @@
+package com.obatis.orm.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分批添加的执行结果，包含总行数、影响行数、总耗时以及每一批的执行情况
+ * @author HuangLongPu
+ */
+public class BatchInsertInfo {
+
+	private int rows;
+	private int count;
+	private long costMillis;
+	private final List<ChunkInfo> chunks = new ArrayList<>();
+
+	public BatchInsertInfo() {
+
+	}
+
+	/**
+	 * 添加的总行数
+	 * @return
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	public void setRows(int rows) {
+		this.rows = rows;
+	}
+
+	/**
+	 * 影响行数
+	 * @return
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+	/**
+	 * 总耗时，单位毫秒
+	 * @return
+	 */
+	public long getCostMillis() {
+		return costMillis;
+	}
+
+	public void setCostMillis(long costMillis) {
+		this.costMillis = costMillis;
+	}
+
+	/**
+	 * 每一批的执行情况，按批次顺序排列
+	 * @return
+	 */
+	public List<ChunkInfo> getChunks() {
+		return Collections.unmodifiableList(chunks);
+	}
+
+	public void addChunk(ChunkInfo chunk) {
+		this.chunks.add(chunk);
+	}
+
+	@Override
+	public String toString() {
+		return "BatchInsertInfo{rows=" + rows + ", count=" + count + ", costMillis=" + costMillis + ", chunks=" + chunks + "}";
+	}
+
+	/**
+	 * 单批次的执行情况
+	 */
+	public static class ChunkInfo {
+
+		private final int index;
+		private final int rows;
+		private final int count;
+		private final long costMillis;
+
+		public ChunkInfo(int index, int rows, int count, long costMillis) {
+			this.index = index;
+			this.rows = rows;
+			this.count = count;
+			this.costMillis = costMillis;
+		}
+
+		/**
+		 * 批次序号，从 0 开始
+		 * @return
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		public int getRows() {
+			return rows;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public long getCostMillis() {
+			return costMillis;
+		}
+
+		@Override
+		public String toString() {
+			return "{index=" + index + ", rows=" + rows + ", count=" + count + ", costMillis=" + costMillis + "}";
+		}
+	}
+}
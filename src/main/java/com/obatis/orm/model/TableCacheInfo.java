@@ -0,0 +1,96 @@
+package com.obatis.orm.model;
+
+/**
+ * 实体缓存的统计信息，获取时的快照
+ * @author HuangLongPu
+ */
+public class TableCacheInfo {
+
+	private final String tableName;
+	private final int size;
+	private final long hitCount;
+	private final long missCount;
+	private final long loadCount;
+	private final long loadNanos;
+	private final long evictionCount;
+	private final long expireCount;
+
+	public TableCacheInfo(String tableName, int size, long hitCount, long missCount, long loadCount, long loadNanos, long evictionCount, long expireCount) {
+		this.tableName = tableName;
+		this.size = size;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.loadCount = loadCount;
+		this.loadNanos = loadNanos;
+		this.evictionCount = evictionCount;
+		this.expireCount = expireCount;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * 当前缓存的记录条数
+	 * @return
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * 命中率，未查询过时为 0
+	 * @return
+	 */
+	public double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+	}
+
+	/**
+	 * 未命中时从数据库加载的次数
+	 * @return
+	 */
+	public long getLoadCount() {
+		return loadCount;
+	}
+
+	/**
+	 * 平均加载耗时，单位毫秒
+	 * @return
+	 */
+	public double getAverageLoadMillis() {
+		return loadCount == 0 ? 0 : loadNanos / 1000000.0 / loadCount;
+	}
+
+	/**
+	 * 超过最大条数被淘汰的次数
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * 超过缓存时间被移除的次数
+	 * @return
+	 */
+	public long getExpireCount() {
+		return expireCount;
+	}
+
+	@Override
+	public String toString() {
+		return "TableCacheInfo{tableName=" + tableName + ", size=" + size + ", hitCount=" + hitCount + ", missCount=" + missCount
+				+ ", loadCount=" + loadCount + ", averageLoadMillis=" + getAverageLoadMillis() + ", evictionCount=" + evictionCount
+				+ ", expireCount=" + expireCount + "}";
+	}
+}
@@ -0,0 +1,193 @@
+package com.obatis.orm.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译期生成 sessionMapper 接口类，并将实体、结果类与 mapper 的对应关系写入 META-INF/obatis/session-mapper.index。
+ * 启动时优先加载生成的 mapper，不再调用 Java 编译器；未被处理的类(如内部类、增量编译遗漏)仍走运行时编译
+ * @author HuangLongPu
+ */
+@SupportedAnnotationTypes("*")
+public class SessionMapperProcessor extends AbstractProcessor {
+
+	public static final String INDEX_RESOURCE = "META-INF/obatis/session-mapper.index";
+	public static final String MAPPER_SUFFIX = "SessionMapper";
+	public static final String TYPE_BEAN = "bean";
+	public static final String TYPE_RESULT = "result";
+
+	private static final String TABLE_ANNOTATION = "com.obatis.orm.annotation.Table";
+	private static final String RESULT_INFO = "com.obatis.config.response.result.ResultInfo";
+	private static final String BEAN_SESSION_MAPPER = "com.obatis.orm.mapper.BaseBeanSessionMapper";
+	private static final String RESULT_SESSION_MAPPER = "com.obatis.orm.mapper.BaseResultSessionMapper";
+
+	/**
+	 * key 为类的全名，value 为 类型|mapper 全名，按处理顺序写入索引
+	 */
+	private final Map<String, String> indexMap = new LinkedHashMap<>();
+	/**
+	 * 编译输出目录中已有的索引，格式同 indexMap，首次使用时读取
+	 */
+	private Map<String, String> existIndexMap;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+		if (roundEnv.processingOver()) {
+			writeIndex();
+			return false;
+		}
+
+		TypeElement resultInfo = processingEnv.getElementUtils().getTypeElement(RESULT_INFO);
+		TypeMirror resultInfoType = resultInfo == null ? null : processingEnv.getTypeUtils().erasure(resultInfo.asType());
+		for (Element element : roundEnv.getRootElements()) {
+			if (element.getKind() != ElementKind.CLASS) {
+				continue;
+			}
+			TypeElement typeElement = (TypeElement) element;
+			if (hasTableAnnotation(typeElement)) {
+				generateMapper(typeElement, TYPE_BEAN, BEAN_SESSION_MAPPER);
+			} else if (resultInfoType != null && !typeElement.equals(resultInfo)
+					&& processingEnv.getTypeUtils().isSubtype(processingEnv.getTypeUtils().erasure(typeElement.asType()), resultInfoType)) {
+				generateMapper(typeElement, TYPE_RESULT, RESULT_SESSION_MAPPER);
+			}
+		}
+		return false;
+	}
+
+	private boolean hasTableAnnotation(TypeElement typeElement) {
+		return typeElement.getAnnotationMirrors().stream()
+				.anyMatch(mirror -> TABLE_ANNOTATION.equals(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString()));
+	}
+
+	/**
+	 * 生成 mapper 接口，与运行时 SessionMapperCompilerTemplet 生成的接口一致，类名以 SessionMapper 结尾，避免与项目中已有的 Mapper 冲突
+	 * @param typeElement
+	 * @param type
+	 * @param mapperCls
+	 */
+	private void generateMapper(TypeElement typeElement, String type, String mapperCls) {
+
+		String canonicalName = typeElement.getQualifiedName().toString();
+		if (indexMap.containsKey(canonicalName) || typeElement.getNestingKind() != NestingKind.TOP_LEVEL
+				|| !typeElement.getModifiers().contains(Modifier.PUBLIC) || !typeElement.getTypeParameters().isEmpty()) {
+			return;
+		}
+
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(typeElement);
+		if (packageElement.isUnnamed()) {
+			return;
+		}
+		String packageName = packageElement.getQualifiedName().toString();
+		String entityName = typeElement.getSimpleName().toString();
+		String javaName = entityName + MAPPER_SUFFIX;
+		String mapperName = packageName + "." + javaName;
+		if (processingEnv.getElementUtils().getTypeElement(mapperName) != null) {
+			if ((type + "|" + mapperName).equals(getExistIndexMap().get(canonicalName))) {
+				// 之前编译时已生成，增量编译时沿用
+				indexMap.put(canonicalName, type + "|" + mapperName);
+				return;
+			}
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, mapperName + " already exists, " + canonicalName + " mapper will be compiled at runtime", typeElement);
+			return;
+		}
+
+		String javaSource = "package " + packageName + ";\n\n"
+				+ "import " + canonicalName + ";\n\n"
+				+ "public interface " + javaName + " extends " + mapperCls + "<" + entityName + "> {\n"
+				+ "}\n";
+		try {
+			JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(mapperName, typeElement);
+			try (Writer writer = sourceFile.openWriter()) {
+				writer.write(javaSource);
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "create " + mapperName + " fail, " + canonicalName + " mapper will be compiled at runtime: " + e.getMessage(), typeElement);
+			return;
+		}
+		indexMap.put(canonicalName, type + "|" + mapperName);
+	}
+
+	/**
+	 * 写入索引，合并已有索引中本次未编译的类，增量编译时未重新编译的类仍使用已生成的 mapper；
+	 * 已删除的类或 mapper 不再写入
+	 */
+	private void writeIndex() {
+
+		if (indexMap.isEmpty()) {
+			return;
+		}
+
+		Map<String, String> mergeMap = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : getExistIndexMap().entrySet()) {
+			String mapperName = entry.getValue().substring(entry.getValue().indexOf('|') + 1);
+			if (!indexMap.containsKey(entry.getKey()) && processingEnv.getElementUtils().getTypeElement(entry.getKey()) != null
+					&& processingEnv.getElementUtils().getTypeElement(mapperName) != null) {
+				mergeMap.put(entry.getKey(), entry.getValue());
+			}
+		}
+		mergeMap.putAll(indexMap);
+		StringBuilder content = new StringBuilder();
+		for (Map.Entry<String, String> entry : mergeMap.entrySet()) {
+			content.append(entry.getKey()).append('|').append(entry.getValue()).append('\n');
+		}
+		try {
+			FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			try (Writer writer = resource.openWriter()) {
+				writer.write(content.toString());
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "create " + INDEX_RESOURCE + " fail: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * 读取编译输出目录中已有的索引，不存在时为空集合
+	 * @return
+	 */
+	private Map<String, String> getExistIndexMap() {
+
+		if (existIndexMap != null) {
+			return existIndexMap;
+		}
+		existIndexMap = new LinkedHashMap<>();
+		CharSequence content;
+		try {
+			FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			content = resource.getCharContent(true);
+		} catch (IOException | IllegalArgumentException e) {
+			return existIndexMap;
+		}
+
+		for (String line : content.toString().split("\n")) {
+			String[] items = line.trim().split("\\|");
+			if (items.length == 3) {
+				existIndexMap.put(items[0], items[1] + "|" + items[2]);
+			}
+		}
+		return existIndexMap;
+	}
+}
@@ -1,6 +1,7 @@
 package com.obatis.orm.provider;
 
 import com.obatis.exception.HandleException;
+import com.obatis.orm.constant.type.PageCountEnum;
 import com.obatis.orm.constant.type.UnionEnum;
 import com.obatis.orm.provider.condition.AbstractQueryConditionProvider;
 import com.obatis.orm.provider.condition.ConditionProvider;
@@ -171,6 +172,39 @@ public interface QueryProvider extends AbstractQueryConditionProvider {
      */
     QueryProvider setPageInfo(int page, int rows);
 
+    /**
+     * 设置游标(keyset)分页的起始位置，传入上一页最后一行排序字段的值，顺序与 addOrder 一致。
+     * 查询时生成 where (k1,k2) > (?,?) 条件(降序为 <)，所有排序字段需为同一排序方向，且排序字段值不能为 null。
+     * 不传值或传入 null 表示查询第一页，设置了游标值的 QueryProvider 用于 page 分页查询时抛出异常
+     * @param values
+     * @return
+     */
+    QueryProvider seekAfter(Object... values);
+
+    /**
+     * 设置分页查询统计总条数的方式，默认为 PageCountEnum.COUNT
+     * @param pageCountType
+     * @return
+     */
+    QueryProvider setPageCount(PageCountEnum pageCountType);
+
+    /**
+     * 设置分页查询统计总条数的方式，cacheMillis 为 PageCountEnum.CACHED 方式的缓存时间，单位毫秒
+     * @param pageCountType
+     * @param cacheMillis
+     * @return
+     */
+    QueryProvider setPageCount(PageCountEnum pageCountType, long cacheMillis);
+
+    /**
+     * 开启查询结果缓存，find、findOne、findConvertMap、list、listConvertMap 查询按语句和条件值缓存结果，
+     * 查询涉及的任意一张表通过 SqlHandle 增删改时移除缓存，存在事务时不使用缓存。ttlMillis 小于等于 0 时不缓存，单位毫秒。
+     * 返回单个值的查询(如 findInteger、listLong)、分页查询及按 InFilterChunk 拆分执行的 list 查询不使用缓存
+     * @param ttlMillis
+     * @return
+     */
+    QueryProvider cacheable(long ttlMillis);
+
     /**
      * 添加 union all 连接查询
      * @param queryProvider
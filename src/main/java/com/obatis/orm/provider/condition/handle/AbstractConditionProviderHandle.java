@@ -9,6 +9,11 @@ import com.obatis.orm.constant.type.SqlHandleEnum;
 import com.obatis.orm.provider.QueryProvider;
 import com.obatis.orm.provider.condition.AbstractConditionProvider;
 import com.obatis.orm.provider.condition.ConditionProvider;
+import com.obatis.orm.provider.node.ColumnNode;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.JoinNode;
+import com.obatis.orm.provider.node.OrderNode;
+import com.obatis.orm.provider.node.ProviderNode;
 import com.obatis.orm.sql.mysql.HandleOrderMethod;
 import com.obatis.tools.ValidateTool;
 
@@ -20,23 +25,23 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
     /**
      * 字段列表
      */
-    private List<Object[]> columnArray;
+    private List<ColumnNode> columnArray;
     /**
      * 连接查询 on 条件列表
      */
-    private List<Object[]> onFilterArray;
+    private List<FilterNode> onFilterArray;
     /**
      * 连接查询 on 追加的代理句柄列表
      */
-    private List<Object[]> onProviderArray;
+    private List<ProviderNode> onProviderArray;
     /**
      * 连接查询代理句柄列表
      */
-    private List<Object[]> leftJoinProviderArray;
+    private List<JoinNode> leftJoinProviderArray;
     /**
      * 排序列表
      */
-    private List<Object[]> orderArray;
+    private List<OrderNode> orderArray;
     /**
      * 代理类序列号
      */
@@ -56,23 +61,23 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
      * 获取字段列表
      * @return
      */
-    public List<Object[]> getColumnArray() {
+    public List<ColumnNode> getColumnArray() {
         return this.columnArray;
     }
 
-    public List<Object[]> getOnFilterArray() {
+    public List<FilterNode> getOnFilterArray() {
         return onFilterArray;
     }
 
-    public List<Object[]> getOnProviderArray() {
+    public List<ProviderNode> getOnProviderArray() {
         return onProviderArray;
     }
 
-    public List<Object[]> getLeftJoinProviderArray() {
+    public List<JoinNode> getLeftJoinProviderArray() {
         return leftJoinProviderArray;
     }
 
-    public List<Object[]> getOrderArray() {
+    public List<OrderNode> getOrderArray() {
         return orderArray;
     }
 
@@ -110,13 +115,7 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
         if (this.columnArray == null) {
             this.columnArray = new ArrayList<>();
         }
-        if(ValidateTool.isEmpty(pattern)) {
-            Object[] obj = { fieldName, fieldType, value };
-            this.columnArray.add(obj);
-        } else {
-            Object[] obj = { fieldName, fieldType, value, pattern};
-            this.columnArray.add(obj);
-        }
+        this.columnArray.add(new ColumnNode(fieldName, fieldType, value, ValidateTool.isEmpty(pattern) ? null : pattern));
     }
 
     /**
@@ -159,19 +158,13 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
         } else if (!FilterEnum.IS_NULL.equals(filterType) && !FilterEnum.IS_NOT_NULL.equals(filterType) && null == value) {
             throw new HandleException("error: on filter value<" + filterName + "> is null");
         }
+        FilterNode filter = new FilterNode(filterName, filterType, value, joinTypeEnum, ValidateTool.isEmpty(pattern) ? null : pattern);
         if (this.onFilterArray == null) {
             this.onFilterArray = new ArrayList<>();
         } else {
-            this.checkFilter(this.onFilterArray, filterName, filterType, value, joinTypeEnum);
-        }
-
-        if(ValidateTool.isEmpty(pattern)) {
-            Object[] obj = {filterName, filterType, value, joinTypeEnum};
-            this.onFilterArray.add(obj);
-        } else {
-            Object[] obj = {filterName, filterType, value, joinTypeEnum, pattern};
-            this.onFilterArray.add(obj);
+            this.checkFilter(this.onFilterArray, filter);
         }
+        this.onFilterArray.add(filter);
     }
 
     /**
@@ -632,8 +625,7 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
             onProviderArray = new ArrayList<>();
         }
 
-        Object[] obj = {queryProvider, joinTypeEnum};
-        this.onProviderArray.add(obj);
+        this.onProviderArray.add(new ProviderNode(queryProvider, joinTypeEnum));
         return this;
     }
 
@@ -656,8 +648,7 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
             leftJoinProviderArray = new ArrayList<>();
         }
 
-        Object[] obj = { fieldName, paramFieldName, queryProvider };
-        this.leftJoinProviderArray.add(obj);
+        this.leftJoinProviderArray.add(new JoinNode(fieldName, paramFieldName, queryProvider));
         return this;
     }
 
@@ -685,8 +676,7 @@ public class AbstractConditionProviderHandle extends ConditionProviderHandle imp
             leftJoinProviderArray = new ArrayList<>();
         }
 
-        Object[] obj = { fieldName, paramFieldName, queryProvider };
-        this.leftJoinProviderArray.add(obj);
+        this.leftJoinProviderArray.add(new JoinNode(fieldName, paramFieldName, queryProvider));
         return this;
     }
 
@@ -2,6 +2,7 @@ package com.obatis.orm.provider.condition.handle;
 
 import com.obatis.orm.constant.type.OrderEnum;
 import com.obatis.orm.constant.type.SqlHandleEnum;
+import com.obatis.orm.provider.node.OrderNode;
 
 import java.util.List;
 
@@ -11,5 +12,5 @@ public abstract class AbstractOrder {
 
 	}
 	
-	protected abstract void addOrder(List<Object[]> orders, String orderName, OrderEnum orderType, SqlHandleEnum sqlHandleEnum);
+	protected abstract void addOrder(List<OrderNode> orders, String orderName, OrderEnum orderType, SqlHandleEnum sqlHandleEnum);
 }
@@ -4,6 +4,8 @@ import com.obatis.exception.HandleException;
 import com.obatis.orm.constant.type.FilterEnum;
 import com.obatis.orm.constant.type.SqlHandleEnum;
 import com.obatis.orm.provider.condition.AbstractQueryConditionProvider;
+import com.obatis.orm.provider.node.GroupNode;
+import com.obatis.orm.provider.node.HavingNode;
 import com.obatis.tools.ValidateTool;
 
 import java.util.ArrayList;
@@ -16,17 +18,17 @@ public class AbstractQueryConditionProviderHandle extends AbstractConditionProvi
     /**
      * 分组列表
      */
-    private List<Object[]> groupArray;
+    private List<GroupNode> groupArray;
     /**
      * having 条件表达式列表
      */
-    private List<Object[]> havingArray;
+    private List<HavingNode> havingArray;
 
-    public List<Object[]> getGroupArray() {
+    public List<GroupNode> getGroupArray() {
         return groupArray;
     }
 
-    public List<Object[]> getHavingArray() {
+    public List<HavingNode> getHavingArray() {
         return havingArray;
     }
 
@@ -54,8 +56,7 @@ public class AbstractQueryConditionProviderHandle extends AbstractConditionProvi
         if (this.groupArray == null) {
             this.groupArray = new ArrayList<>();
         }
-        Object[] group = {column, sqlHandleEnum, pattern};
-        this.groupArray.add(group);
+        this.groupArray.add(new GroupNode(column, sqlHandleEnum, pattern));
     }
 
     @Override
@@ -99,8 +100,7 @@ public class AbstractQueryConditionProviderHandle extends AbstractConditionProvi
             this.havingArray = new ArrayList<>();
         }
 
-        Object[] having = {fieldName, sqlHandleEnum, filterEnum, value};
-        this.havingArray.add(having);
+        this.havingArray.add(new HavingNode(fieldName, sqlHandleEnum, filterEnum, value));
     }
 
     @Override
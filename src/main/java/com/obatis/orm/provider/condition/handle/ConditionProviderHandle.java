@@ -6,6 +6,8 @@ import com.obatis.orm.constant.type.AppendTypeEnum;
 import com.obatis.orm.constant.type.FilterEnum;
 import com.obatis.orm.provider.QueryProvider;
 import com.obatis.orm.provider.condition.ConditionProvider;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.ProviderNode;
 import com.obatis.orm.sql.QueryHandle;
 import com.obatis.tools.ValidateTool;
 
@@ -17,11 +19,11 @@ public class ConditionProviderHandle implements ConditionProvider {
     /**
      * 条件列表
      */
-    private List<Object[]> filterArray;
+    private List<FilterNode> filterArray;
     /**
      * 追加的代理句柄列表
      */
-    private List<Object[]> providerArray;
+    private List<ProviderNode> providerArray;
     /**
      * 影响行数，默认为0，默认值时 SQL 不体现 limit 关键字
      */
@@ -31,7 +33,7 @@ public class ConditionProviderHandle implements ConditionProvider {
      */
     public Object updateObj;
 
-    public List<Object[]> getProviderArray() {
+    public List<ProviderNode> getProviderArray() {
         return providerArray;
     }
 
@@ -39,7 +41,7 @@ public class ConditionProviderHandle implements ConditionProvider {
      * 获取查询条件
      * @return
      */
-    public List<Object[]> getFilterArray() {
+    public List<FilterNode> getFilterArray() {
         return filterArray;
     }
 
@@ -99,39 +101,28 @@ public class ConditionProviderHandle implements ConditionProvider {
             throw new HandleException("error: filter value<" + filterName + "> is null");
         }
 
+        FilterNode filter = new FilterNode(filterName, filterType, value, joinTypeEnum, ValidateTool.isEmpty(pattern) ? null : pattern);
         if (this.filterArray == null) {
             this.filterArray = new ArrayList<>();
         } else {
-            this.checkFilter(this.filterArray, filterName, filterType, value, joinTypeEnum);
-        }
-        if(ValidateTool.isEmpty(pattern)) {
-            Object[] obj = {filterName, filterType, value, joinTypeEnum};
-            this.filterArray.add(obj);
-        } else {
-            Object[] obj = {filterName, filterType, value, joinTypeEnum, pattern};
-            this.filterArray.add(obj);
+            this.checkFilter(this.filterArray, filter);
         }
+        this.filterArray.add(filter);
     }
 
     /**
-     * 检测是否重复添加条件
+     * 检测是否重复添加条件，字段、操作类型、拼接类型以及值都相同时移除已添加的条件
      * @param filterList
-     * @param filterName
-     * @param filterType
-     * @param value
-     * @param joinTypeEnum
+     * @param filter
      */
-    protected void checkFilter(List<Object[]> filterList, String filterName, FilterEnum filterType, Object value, AppendTypeEnum joinTypeEnum) {
+    protected void checkFilter(List<FilterNode> filterList, FilterNode filter) {
         for (int i = 0, j = filterList.size(); i < j; i++) {
-            Object[] filter = filterList.get(i);
-            if(filter[0].toString().equals(filterName) && filterType.equals(filter[1]) && joinTypeEnum.equals(filter[3])) {
-                if(FilterEnum.IS_NULL.equals(filterType) || FilterEnum.IS_NOT_NULL.equals(filterType)) {
-                    filterList.remove(i);
-                } else if (!value.equals(filter[2])) {
-                    break;
-                } else {
+            FilterNode item = filterList.get(i);
+            if(item.isSameFilter(filter)) {
+                if(FilterEnum.IS_NULL.equals(filter.getFilterType()) || FilterEnum.IS_NOT_NULL.equals(filter.getFilterType()) || filter.getValue().equals(item.getValue())) {
                     filterList.remove(i);
                 }
+                break;
             }
         }
     }
@@ -270,7 +261,7 @@ public class ConditionProviderHandle implements ConditionProvider {
 
     @Override
     public ConditionProvider greaterEqualDateFormat(String filterName, Object value, String pattern) {
-        this.andFilter(filterName, FilterEnum.GREATER_EQUAL_DATE_FORMAT, value);
+        this.andFilter(filterName, FilterEnum.GREATER_EQUAL_DATE_FORMAT, value, pattern);
         return this;
     }
 
@@ -592,8 +583,7 @@ public class ConditionProviderHandle implements ConditionProvider {
             providerArray = new ArrayList<>();
         }
 
-        Object[] obj = {queryProvider, joinTypeEnum};
-        this.providerArray.add(obj);
+        this.providerArray.add(new ProviderNode(queryProvider, joinTypeEnum));
         return this;
     }
 
@@ -3,6 +3,7 @@ package com.obatis.orm.provider.handle;
 import com.obatis.orm.provider.DeleteProvider;
 import com.obatis.orm.provider.QueryProvider;
 import com.obatis.orm.provider.UpdateProvider;
+import com.obatis.orm.sql.QueryTemplate;
 
 public class ProviderBuilder {
 
@@ -23,6 +24,24 @@ public class ProviderBuilder {
         return new QueryProviderHandle(tableName);
     }
 
+    /**
+     * 创建查询模板，QueryProvider 中使用 slot 创建的命名占位作为条件值，执行时绑定占位的值
+     * @param provider
+     * @return
+     */
+    public static QueryTemplate template(QueryProvider provider) {
+        return new QueryTemplate(provider);
+    }
+
+    /**
+     * 创建查询模板的命名占位
+     * @param name
+     * @return
+     */
+    public static QueryTemplate.Slot slot(String name) {
+        return QueryTemplate.slot(name);
+    }
+
     /**
      * 创建更新代理
      * @return
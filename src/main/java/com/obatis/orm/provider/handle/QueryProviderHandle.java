@@ -3,11 +3,15 @@ package com.obatis.orm.provider.handle;
 import com.obatis.config.request.RequestConstant;
 import com.obatis.config.response.result.ResultInfo;
 import com.obatis.exception.HandleException;
+import com.obatis.orm.constant.SqlConstant;
+import com.obatis.orm.constant.type.PageCountEnum;
 import com.obatis.orm.constant.type.SqlHandleEnum;
 import com.obatis.orm.constant.type.UnionEnum;
 import com.obatis.orm.convert.BeanCacheConvert;
 import com.obatis.orm.provider.QueryProvider;
 import com.obatis.orm.provider.condition.handle.AbstractQueryConditionProviderHandle;
+import com.obatis.orm.provider.node.UnionNode;
+import com.obatis.orm.sql.QueryTemplate;
 import com.obatis.tools.ValidateTool;
 
 import java.util.ArrayList;
@@ -18,7 +22,7 @@ import java.util.Map;
 /**
  * 查询代理句柄接口
  */
-public class QueryProviderHandle extends AbstractQueryConditionProviderHandle implements QueryProvider {
+public class QueryProviderHandle extends AbstractQueryConditionProviderHandle implements QueryProvider, Cloneable {
 
     /**
      * 初始化查询代理句柄，主要为连接查询、union 等场景使用
@@ -49,7 +53,27 @@ public class QueryProviderHandle extends AbstractQueryConditionProviderHandle im
     /**
      * 连接查询 QueryProvider
      */
-    private List<Object[]> unionProviderArray;
+    private List<UnionNode> unionProviderArray;
+    /**
+     * 游标分页上一页最后一行排序字段的值，为 null 时不生成游标分页条件
+     */
+    private Object[] seekValues;
+    /**
+     * 分页查询统计总条数的方式
+     */
+    private PageCountEnum pageCountType = PageCountEnum.COUNT;
+    /**
+     * 分页查询缓存总条数的时间，单位毫秒
+     */
+    private long pageCountCacheMillis = SqlConstant.DEFAULT_PAGE_COUNT_CACHE_MILLIS;
+    /**
+     * 查询结果缓存时间，单位毫秒，小于等于 0 时不缓存
+     */
+    private long resultCacheMillis;
+    /**
+     * 查询模板的绑定，不为 null 时表示为模板绑定后的查询代理
+     */
+    private QueryTemplate.Binding templateBinding;
 
     public String getTableName() {
         return tableName;
@@ -67,10 +91,45 @@ public class QueryProviderHandle extends AbstractQueryConditionProviderHandle im
         return page;
     }
 
-    public List<Object[]> getUnionProviderArray() {
+    public List<UnionNode> getUnionProviderArray() {
         return unionProviderArray;
     }
 
+    public Object[] getSeekValues() {
+        return seekValues;
+    }
+
+    public PageCountEnum getPageCountType() {
+        return pageCountType;
+    }
+
+    public long getPageCountCacheMillis() {
+        return pageCountCacheMillis;
+    }
+
+    public long getResultCacheMillis() {
+        return resultCacheMillis;
+    }
+
+    public QueryTemplate.Binding getTemplateBinding() {
+        return templateBinding;
+    }
+
+    /**
+     * 创建绑定模板参数值的查询代理副本，副本与当前代理共用条件、连接等结构，只用于执行模板查询
+     * @param binding
+     * @return
+     */
+    public QueryProviderHandle bindTemplate(QueryTemplate.Binding binding) {
+        try {
+            QueryProviderHandle provider = (QueryProviderHandle) super.clone();
+            provider.templateBinding = binding;
+            return provider;
+        } catch (CloneNotSupportedException e) {
+            throw new HandleException("error: bind template fail");
+        }
+    }
+
     /**
      * 添加字段方法，接收两个参数，此方法主要用于查询(select)
      * @param fieldName
@@ -433,6 +492,64 @@ public class QueryProviderHandle extends AbstractQueryConditionProviderHandle im
         return this;
     }
 
+    /**
+     * 设置游标(keyset)分页的起始位置，传入上一页最后一行排序字段的值
+     * @param values
+     * @return
+     */
+    @Override
+    public QueryProvider seekAfter(Object... values) {
+        if(values == null || values.length == 0) {
+            this.seekValues = null;
+            return this;
+        }
+        for (Object value : values) {
+            if(value == null) {
+                throw new HandleException("error: seek value can't null");
+            }
+        }
+        this.seekValues = values.clone();
+        return this;
+    }
+
+    /**
+     * 设置分页查询统计总条数的方式
+     * @param pageCountType
+     * @return
+     */
+    @Override
+    public QueryProvider setPageCount(PageCountEnum pageCountType) {
+        this.setPageCount(pageCountType, SqlConstant.DEFAULT_PAGE_COUNT_CACHE_MILLIS);
+        return this;
+    }
+
+    /**
+     * 设置分页查询统计总条数的方式和缓存时间
+     * @param pageCountType
+     * @param cacheMillis
+     * @return
+     */
+    @Override
+    public QueryProvider setPageCount(PageCountEnum pageCountType, long cacheMillis) {
+        if(pageCountType == null) {
+            throw new HandleException("error: pageCountType can't null");
+        }
+        this.pageCountType = pageCountType;
+        this.pageCountCacheMillis = cacheMillis;
+        return this;
+    }
+
+    /**
+     * 开启查询结果缓存
+     * @param ttlMillis
+     * @return
+     */
+    @Override
+    public QueryProvider cacheable(long ttlMillis) {
+        this.resultCacheMillis = ttlMillis;
+        return this;
+    }
+
     /**
      * 添加 union all 连接查询
      * @param queryProvider
@@ -462,8 +579,7 @@ public class QueryProviderHandle extends AbstractQueryConditionProviderHandle im
         if(this.unionProviderArray == null) {
             this.unionProviderArray = new ArrayList<>();
         }
-        Object[] unionProvider = {unionEnum, queryProvider};
-        this.unionProviderArray.add(unionProvider);
+        this.unionProviderArray.add(new UnionNode(unionEnum, queryProvider));
         return this;
     }
 
@@ -486,6 +602,12 @@ public class QueryProviderHandle extends AbstractQueryConditionProviderHandle im
         if(unionProviderArray != null && !unionProviderArray.isEmpty()) {
             unionProviderArray.clear();
         }
+        if(seekValues != null) {
+            seekValues = null;
+        }
+        pageCountType = PageCountEnum.COUNT;
+        pageCountCacheMillis = SqlConstant.DEFAULT_PAGE_COUNT_CACHE_MILLIS;
+        resultCacheMillis = 0;
         return this;
     }
 }
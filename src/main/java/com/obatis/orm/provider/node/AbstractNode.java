@@ -0,0 +1,53 @@
+package com.obatis.orm.provider.node;
+
+/**
+ * 查询代理节点基类，节点创建后不可修改，结构指纹在首次使用时计算并缓存
+ * @author HuangLongPu
+ */
+public abstract class AbstractNode {
+
+    private String shapeKey;
+
+    protected AbstractNode() {
+
+    }
+
+    /**
+     * 获取节点的结构指纹，不包含条件值以及嵌套的 QueryProvider
+     * @return
+     */
+    public String getShapeKey() {
+        String key = this.shapeKey;
+        if (key == null) {
+            StringBuilder builder = new StringBuilder(32);
+            appendShape(builder);
+            key = builder.toString();
+            this.shapeKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * 结构指纹的哈希值，String 内部缓存，不会重复计算
+     * @return
+     */
+    public int getShapeHash() {
+        return getShapeKey().hashCode();
+    }
+
+    protected abstract void appendShape(StringBuilder builder);
+
+    /**
+     * 追加结构值，字符串带长度前缀，避免不同结构拼接后产生相同的 key
+     * @param builder
+     * @param value
+     */
+    public static void appendKey(StringBuilder builder, Object value) {
+        if (value == null) {
+            builder.append('~');
+            return;
+        }
+        String item = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+        builder.append(item.length()).append(':').append(item);
+    }
+}
@@ -0,0 +1,46 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.SqlHandleEnum;
+
+/**
+ * 字段节点，查询时 value 为字段别名，更新时 value 为更新的值
+ * @author HuangLongPu
+ */
+public final class ColumnNode extends AbstractNode {
+
+    private final String name;
+    private final SqlHandleEnum handleType;
+    private final Object value;
+    private final String pattern;
+
+    public ColumnNode(String name, SqlHandleEnum handleType, Object value, String pattern) {
+        this.name = name;
+        this.handleType = handleType;
+        this.value = value;
+        this.pattern = pattern;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SqlHandleEnum getHandleType() {
+        return handleType;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, name);
+        appendKey(builder, handleType);
+        appendKey(builder, value);
+        appendKey(builder, pattern);
+    }
+}
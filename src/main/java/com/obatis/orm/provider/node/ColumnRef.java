@@ -0,0 +1,69 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.exception.HandleException;
+import com.obatis.orm.constant.CacheInfoConstant;
+
+/**
+ * 字段引用，创建时解析 #as_ 开头的连接表字段，拼接 SQL 时不再重复拆分字符串
+ * @author HuangLongPu
+ */
+public final class ColumnRef {
+
+    private final String name;
+    private final String tableAsNameSerialNumber;
+    private final String fieldName;
+
+    private ColumnRef(String name, String tableAsNameSerialNumber, String fieldName) {
+        this.name = name;
+        this.tableAsNameSerialNumber = tableAsNameSerialNumber;
+        this.fieldName = fieldName;
+    }
+
+    public static ColumnRef of(String name) {
+        if (name == null || !name.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
+            return new ColumnRef(name, null, name);
+        }
+        String[] fieldArray = name.split("[.]");
+        if (fieldArray.length < 2) {
+            throw new HandleException("error: field<" + name + "> is invalid");
+        }
+        return new ColumnRef(name, fieldArray[0].substring(fieldArray[0].indexOf("_") + 1), fieldArray[1]);
+    }
+
+    /**
+     * 原始名称，属性名、字段名或表达式
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 是否为 #as_ 开头的连接表字段
+     * @return
+     */
+    public boolean isTableAs() {
+        return tableAsNameSerialNumber != null;
+    }
+
+    /**
+     * 连接表别名序列号，非连接表字段为 null
+     * @return
+     */
+    public String getTableAsNameSerialNumber() {
+        return tableAsNameSerialNumber;
+    }
+
+    /**
+     * 去掉连接表别名后的字段名，非连接表字段与 name 相同
+     * @return
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
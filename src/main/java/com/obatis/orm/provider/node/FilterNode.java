@@ -0,0 +1,92 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.AppendTypeEnum;
+import com.obatis.orm.constant.type.FilterEnum;
+
+/**
+ * 条件节点，用于 where 条件和连接查询的 on 条件，filterType 为操作类型
+ * @author HuangLongPu
+ */
+public final class FilterNode extends AbstractNode {
+
+    private final ColumnRef column;
+    private final FilterEnum filterType;
+    private final Object value;
+    private final AppendTypeEnum appendType;
+    private final String pattern;
+    /**
+     * 字段名、操作类型和拼接类型的哈希值，用于重复条件的检测
+     */
+    private final int hash;
+
+    public FilterNode(String name, FilterEnum filterType, Object value, AppendTypeEnum appendType, String pattern) {
+        this.column = ColumnRef.of(name);
+        this.filterType = filterType;
+        this.value = value;
+        this.appendType = appendType;
+        this.pattern = pattern;
+        this.hash = (name.hashCode() * 31 + filterType.ordinal()) * 31 + appendType.ordinal();
+    }
+
+    public ColumnRef getColumn() {
+        return column;
+    }
+
+    public String getName() {
+        return column.getName();
+    }
+
+    public FilterEnum getFilterType() {
+        return filterType;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public AppendTypeEnum getAppendType() {
+        return appendType;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 是否与另一个条件作用于相同的字段、操作类型以及拼接类型
+     * @param node
+     * @return
+     */
+    public boolean isSameFilter(FilterNode node) {
+        return hash == node.hash && filterType == node.filterType && appendType == node.appendType && getName().equals(node.getName());
+    }
+
+    /**
+     * 是否为字段与字段比较的条件，值为字段名，直接拼接在 SQL 中
+     * @return
+     */
+    public boolean isFieldFilter() {
+        switch (filterType) {
+            case EQUAL_FIELD:
+            case GREATER_THAN_FIELD:
+            case GREATER_EQUAL_FIELD:
+            case LESS_THAN_FIELD:
+            case LESS_EQUAL_FIELD:
+            case NOT_EQUAL_FIELD:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, getName());
+        appendKey(builder, filterType);
+        appendKey(builder, appendType);
+        appendKey(builder, pattern);
+        if (isFieldFilter()) {
+            appendKey(builder, value);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.SqlHandleEnum;
+
+/**
+ * 分组节点
+ * @author HuangLongPu
+ */
+public final class GroupNode extends AbstractNode {
+
+    private final ColumnRef column;
+    private final SqlHandleEnum handleType;
+    private final String pattern;
+
+    public GroupNode(String name, SqlHandleEnum handleType, String pattern) {
+        this.column = ColumnRef.of(name);
+        this.handleType = handleType;
+        this.pattern = pattern;
+    }
+
+    public ColumnRef getColumn() {
+        return column;
+    }
+
+    public String getName() {
+        return column.getName();
+    }
+
+    public SqlHandleEnum getHandleType() {
+        return handleType;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, getName());
+        appendKey(builder, handleType);
+        appendKey(builder, pattern);
+    }
+}
@@ -0,0 +1,46 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.FilterEnum;
+import com.obatis.orm.constant.type.SqlHandleEnum;
+
+/**
+ * having 条件节点
+ * @author HuangLongPu
+ */
+public final class HavingNode extends AbstractNode {
+
+    private final String name;
+    private final SqlHandleEnum handleType;
+    private final FilterEnum filterType;
+    private final Number value;
+
+    public HavingNode(String name, SqlHandleEnum handleType, FilterEnum filterType, Number value) {
+        this.name = name;
+        this.handleType = handleType;
+        this.filterType = filterType;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SqlHandleEnum getHandleType() {
+        return handleType;
+    }
+
+    public FilterEnum getFilterType() {
+        return filterType;
+    }
+
+    public Number getValue() {
+        return value;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, name);
+        appendKey(builder, handleType);
+        appendKey(builder, filterType);
+    }
+}
@@ -0,0 +1,66 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.provider.QueryProvider;
+
+/**
+ * 连接查询节点，fieldNames 为主表字段，paramFieldNames 为连接表字段，两者一一对应
+ * @author HuangLongPu
+ */
+public final class JoinNode extends AbstractNode {
+
+    private final String[] fieldNames;
+    private final String[] paramFieldNames;
+    private final QueryProvider provider;
+    /**
+     * 是否为单个字段连接，单个字段连接时直接拼接字段名
+     */
+    private final boolean single;
+
+    public JoinNode(String fieldName, String paramFieldName, QueryProvider provider) {
+        this(new String[] {fieldName}, new String[] {paramFieldName}, provider, true);
+    }
+
+    public JoinNode(String[] fieldNames, String[] paramFieldNames, QueryProvider provider) {
+        this(fieldNames.clone(), paramFieldNames.clone(), provider, false);
+    }
+
+    private JoinNode(String[] fieldNames, String[] paramFieldNames, QueryProvider provider, boolean single) {
+        this.fieldNames = fieldNames;
+        this.paramFieldNames = paramFieldNames;
+        this.provider = provider;
+        this.single = single;
+    }
+
+    public String[] getFieldNames() {
+        return fieldNames;
+    }
+
+    public String[] getParamFieldNames() {
+        return paramFieldNames;
+    }
+
+    public QueryProvider getProvider() {
+        return provider;
+    }
+
+    public boolean isSingle() {
+        return single;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendFields(builder, fieldNames);
+        appendFields(builder, paramFieldNames);
+    }
+
+    private void appendFields(StringBuilder builder, String[] fields) {
+        if (single) {
+            appendKey(builder, fields[0]);
+            return;
+        }
+        builder.append('[').append(fields.length);
+        for (String item : fields) {
+            appendKey(builder, item);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.SqlHandleEnum;
+
+/**
+ * 排序节点，direction 为 SQL 中的排序关键字 asc 或 desc
+ * @author HuangLongPu
+ */
+public final class OrderNode extends AbstractNode {
+
+    private final ColumnRef column;
+    private final String direction;
+    private final SqlHandleEnum handleType;
+
+    public OrderNode(String name, String direction, SqlHandleEnum handleType) {
+        this.column = ColumnRef.of(name);
+        this.direction = direction;
+        this.handleType = handleType;
+    }
+
+    public ColumnRef getColumn() {
+        return column;
+    }
+
+    public String getName() {
+        return column.getName();
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public SqlHandleEnum getHandleType() {
+        return handleType;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, getName());
+        appendKey(builder, direction);
+        appendKey(builder, handleType);
+    }
+}
@@ -0,0 +1,32 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.AppendTypeEnum;
+import com.obatis.orm.provider.QueryProvider;
+
+/**
+ * 追加的 QueryProvider 条件节点，appendType 为与前面条件的拼接类型
+ * @author HuangLongPu
+ */
+public final class ProviderNode extends AbstractNode {
+
+    private final QueryProvider provider;
+    private final AppendTypeEnum appendType;
+
+    public ProviderNode(QueryProvider provider, AppendTypeEnum appendType) {
+        this.provider = provider;
+        this.appendType = appendType;
+    }
+
+    public QueryProvider getProvider() {
+        return provider;
+    }
+
+    public AppendTypeEnum getAppendType() {
+        return appendType;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, appendType);
+    }
+}
@@ -0,0 +1,32 @@
+package com.obatis.orm.provider.node;
+
+import com.obatis.orm.constant.type.UnionEnum;
+import com.obatis.orm.provider.QueryProvider;
+
+/**
+ * union 连接查询节点
+ * @author HuangLongPu
+ */
+public final class UnionNode extends AbstractNode {
+
+    private final UnionEnum unionType;
+    private final QueryProvider provider;
+
+    public UnionNode(UnionEnum unionType, QueryProvider provider) {
+        this.unionType = unionType;
+        this.provider = provider;
+    }
+
+    public UnionEnum getUnionType() {
+        return unionType;
+    }
+
+    public QueryProvider getProvider() {
+        return provider;
+    }
+
+    @Override
+    protected void appendShape(StringBuilder builder) {
+        appendKey(builder, unionType);
+    }
+}
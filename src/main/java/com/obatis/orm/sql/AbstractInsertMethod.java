@@ -1,24 +1,26 @@
 package com.obatis.orm.sql;
 
-import com.obatis.convert.date.DateConvert;
-import com.obatis.orm.annotation.NotColumn;
 import com.obatis.orm.constant.CacheInfoConstant;
 import com.obatis.orm.constant.SqlConstant;
-import com.obatis.orm.model.CommonField;
+import com.obatis.orm.convert.EntityAccessor;
+import com.obatis.orm.convert.EntityAccessor.FieldAccessor;
 import com.obatis.exception.HandleException;
-import com.obatis.generator.NumberGenerator;
 import com.obatis.tools.ValidateTool;
 import org.apache.ibatis.jdbc.SQL;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractInsertMethod {
 
+	/**
+	 * 单行 insert 语句缓存，key 为表名
+	 */
+	private static final Map<String, String> INSERT_ROW_SQL_CACHE = new ConcurrentHashMap<>();
+
 	protected String handleInsertSql(Object object, Class clazz, String tableName) throws HandleException {
 
         SQL sql = new SQL();
@@ -37,8 +39,13 @@ public abstract class AbstractInsertMethod {
 		List<String> fields = new ArrayList<>();
 		List<String> values = new ArrayList<>();
 
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		getInsertFieldVaule(clazz, columnMap, object, fields, values);
+		for (FieldAccessor accessor : getEntityAccessor(tableName).getFields()) {
+			Object value = accessor.isDefaultValue() ? accessor.getOrDefault(object) : accessor.get(object);
+			if (!ValidateTool.isEmpty(value)) {
+				fields.add(accessor.getColumnName());
+				values.add("#{request." + accessor.getFieldName() + "}");
+			}
+		}
 
 		if (fields.size() > 0) {
 			Map<String, String> res = new HashMap<>();
@@ -49,60 +56,65 @@ public abstract class AbstractInsertMethod {
 			return null;
 		}
 	}
-	
-	private void getInsertFieldVaule(Class clazz, Map<String, String> columnMap, Object obj, List<String> fields, List<String> values)
-			throws HandleException {
-
-		Field[] fieldArr = clazz.getDeclaredFields();
-		for (Field field : fieldArr) {
 
-			boolean isStatic = Modifier.isStatic(field.getModifiers());
-			if (isStatic) {
-				continue;
-			}
-			NotColumn ts = field.getAnnotation(NotColumn.class);
-			if (ts != null) {
-				continue;
+	/**
+	 * 构建包含实体全部字段的单行 insert 语句，用于 JDBC batch 方式批量添加，
+	 * 语句不随属性值变化，同一张表只构建一次，id 和 create_time 为空时赋默认值
+	 * @param object
+	 * @param clazz
+	 * @param tableName
+	 * @return
+	 * @throws HandleException
+	 */
+	protected String handleInsertRowSql(Object object, Class<?> clazz, String tableName) throws HandleException {
+		if (object == null) {
+			throw new HandleException("error：object is null");
+		}
+		FieldAccessor[] accessors = getEntityAccessor(tableName).getFields();
+		for (FieldAccessor accessor : accessors) {
+			if (accessor.isDefaultValue()) {
+				accessor.getOrDefault(object);
 			}
+		}
 
-			String fieldName = field.getName();
-			if (!columnMap.containsKey(fieldName)) {
-				continue;
+		String sql = INSERT_ROW_SQL_CACHE.get(tableName);
+		if (sql == null) {
+			List<String> fields = new ArrayList<>(accessors.length);
+			List<String> values = new ArrayList<>(accessors.length);
+			for (FieldAccessor accessor : accessors) {
+				fields.add(accessor.getColumnName());
+				values.add("#{request." + accessor.getFieldName() + "}");
 			}
-			String columnName = columnMap.get(fieldName);
-
-			try {
-				field.setAccessible(true);
-				Object value = field.get(obj);
-				boolean addFlag = false;
-				if (ValidateTool.isEmpty(value)) {
-					if (CommonField.FIELD_ID.equals(columnName)) {
-						field.set(obj, NumberGenerator.getNumber());
-						addFlag = true;
-					} else if (CommonField.FIELD_CREATE_TIME.equals(columnName)) {
-						field.set(obj, DateConvert.getDateTime());
-						addFlag = true;
-					}
-				} else {
-					// 说明值不为空
-					addFlag = true;
-				}
-
-				if (addFlag) {
-					fields.add(columnName);
-					values.add("#{request." + fieldName + "}");
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new HandleException("error: load class fields fail");
+			if (fields.isEmpty()) {
+				throw new HandleException("error：object is null");
 			}
+			sql = "insert into " + tableName + "(" + String.join(",", fields) + ") values (" + String.join(",", values) + ")";
+			INSERT_ROW_SQL_CACHE.put(tableName, sql);
 		}
+		return sql;
+	}
 
-		Class supCls = clazz.getSuperclass();
-		if (supCls != null) {
-			getInsertFieldVaule(supCls, columnMap, obj, fields, values);
+	/**
+	 * 获取加载实体缓存时生成的属性访问器
+	 * @param tableName
+	 * @return
+	 */
+	protected EntityAccessor getEntityAccessor(String tableName) throws HandleException {
+		EntityAccessor accessor = CacheInfoConstant.ACCESSOR_CACHE.get(tableName);
+		if (accessor == null) {
+			throw new HandleException("error: " + tableName + " entity is not loaded");
 		}
+		return accessor;
 	}
 	
 	protected abstract String handleBatchInsertSql(List<?> list, Class<?> cls, String tableName);
+
+	/**
+	 * 分批添加时每一批的 insert 语句，相同行数的语句只生成一次
+	 * @param list
+	 * @param cls
+	 * @param tableName
+	 * @return
+	 */
+	protected abstract String handleBatchInsertChunkSql(List<?> list, Class<?> cls, String tableName);
 }
@@ -12,8 +12,16 @@ import com.obatis.orm.provider.condition.handle.AbstractQueryConditionProviderHa
 import com.obatis.orm.provider.handle.DeleteProviderHandle;
 import com.obatis.orm.provider.handle.QueryProviderHandle;
 import com.obatis.orm.provider.handle.UpdateProviderHandle;
+import com.obatis.orm.provider.node.ColumnNode;
+import com.obatis.orm.provider.node.ColumnRef;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.GroupNode;
+import com.obatis.orm.provider.node.HavingNode;
+import com.obatis.orm.provider.node.JoinNode;
+import com.obatis.orm.provider.node.OrderNode;
+import com.obatis.orm.provider.node.ProviderNode;
+import com.obatis.orm.provider.node.UnionNode;
 import com.obatis.tools.ValidateTool;
-import org.apache.ibatis.jdbc.SQL;
 
 import java.lang.reflect.Array;
 import java.math.BigInteger;
@@ -26,6 +34,21 @@ import java.util.*;
 public abstract class AbstractSqlHandleMethod {
 
 	private final static String INDEX_DEFAULT = "0";
+	/**
+	 * 替换占位符后的 sql 缓存的最大条数
+	 */
+	private final static int REPLACE_SQL_CACHE_SIZE = 1024;
+	/**
+	 * 替换占位符后的 sql 缓存，key 为原 sql，超过最大条数时淘汰最久未使用的
+	 */
+	private final static Map<String, String> REPLACE_SQL_CACHE = new LinkedHashMap<String, String>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > REPLACE_SQL_CACHE_SIZE;
+		}
+	};
 	private final static int DEFAULT_ALIAS = 0;
 	private final static int NULL_ALIAS = 1;
 
@@ -52,19 +75,21 @@ public abstract class AbstractSqlHandleMethod {
 		Map<String, Object> filterValue = new HashMap<>();
 		providers.put(SqlConstant.PROVIDER_FIELD, fieldValue);
 		providers.put(SqlConstant.PROVIDER_FILTER, filterValue);
-		return this.getUpdateSql(updateProvider, tableName, INDEX_DEFAULT, columnMap, fieldMap, fieldValue, filterValue);
+		String sql = this.getUpdateSql(updateProvider, tableName, INDEX_DEFAULT, columnMap, fieldMap, fieldValue, filterValue);
+		SqlShapeStats.record(tableName, sql);
+		return sql;
 	}
 
 	public String getUpdateBatchSql(Map<String, Object> providers, String tableName) throws HandleException {
 		List<UpdateProviderHandle> list = (List<UpdateProviderHandle>) providers.get(SqlConstant.PROVIDER_OBJ);
-		StringBuffer sql = new StringBuffer();
+		StringBuilder sql = new StringBuilder();
 
 		Map<String, Object> fieldValue = new HashMap<>();
 		Map<String, Object> filterValue = new HashMap<>();
 
 		for (int i = 0, j = list.size(); i < j; i++) {
 			UpdateProviderHandle updateProvider = list.get(i);
-			sql.append(this.getUpdateSql(updateProvider, tableName, i + "", CacheInfoConstant.COLUMN_CACHE.get(tableName), CacheInfoConstant.FIELD_CACHE.get(tableName), fieldValue, filterValue) + ";");
+			sql.append(this.getUpdateSql(updateProvider, tableName, i + "", CacheInfoConstant.COLUMN_CACHE.get(tableName), CacheInfoConstant.FIELD_CACHE.get(tableName), fieldValue, filterValue)).append(';');
 		}
 
 		providers.put(SqlConstant.PROVIDER_FIELD, fieldValue);
@@ -78,30 +103,32 @@ public abstract class AbstractSqlHandleMethod {
 			Map<String, String> fieldMap, Map<String, Object> value, Map<String, Object> filterValue) {
 		TableIndexCache cache = new TableIndexCache();
 		String tableAliasName = this.getTableAsName(cache, updateProvider.getTableAsNameSerialNumber());
-		SQL sql = new SQL();
-//
-		StringBuffer leftJoinFilterSql = new StringBuffer();
-		List<String> orders = new ArrayList<>();
-		sql.UPDATE(tableName + " " + tableAliasName + getLeftJoinTable(cache, tableAliasName, updateProvider.getLeftJoinProviderArray(), value, index + "_cl", leftJoinFilterSql, null, null, null, orders, fieldMap, columnMap, false));
-
-//		sql.UPDATE(tableName);
-		sql.SET(getUpdateField(updateProvider.getColumnArray(), columnMap, fieldMap, index + "_u", value));
-		List<Object[]> filters = updateProvider.getFilterArray();
-		if ((filters != null && !filters.isEmpty()) || (updateProvider.getProviderArray() != null && !updateProvider.getProviderArray().isEmpty())) {
-			sql.WHERE(getFilterSql(cache, tableAliasName, filters, updateProvider.getProviderArray(), filterValue, index + "_ut", columnMap,
-					fieldMap, true));
-		} else {
-			throw new HandleException("error：filters is empty");
+		SqlEmitter emitter = SqlEmitter.acquire();
+		try {
+			StringBuilder sql = emitter.sql;
+			sql.append("UPDATE ").append(tableName).append(' ').append(tableAliasName);
+			/**
+			 * 连接表的 where 条件只绑定值，不拼接到 update 语句
+			 */
+			getLeftJoinTable(cache, tableAliasName, updateProvider.getLeftJoinProviderArray(), value, index + "_cl", emitter, sql, false, fieldMap, columnMap, false);
+
+			sql.append("\nSET ");
+			getUpdateField(sql, updateProvider.getColumnArray(), columnMap, fieldMap, index + "_u", value);
+			List<FilterNode> filters = updateProvider.getFilterArray();
+			if ((filters != null && !filters.isEmpty()) || (updateProvider.getProviderArray() != null && !updateProvider.getProviderArray().isEmpty())) {
+				getFilterSql(emitter.where, cache, tableAliasName, filters, updateProvider.getProviderArray(), filterValue, index + "_ut", columnMap,
+						fieldMap, true);
+			} else {
+				throw new HandleException("error：filters is empty");
+			}
+			sql.append("\nWHERE (").append(emitter.where).append(')');
+			return sql.append(getLimitSql(updateProvider.getLimit())).toString();
+		} finally {
+			emitter.release();
 		}
-
-		/**
-		 * 拼装 having 字句
-		 */
-		this.addOrder(orders, cache, tableAliasName, fieldMap, columnMap, updateProvider.getOrderArray());
-		return sql.toString() + getLimitSql(updateProvider.getLimit());
 	}
 
-	private String[] getUpdateField(List<Object[]> fields, Map<String, String> columnMap, Map<String, String> fieldMap,
+	private void getUpdateField(StringBuilder sql, List<ColumnNode> fields, Map<String, String> columnMap, Map<String, String> fieldMap,
 			String index, Map<String, Object> fieldValue) throws HandleException {
 
 		if (fields == null) {
@@ -112,14 +139,11 @@ public abstract class AbstractSqlHandleMethod {
 			throw new HandleException("error：fields is null");
 		}
 
-		String[] setColumn = new String[fieldsLen];
-
 		for (int i = 0; i < fieldsLen; i++) {
-			Object[] obj = fields.get(i);
+			ColumnNode field = fields.get(i);
 			String key = SqlConstant.PROVIDER_FIELD + "_v" + index + "_" + i;
-			SqlHandleEnum fieldType = (SqlHandleEnum) obj[1];
-			String fieldTypeValue = "";
-			String fieldName = obj[0].toString();
+			SqlHandleEnum fieldType = field.getHandleType();
+			String fieldName = field.getName();
 			String columnName = columnMap.get(fieldName);
 			if (ValidateTool.isEmpty(columnName) && fieldMap.containsKey(fieldName)) {
 				columnName = fieldName;
@@ -127,96 +151,100 @@ public abstract class AbstractSqlHandleMethod {
 			if (ValidateTool.isEmpty(columnName)) {
 				throw new HandleException("error：fieldName<" + fieldName + "> is invalid");
 			}
-			String name = columnName;
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(columnName).append("= ");
 			if (SqlHandleEnum.HANDLE_UP.equals(fieldType)) {
-				fieldTypeValue = name + " + ";
+				sql.append(columnName).append(" + ");
 			} else if (SqlHandleEnum.HANDLE_REDUCE.equals(fieldType)) {
-				fieldTypeValue = name + " - ";
+				sql.append(columnName).append(" - ");
 			}
-			setColumn[i] = name + "= " + fieldTypeValue + "#{request." + SqlConstant.PROVIDER_FIELD + "." + key + "}";
-			fieldValue.put(key, obj[2]);
+			sql.append("#{request." + SqlConstant.PROVIDER_FIELD + ".").append(key).append('}');
+			fieldValue.put(key, field.getValue());
 		}
-
-		return setColumn;
 	}
 
 	public String getDeleteByIdSql(String tableName) throws HandleException {
-
-		SQL sql = new SQL();
-		sql.DELETE_FROM(tableName);
-		sql.WHERE(CommonField.FIELD_ID + "=#{" + CommonField.FIELD_ID + "}");
-		return sql.toString();
+		return "DELETE FROM " + tableName + "\nWHERE (" + CommonField.FIELD_ID + "=#{" + CommonField.FIELD_ID + "})";
 	}
 
 	public String getDeleteSql(Map<String, Object> param, String tableName) throws HandleException {
 
-		SQL sql = new SQL();
-		sql.DELETE_FROM(tableName);
 		DeleteProviderHandle deleteProvider = (DeleteProviderHandle) param.get(SqlConstant.PROVIDER_OBJ);
-		List<Object[]> filters = deleteProvider.getFilterArray();
-		if ((filters != null && !filters.isEmpty()) || (deleteProvider.getProviderArray() != null && !deleteProvider.getProviderArray().isEmpty())) {
+		List<FilterNode> filters = deleteProvider.getFilterArray();
+		if ((filters == null || filters.isEmpty()) && (deleteProvider.getProviderArray() == null || deleteProvider.getProviderArray().isEmpty())) {
+			throw new HandleException("error：filters is empty");
+		}
+		SqlEmitter emitter = SqlEmitter.acquire();
+		try {
 			Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
 			Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
 			Map<String, Object> value = new HashMap<>();
-			sql.WHERE(getFilterSql(null, "", filters, deleteProvider.getProviderArray(), value, INDEX_DEFAULT + "_dt", columnMap,
-					fieldMap, NULL_ALIAS));
+			getFilterSql(emitter.where, null, "", filters, deleteProvider.getProviderArray(), value, INDEX_DEFAULT + "_dt", columnMap,
+					fieldMap, NULL_ALIAS);
 			// 放入值到map
 			param.put(SqlConstant.PROVIDER_FILTER, value);
-		} else {
-			throw new HandleException("error：filters is empty");
+
+			StringBuilder sql = emitter.sql.append("DELETE FROM ").append(tableName);
+			sql.append("\nWHERE (").append(emitter.where).append(')');
+			String deleteSql = sql.append(getLimitSql(deleteProvider.getLimit())).toString();
+			SqlShapeStats.record(tableName, deleteSql);
+			return deleteSql;
+		} finally {
+			emitter.release();
 		}
-		return sql.toString() + getLimitSql(deleteProvider.getLimit());
 	}
 
 	/**
 	 * 拼接查询条件，主要针对left join连表
+	 * @param filterSql      条件写入的缓冲区
 	 * @param tableAliasName
 	 * @param filters
 	 * @param value
 	 * @param index
 	 * @param columnMap
 	 * @param fieldMap
-	 * @return
 	 * @throws HandleException
 	 */
-	private String getFilterSql(TableIndexCache cache, String tableAliasName, List<Object[]> filters, List<Object[]> addProviders, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap) throws HandleException {
-		return getFilterSql(cache, tableAliasName, filters, addProviders, value, index, columnMap, fieldMap, DEFAULT_ALIAS, false);
+	private void getFilterSql(StringBuilder filterSql, TableIndexCache cache, String tableAliasName, List<FilterNode> filters, List<ProviderNode> addProviders, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap) throws HandleException {
+		getFilterSql(filterSql, cache, tableAliasName, filters, addProviders, value, index, columnMap, fieldMap, DEFAULT_ALIAS, false);
 	}
 
 	/**
 	 * 拼接查询条件，主要针对left join连表
+	 * @param filterSql      条件写入的缓冲区
 	 * @param tableAliasName
 	 * @param filters
 	 * @param value
 	 * @param index
 	 * @param columnMap
 	 * @param fieldMap
-	 * @return
 	 * @throws HandleException
 	 */
-	private String getFilterSql(TableIndexCache cache, String tableAliasName, List<Object[]> filters, List<Object[]> addProviders, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap, boolean onFilterConnect) throws HandleException {
-		return getFilterSql(cache, tableAliasName, filters, addProviders, value, index, columnMap, fieldMap, DEFAULT_ALIAS, onFilterConnect);
+	private void getFilterSql(StringBuilder filterSql, TableIndexCache cache, String tableAliasName, List<FilterNode> filters, List<ProviderNode> addProviders, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap, boolean onFilterConnect) throws HandleException {
+		getFilterSql(filterSql, cache, tableAliasName, filters, addProviders, value, index, columnMap, fieldMap, DEFAULT_ALIAS, onFilterConnect);
 	}
 
 	/**
 	 * 根据传入的filter，获取条件filter的数组
 	 * @author HuangLongPu
+	 * @param filterSql      条件写入的缓冲区
 	 * @param filters
-	 * @return
 	 * @throws HandleException
 	 */
-	private String getFilterSql(TableIndexCache cache, String tableAliasName, List<Object[]> filters, List<Object[]> providerArray, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap, int findType) throws HandleException {
-		return getFilterSql(cache, tableAliasName, filters, providerArray, value, index, columnMap, fieldMap, findType, false);
+	private void getFilterSql(StringBuilder filterSql, TableIndexCache cache, String tableAliasName, List<FilterNode> filters, List<ProviderNode> providerArray, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap, int findType) throws HandleException {
+		getFilterSql(filterSql, cache, tableAliasName, filters, providerArray, value, index, columnMap, fieldMap, findType, false);
 	}
 
 	/**
 	 * 根据传入的filter，获取条件filter的数组
 	 * @author HuangLongPu
+	 * @param filterSql      条件写入的缓冲区
 	 * @param filters
-	 * @return
 	 * @throws HandleException
 	 */
-	private String getFilterSql(TableIndexCache cache, String tableAliasName, List<Object[]> filters, List<Object[]> providerArray, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap, int findType, boolean onFilterConnect) throws HandleException {
+	private void getFilterSql(StringBuilder filterSql, TableIndexCache cache, String tableAliasName, List<FilterNode> filters, List<ProviderNode> providerArray, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap, int findType, boolean onFilterConnect) throws HandleException {
 		int filtersLen = 0;
 		if (filters != null && !filters.isEmpty()) {
 			filtersLen = filters.size();
@@ -226,72 +254,76 @@ public abstract class AbstractSqlHandleMethod {
 		if (DEFAULT_ALIAS == findType) {
 			tableAliasNamePrefix = " " + tableAliasName + ".";
 		}
-		StringBuffer filterSql = new StringBuffer();
+		int start = filterSql.length();
 
 		for (int i = 0; i < filtersLen; i++) {
 
-			Object[] obj = filters.get(i);
+			FilterNode filter = filters.get(i);
 			String key = SqlConstant.PROVIDER_FILTER + "_v" + index + "_" + i;
-			FilterEnum filterType = (FilterEnum) obj[1];
-			String field = getField(obj[0].toString(), columnMap);
+			FilterEnum filterType = filter.getFilterType();
+			ColumnRef filterColumn = filter.getColumn();
+			String field = getField(filterColumn.getName(), columnMap);
 
-			String sql;
+			if (i > 0) {
+				/**
+				 * 第一个条件直接拼接，不用区分是 and 还是 or
+				 */
+				filterSql.append(filter.getAppendType().getJoinTypeName());
+			}
 			String expression = "#{request." + SqlConstant.PROVIDER_FILTER + "." + key + "}";
-			Object filterValue = obj[2];
+			Object filterValue = filter.getValue();
 			switch (filterType) {
 			case LIKE:
-				sql = getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + getFilterType(filterType);
-				sql += getLikeSql(expression);
-				value.put(key, filterValue);
+				filterSql.append(getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap)).append(getFilterType(filterType));
+				filterSql.append(getLikeSql(expression));
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			case LEFT_LIKE:
-				sql = getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + getFilterType(filterType);
-				sql += getLeftLikeSql(expression);
-				value.put(key, filterValue);
+				filterSql.append(getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap)).append(getFilterType(filterType));
+				filterSql.append(getLeftLikeSql(expression));
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			case RIGHT_LIKE:
-				sql = getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + getFilterType(filterType);
-				sql += getRightLikeSql(expression);
-				value.put(key, filterValue);
+				filterSql.append(getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap)).append(getFilterType(filterType));
+				filterSql.append(getRightLikeSql(expression));
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			case IN:
 			case NOT_IN:
-				sql = getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + getFilterType(filterType);
-				sql += "(" + modifyInFilter(filterValue, key, value) + ")";
+				filterSql.append(getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap)).append(getFilterType(filterType));
+				filterSql.append('(').append(modifyInFilter(filterValue, key, value, filter)).append(')');
 				break;
 			case IN_PROVIDER:
 			case NOT_IN_PROVIDER:
-				sql = getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + getFilterType(filterType);
+				filterSql.append(getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap)).append(getFilterType(filterType));
 				QueryProviderHandle childProvider = (QueryProviderHandle) filterValue;
-				sql += "(" + this.getSelectSql(cache, childProvider, value, childProvider.getTableName(), index + "_s") + ")";
+				filterSql.append('(');
+				this.getSelectSql(filterSql, cache, childProvider, value, childProvider.getTableName(), index + "_s");
+				filterSql.append(')');
 				break;
 			case UP_GREATER_THAN:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + " + " + expression + ">0";
-				value.put(key, filterValue);
-				break;
 			case UP_GREATER_EQUAL:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + " + " + expression + ">=0";
-				value.put(key, filterValue);
-				break;
 			case REDUCE_GREATER_THAN:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + " - " + expression + ">0";
-				value.put(key, filterValue);
-				break;
 			case REDUCE_GREATER_EQUAL:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + " - " + expression + ">=0";
-				value.put(key, filterValue);
+				filterSql.append(getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap));
+				if (SargableRewrite.isEnabled() && SargableRewrite.isPlainColumn(field)) {
+					appendRangeFilter(filterSql, filterType, expression);
+				} else {
+					appendUpReduceFilter(filterSql, filterType, expression);
+				}
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			case IS_NULL:
 			case IS_NOT_NULL:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + getFilterType(filterType);
+				filterSql.append(getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap)).append(getFilterType(filterType));
 				break;
 			case GREATER_THAN:
 			case GREATER_EQUAL:
 			case LESS_THAN:
 			case LESS_EQUAL:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + getFilterType(filterType);
-				sql += expression;
-				value.put(key, filterValue);
+				filterSql.append(getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap)).append(getFilterType(filterType));
+				filterSql.append(expression);
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			case EQUAL_FIELD:
 			case GREATER_THAN_FIELD:
@@ -299,8 +331,8 @@ public abstract class AbstractSqlHandleMethod {
 			case LESS_THAN_FIELD:
 			case LESS_EQUAL_FIELD:
 			case NOT_EQUAL_FIELD:
-				sql = getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap) + getFilterType(filterType);
-				sql += getAgFunction(cache, tableAliasNamePrefix, getField(filterValue.toString(), columnMap), fieldMap, columnMap);
+				filterSql.append(getAgFunction(cache, tableAliasNamePrefix, field, fieldMap, columnMap)).append(getFilterType(filterType));
+				filterSql.append(getAgFunction(cache, tableAliasNamePrefix, getField(filterValue.toString(), columnMap), fieldMap, columnMap));
 				break;
 			case EQUAL_DATE_FORMAT:
 			case NOT_EQUAL_DATE_FORMAT:
@@ -308,82 +340,170 @@ public abstract class AbstractSqlHandleMethod {
 			case GREATER_EQUAL_DATE_FORMAT:
 			case LESS_THAN_DATE_FORMAT:
 			case LESS_EQUAL_DATE_FORMAT:
-				sql = "DATE_FORMAT(" + getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + ",'" + obj[4] + "')" + getFilterType(filterType);
-				sql += expression;
-				value.put(key, filterValue);
+				String dateField = getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap);
+				if (!SargableRewrite.isEnabled() || !appendDateRangeFilter(filterSql, filterType, dateField, expression, filter.getPattern())) {
+					filterSql.append("DATE_FORMAT(").append(dateField).append(",'").append(filter.getPattern()).append("')").append(getFilterType(filterType));
+					filterSql.append(expression);
+				}
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			default:
-				sql = getHandleField(cache, tableAliasNamePrefix, field, columnMap, fieldMap) + getFilterType(filterType);
-				sql += expression;
-				value.put(key, filterValue);
+				filterSql.append(getHandleField(cache, tableAliasNamePrefix, filterColumn, field, columnMap)).append(getFilterType(filterType));
+				filterSql.append(expression);
+				putValue(value, key, filterValue, filter, 0, -1);
 				break;
 			}
-
-			if (i == 0) {
-                /**
-                 * 第一个条件直接拼接，不用区分是 and 还是 or
-                 */
-				filterSql.append(sql);
-			} else {
-				AppendTypeEnum joinTypeEnum = (AppendTypeEnum) obj[3];
-				filterSql.append(joinTypeEnum.getJoinTypeName() + sql);
-			}
 		}
 
 		if (providerArray != null && !providerArray.isEmpty()) {
 			for (int j = 0, l = providerArray.size(); j < l; j++) {
-				Object[] queryProviderObject = providerArray.get(j);
-				QueryProviderHandle queryProvider = (QueryProviderHandle) queryProviderObject[0];
-				List<Object[]> childFilters = queryProvider.getFilterArray();
-				List<Object[]> childProviders = queryProvider.getProviderArray();
+				ProviderNode providerNode = providerArray.get(j);
+				QueryProviderHandle queryProvider = (QueryProviderHandle) providerNode.getProvider();
+				List<FilterNode> childFilters = queryProvider.getFilterArray();
+				List<ProviderNode> childProviders = queryProvider.getProviderArray();
 				if(onFilterConnect) {
-					if (queryProvider.getOnFilterArray() != null && !queryProvider.getOnFilterArray().isEmpty()) {
-						if(childFilters == null) {
-							childFilters = new ArrayList<>();
-						}
-						childFilters.addAll(queryProvider.getOnFilterArray());
-					}
-
-					if (queryProvider.getOnProviderArray() != null && !queryProvider.getOnProviderArray().isEmpty()) {
-						if(childProviders == null) {
-							childProviders = new ArrayList<>();
-						}
-						childProviders.addAll(queryProvider.getOnProviderArray());
-					}
+					/**
+					 * 合并 on 条件时使用新的集合，不修改 provider 自身的条件，避免重复构建时条件重复累加
+					 */
+					childFilters = mergeList(childFilters, queryProvider.getOnFilterArray());
+					childProviders = mergeList(childProviders, queryProvider.getOnProviderArray());
 				}
 
-				String orItemSql = getFilterSql(cache, tableAliasName, childFilters, childProviders, value, index + "_ot_" + j, columnMap, fieldMap, findType, onFilterConnect);
-				if (!ValidateTool.isEmpty(orItemSql)) {
-					if (ValidateTool.isEmpty(filterSql.toString())) {
-						if(onFilterConnect) {
-							AppendTypeEnum joinTypeEnum = (AppendTypeEnum) queryProviderObject[1];
-							filterSql.append(joinTypeEnum.getJoinTypeName());
-						}
-						filterSql.append("(" + orItemSql + ")");
-					} else {
-						AppendTypeEnum joinTypeEnum = (AppendTypeEnum) queryProviderObject[1];
-						filterSql.append(joinTypeEnum.getJoinTypeName() + "(" + orItemSql + ")");
-					}
+				int mark = filterSql.length();
+				if (mark > start || onFilterConnect) {
+					filterSql.append(providerNode.getAppendType().getJoinTypeName());
+				}
+				filterSql.append('(');
+				int itemStart = filterSql.length();
+				getFilterSql(filterSql, cache, tableAliasName, childFilters, childProviders, value, index + "_ot_" + j, columnMap, fieldMap, findType, onFilterConnect);
+				if (filterSql.length() == itemStart) {
+					// 子条件为空，回退已拼接的连接符
+					filterSql.setLength(mark);
+				} else {
+					filterSql.append(')');
 				}
 			}
 		}
+	}
+
+	/**
+	 * 拼接 up/reduce 条件，字段加上或减去条件值后与 0 比较
+	 * @param filterSql
+	 * @param filterType
+	 * @param expression
+	 */
+	private static void appendUpReduceFilter(StringBuilder filterSql, FilterEnum filterType, String expression) {
+		switch (filterType) {
+			case UP_GREATER_THAN:
+				filterSql.append(" + ").append(expression).append(">0");
+				break;
+			case UP_GREATER_EQUAL:
+				filterSql.append(" + ").append(expression).append(">=0");
+				break;
+			case REDUCE_GREATER_THAN:
+				filterSql.append(" - ").append(expression).append(">0");
+				break;
+			default:
+				filterSql.append(" - ").append(expression).append(">=0");
+				break;
+		}
+	}
+
+	/**
+	 * 拼接改写后的 up/reduce 条件，col + ? > 0 改写为 col > -?，col - ? > 0 改写为 col > ?，字段上的索引可以使用
+	 * @param filterSql
+	 * @param filterType
+	 * @param expression
+	 */
+	private static void appendRangeFilter(StringBuilder filterSql, FilterEnum filterType, String expression) {
+		switch (filterType) {
+			case UP_GREATER_THAN:
+				filterSql.append(" > -").append(expression);
+				break;
+			case UP_GREATER_EQUAL:
+				filterSql.append(" >= -").append(expression);
+				break;
+			case REDUCE_GREATER_THAN:
+				filterSql.append(" > ").append(expression);
+				break;
+			default:
+				filterSql.append(" >= ").append(expression);
+				break;
+		}
+	}
 
-		return filterSql.toString();
+	/**
+	 * 拼接改写后的 DateFormat 条件，按格式对应的时间范围与字段直接比较，格式不是连续的时间范围时返回 false，不拼接
+	 * @param filterSql
+	 * @param filterType
+	 * @param field
+	 * @param expression
+	 * @param pattern
+	 * @return
+	 */
+	private boolean appendDateRangeFilter(StringBuilder filterSql, FilterEnum filterType, String field, String expression, String pattern) {
+		String startSql = getDateRangeStartSql(expression, pattern);
+		String endSql = getDateRangeEndSql(expression, pattern);
+		if (startSql == null || endSql == null) {
+			return false;
+		}
+		switch (filterType) {
+			case EQUAL_DATE_FORMAT:
+				filterSql.append('(').append(field).append(" >= ").append(startSql).append(AppendTypeEnum.AND.getJoinTypeName())
+						.append(field).append(" < ").append(endSql).append(')');
+				break;
+			case NOT_EQUAL_DATE_FORMAT:
+				filterSql.append('(').append(field).append(" < ").append(startSql).append(AppendTypeEnum.OR.getJoinTypeName())
+						.append(field).append(" >= ").append(endSql).append(')');
+				break;
+			case GREATER_THAN_DATE_FORMAT:
+				filterSql.append(field).append(" >= ").append(endSql);
+				break;
+			case GREATER_EQUAL_DATE_FORMAT:
+				filterSql.append(field).append(" >= ").append(startSql);
+				break;
+			case LESS_THAN_DATE_FORMAT:
+				filterSql.append(field).append(" < ").append(startSql);
+				break;
+			default:
+				filterSql.append(field).append(" < ").append(endSql);
+				break;
+		}
+		return true;
 	}
 
-	private String getHandleField(TableIndexCache cache, String tableAliasName, String tempFieldName, Map<String, String> columnMap, Map<String, String> fieldMap) {
-		if(tempFieldName.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
-			String[] fieldArray = tempFieldName.split("[.]");
-			String tableAsNameSerialNumber = fieldArray[0].substring(fieldArray[0].indexOf("_") + 1);
-			String expFieldName = fieldArray[1];
+	private static <T> List<T> mergeList(List<T> list, List<T> appendList) {
+		if (appendList == null || appendList.isEmpty()) {
+			return list;
+		}
+		if (list == null || list.isEmpty()) {
+			return appendList;
+		}
+		List<T> mergeList = new ArrayList<>(list.size() + appendList.size());
+		mergeList.addAll(list);
+		mergeList.addAll(appendList);
+		return mergeList;
+	}
 
+	/**
+	 * 获取带表别名的条件字段，#as_ 开头的字段取对应连接表的别名，别名序列号在创建条件时已解析
+	 * @param cache
+	 * @param tableAliasName
+	 * @param column
+	 * @param field   非连接表字段时已转换为数据库字段的名称
+	 * @param columnMap
+	 * @return
+	 */
+	private String getHandleField(TableIndexCache cache, String tableAliasName, ColumnRef column, String field, Map<String, String> columnMap) {
+		if(column.isTableAs()) {
+			String expFieldName = column.getFieldName();
 			if(columnMap.containsKey(expFieldName)) {
-				return getTableAsName(cache, tableAsNameSerialNumber) + "." + columnMap.get(expFieldName);
+				return getTableAsName(cache, column.getTableAsNameSerialNumber()) + "." + columnMap.get(expFieldName);
 			} else {
-				return getTableAsName(cache, tableAsNameSerialNumber) + "." + expFieldName;
+				return getTableAsName(cache, column.getTableAsNameSerialNumber()) + "." + expFieldName;
 			}
 		} else {
-			return tableAliasName + tempFieldName;
+			return tableAliasName + field;
 		}
 	}
 
@@ -398,14 +518,102 @@ public abstract class AbstractSqlHandleMethod {
 		return field;
 	}
 
+	/**
+	 * 将 sql 中的 ? 占位符按顺序替换为 #{request[index]}，单次遍历完成，跳过引号中的字符串和注释中的 ?。
+	 * 从 0 开始替换的结果按原 sql 缓存
+	 * @param sql
+	 * @param index   起始下标
+	 * @return
+	 */
 	public String getReplaceSql(String sql, int index) {
-		if (!sql.contains("?")) {
+		if (sql.indexOf('?') < 0) {
 			return sql;
 		}
-		String expression = "#{request[" + index + "]}";
-		sql = sql.replaceFirst("[?]", expression);
-		index++;
-		return getReplaceSql(sql, index);
+		if (index != 0) {
+			return replacePlaceholder(sql, index);
+		}
+
+		String replaceSql;
+		synchronized (REPLACE_SQL_CACHE) {
+			replaceSql = REPLACE_SQL_CACHE.get(sql);
+		}
+		if (replaceSql == null) {
+			replaceSql = replacePlaceholder(sql, index);
+			synchronized (REPLACE_SQL_CACHE) {
+				REPLACE_SQL_CACHE.put(sql, replaceSql);
+			}
+		}
+		return replaceSql;
+	}
+
+	private static String replacePlaceholder(String sql, int index) {
+		int length = sql.length();
+		StringBuilder builder = new StringBuilder(length + 16);
+		int i = 0;
+		while (i < length) {
+			char c = sql.charAt(i);
+			int end;
+			switch (c) {
+				case '\'':
+				case '"':
+				case '`':
+					end = skipQuote(sql, i, c);
+					break;
+				case '-':
+					// MySQL 的 -- 注释需要后跟空白字符
+					end = i + 2 < length && sql.charAt(i + 1) == '-' && Character.isWhitespace(sql.charAt(i + 2)) ? skipLine(sql, i) : i + 1;
+					break;
+				case '#':
+					end = i + 1 < length && sql.charAt(i + 1) == '{' ? i + 1 : skipLine(sql, i);
+					break;
+				case '/':
+					end = i + 1 < length && sql.charAt(i + 1) == '*' ? skipBlockComment(sql, i) : i + 1;
+					break;
+				case '?':
+					builder.append("#{request[").append(index++).append("]}");
+					i++;
+					continue;
+				default:
+					end = i + 1;
+					break;
+			}
+			builder.append(sql, i, end);
+			i = end;
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 跳过引号中的内容，支持反斜杠转义和两个引号连写的转义，返回结束引号之后的位置
+	 */
+	private static int skipQuote(String sql, int start, char quote) {
+		int length = sql.length();
+		int i = start + 1;
+		while (i < length) {
+			char c = sql.charAt(i);
+			if (c == '\\' && quote != '`') {
+				i += 2;
+			} else if (c == quote) {
+				if (i + 1 < length && sql.charAt(i + 1) == quote) {
+					i += 2;
+				} else {
+					return i + 1;
+				}
+			} else {
+				i++;
+			}
+		}
+		return length;
+	}
+
+	private static int skipLine(String sql, int start) {
+		int end = sql.indexOf('\n', start);
+		return end < 0 ? sql.length() : end + 1;
+	}
+
+	private static int skipBlockComment(String sql, int start) {
+		int end = sql.indexOf("*/", start + 2);
+		return end < 0 ? sql.length() : end + 2;
 	}
 
 	/**
@@ -415,69 +623,94 @@ public abstract class AbstractSqlHandleMethod {
 	 * @param param
 	 * @return
 	 */
-	protected String modifyInFilter(Object obj, String key, Map<String, Object> param) throws HandleException {
+	protected String modifyInFilter(Object obj, String key, Map<String, Object> param, FilterNode filter) throws HandleException {
+
+		Object[] items = null;
+		Object filterValue = obj;
+		if (param instanceof InFilterChunk.ValueMap) {
+			items = ((InFilterChunk.ValueMap) param).getValues(filter);
+			filterValue = ((InFilterChunk.ValueMap) param).resolve(obj);
+		} else if (param instanceof QueryTemplate.ValueMap) {
+			filterValue = ((QueryTemplate.ValueMap) param).resolve(obj);
+		}
+		if (items == null) {
+			items = getInFilterValues(filterValue);
+		}
+		StringBuilder itemSql = new StringBuilder();
+		/**
+		 * 开启 in 查询分桶时，占位符个数取分桶大小，多出的位置重复最后一个值
+		 */
+		int lastIndex = items.length - 1;
+		for (int i = 0, length = InFilterBucket.getBucketSize(items.length); i < length; i++) {
+			String itemKey = key + "_" + i;
+			putValue(param, itemKey, items[Math.min(i, lastIndex)], filter, 0, i);
+			itemSql.append("#{request." + SqlConstant.PROVIDER_FILTER + ".").append(itemKey).append("}");
+			if (i != length - 1) {
+				itemSql.append(",");
+			}
+		}
+		return itemSql.toString();
+	}
+
+	/**
+	 * in 查询参数展开为数组，数组、集合、map 按元素展开，含逗号的字符串按逗号拆分，其他类型作为单个值
+	 * @param obj
+	 * @return
+	 */
+	static Object[] getInFilterValues(Object obj) throws HandleException {
 
 		if (obj == null) {
 			throw new HandleException("error: select filter is empty");
 		}
 
 		// 由于in查询能够接收多种类型的数据，需要做处理
-		if (obj.getClass().isArray()) {
-			// 表示是数组
-			return modifyArrInFilter(obj, key, param);
+		if (obj instanceof Object[]) {
+			return (Object[]) obj;
+		} else if (obj.getClass().isArray()) {
+			// 表示是基本类型数组
+			int length = Array.getLength(obj);
+			Object[] items = new Object[length];
+			for (int i = 0; i < length; i++) {
+				items[i] = Array.get(obj, i);
+			}
+			return items;
 		} else if (obj instanceof Collection<?>) {
 			// 表示为集合
-			Object vue = ((Collection<?>) obj).toArray();
-			return modifyArrInFilter(vue, key, param);
+			return ((Collection<?>) obj).toArray();
 		} else if (obj instanceof String) {
 			// 说明是字符串
 			String vue = obj.toString();
 			if (vue.contains(",")) {
-				return modifyArrInFilter(vue.split(","), key, param);
-			} else {
-				return modifyOneInFilter(obj, key, param);
+				return vue.split(",");
 			}
+			return new Object[] {obj};
 		}  else if (obj instanceof Map) {
-			Object[] vue = ((Map) obj).values().toArray();
-			return modifyArrInFilter(vue, key, param);
+			return ((Map) obj).values().toArray();
 		} else {
 			// 其他
-			return modifyOneInFilter(obj, key, param);
+			return new Object[] {obj};
 		}
-
 	}
 
-	private String modifyArrInFilter(Object obj, String key, Map<String, Object> param) {
-		// 判断是数组
-		StringBuilder itemSql = new StringBuilder();
-		int length = Array.getLength(obj);
-		for (int i = 0; i < length; i++) {
-			String itemKey = key + "_" + i;
-			param.put(itemKey, Array.get(obj, i));
-			itemSql.append("#{request." + SqlConstant.PROVIDER_FILTER + ".").append(itemKey).append("}");
-			if (i != length - 1) {
-				itemSql.append(",");
-			}
+	/**
+	 * 放入条件值，如果值容器需要记录绑定来源(SQL 缓存构建时)，同时记录值在条件数组中的位置
+	 * @param value
+	 * @param key
+	 * @param item
+	 * @param source     值来源的条件节点或游标值数组
+	 * @param position   值在游标值数组中的下标，条件节点为 0
+	 * @param element    in 查询展开后占位符的下标，非 in 查询为 -1
+	 */
+	private static void putValue(Map<String, Object> value, String key, Object item, Object source, int position, int element) {
+		if (value instanceof ProviderValueMap) {
+			((ProviderValueMap) value).bind(key, item, source, position, element);
+		} else {
+			value.put(key, item);
 		}
-		return itemSql.toString();
-	}
-
-	private String modifyOneInFilter(Object obj, String key, Map<String, Object> param) {
-		// 判断不是数组
-		StringBuilder itemSql = new StringBuilder();
-		String itemKey = key + "_" + 0;
-		param.put(itemKey, obj);
-		itemSql.append("#{request." + SqlConstant.PROVIDER_FILTER + ".").append(itemKey).append("}");
-		return itemSql.toString();
 	}
 
 	public String getSelectByIdSql(String[] columns, BigInteger id, String tableName) {
-
-		SQL sql = new SQL();
-		sql.SELECT(columns);
-		sql.FROM(tableName);
-		sql.WHERE("id=#{id}");
-		return sql.toString();
+		return "SELECT " + String.join(", ", columns) + "\nFROM " + tableName + "\nWHERE (id=#{id})";
 	}
 
 	/**
@@ -491,15 +724,55 @@ public abstract class AbstractSqlHandleMethod {
 	public String getSelectSql(Map<String, Object> param, String tableName) throws HandleException {
 
 		QueryProviderHandle queryProvider = (QueryProviderHandle) param.get(SqlConstant.PROVIDER_OBJ);
-		TableIndexCache cache = new TableIndexCache();
-		Map<String, Object> value = new HashMap<>();
-		String sql = this.getSelectSql(cache, queryProvider, value, tableName, INDEX_DEFAULT);
+		String sql;
+		Map<String, Object> value;
+		Object chunkValue = param.get(SqlConstant.PROVIDER_FILTER);
+		if (chunkValue instanceof InFilterChunk.ValueMap) {
+			/**
+			 * 超大 in 查询拆分执行，值容器中带有本批次的 in 值，语句与完整查询不同，不使用 SQL 缓存
+			 */
+			value = (InFilterChunk.ValueMap) chunkValue;
+			sql = this.getSelectSql(new TableIndexCache(), queryProvider, value, tableName);
+		} else if (queryProvider.getTemplateBinding() != null) {
+			/**
+			 * 模板查询按编译好的 SQL 和参数顺序取绑定的值
+			 */
+			QueryTemplate.Binding binding = queryProvider.getTemplateBinding();
+			String key = binding.getKey(tableName, 's');
+			QueryTemplate.Compiled compiled = binding.getTemplate().getCompiled(key);
+			if (compiled == null) {
+				QueryTemplate.ValueMap bindValue = new QueryTemplate.ValueMap(binding);
+				compiled = binding.getTemplate().compile(key, this.getSelectSql(new TableIndexCache(), queryProvider, bindValue, tableName), null, bindValue);
+			}
+			sql = compiled.getSql();
+			value = compiled.bind(binding);
+		} else if (QuerySqlCache.isEnabled()) {
+			/**
+			 * 相同结构的 QueryProvider 复用缓存的 SQL 语句，只重新绑定条件值
+			 */
+			QueryProviderShape shape = QueryProviderShape.of(queryProvider, tableName);
+			QuerySqlCache.Entry entry = QuerySqlCache.get(shape.getKey());
+			if (entry != null) {
+				sql = entry.getSql();
+				value = entry.bind(shape);
+			} else {
+				ProviderValueMap bindValue = new ProviderValueMap();
+				sql = this.getSelectSql(new TableIndexCache(), queryProvider, bindValue, tableName);
+				QuerySqlCache.put(shape, sql, bindValue);
+				value = bindValue;
+			}
+		} else {
+			value = new HashMap<>();
+			sql = this.getSelectSql(new TableIndexCache(), queryProvider, value, tableName);
+		}
 
 		if(!value.isEmpty()) {
 			// 放入值到map
 			param.put(SqlConstant.PROVIDER_FILTER, value);
 		}
-		return sql + getLimitSql(queryProvider.getLimit());
+		sql += getLimitSql(queryProvider.getLimit());
+		SqlShapeStats.record(tableName, sql);
+		return sql;
 	}
 
 	/**
@@ -512,7 +785,7 @@ public abstract class AbstractSqlHandleMethod {
 	}
 
 	/**
-	 * 构造查询sql
+	 * 构造主查询sql
 	 * @param cache
 	 * @param queryProvider
 	 * @param value
@@ -520,72 +793,76 @@ public abstract class AbstractSqlHandleMethod {
 	 * @return
 	 * @throws HandleException
 	 */
-	private String getSelectSql(TableIndexCache cache, QueryProviderHandle queryProvider, Map<String, Object> value, String tableName, String index) throws HandleException {
+	private String getSelectSql(TableIndexCache cache, QueryProviderHandle queryProvider, Map<String, Object> value, String tableName) throws HandleException {
+		SqlEmitter emitter = SqlEmitter.acquire();
+		try {
+			this.getSelectSql(emitter.sql, cache, queryProvider, value, tableName, INDEX_DEFAULT);
+			return emitter.sql.toString();
+		} finally {
+			emitter.release();
+		}
+	}
+
+	/**
+	 * 构造查询sql，写入 sql 缓冲区，in 子查询直接写入上层的条件缓冲区
+	 * @param sql
+	 * @param cache
+	 * @param queryProvider
+	 * @param value
+	 * @param tableName
+	 * @param index
+	 * @throws HandleException
+	 */
+	private void getSelectSql(StringBuilder sql, TableIndexCache cache, QueryProviderHandle queryProvider, Map<String, Object> value, String tableName, String index) throws HandleException {
 
 		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
 		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
 
 		String tableAliasName = this.getTableAsName(cache, queryProvider.getTableAsNameSerialNumber());
-		SQL sql = new SQL();
-		List<String> column = new ArrayList<>();
-		getSelectFieldColumns(queryProvider, cache, tableAliasName, columnMap, fieldMap, column);
-
-		StringBuffer leftJoinFilterSql = new StringBuffer();
-		List<String> groups = new ArrayList<>();
-		StringBuffer havingFilterSql = new StringBuffer();
-		List<String> orders = new ArrayList<>();
-		sql.FROM(tableName + " " + tableAliasName + getLeftJoinTable(cache, tableAliasName, queryProvider.getLeftJoinProviderArray(), value, index + "_cl", leftJoinFilterSql, column, groups, havingFilterSql, orders, fieldMap, columnMap, true));
-		sql.SELECT(String.join(",", column));
-		// 构建 group by 语句
-		this.addGroupBy(cache, groups, tableAliasName, columnMap, queryProvider);
-		/**
-		 * 拼装 having 字句
-		 */
-		this.addHaving(havingFilterSql, queryProvider.getHavingArray(), cache, tableAliasName, index + "_gh", fieldMap, columnMap, value);
-		this.addOrder(orders, cache, tableAliasName, fieldMap, columnMap, queryProvider.getOrderArray());
-
-		StringBuffer filterSqlBuffer = new StringBuffer();
-		List<Object[]> filters = queryProvider.getFilterArray();
-		if ((filters != null && !filters.isEmpty()) || (queryProvider.getProviderArray() != null && !queryProvider.getProviderArray().isEmpty())) {
-			String filterSql = getFilterSql(cache, tableAliasName, filters, queryProvider.getProviderArray(), value,
-					index + "_tl", columnMap, fieldMap, DEFAULT_ALIAS);
-			if(!ValidateTool.isEmpty(filterSql)) {
-				filterSqlBuffer.append(filterSql);
+		SqlEmitter emitter = SqlEmitter.acquire();
+		try {
+			getSelectFieldColumns(queryProvider, cache, tableAliasName, columnMap, fieldMap, emitter);
+
+			emitter.from.append(tableName).append(' ').append(tableAliasName);
+			getLeftJoinTable(cache, tableAliasName, queryProvider.getLeftJoinProviderArray(), value, index + "_cl", emitter, emitter.from, true, fieldMap, columnMap, true);
+			// 构建 group by 语句
+			this.addGroupBy(cache, emitter, tableAliasName, columnMap, queryProvider);
+			/**
+			 * 拼装 having 字句
+			 */
+			this.addHaving(emitter, queryProvider.getHavingArray(), cache, tableAliasName, index + "_gh", fieldMap, columnMap, value);
+			this.addOrder(emitter, cache, tableAliasName, fieldMap, columnMap, queryProvider.getOrderArray());
+
+			StringBuilder filterSql = emitter.where;
+			List<FilterNode> filters = queryProvider.getFilterArray();
+			if ((filters != null && !filters.isEmpty()) || (queryProvider.getProviderArray() != null && !queryProvider.getProviderArray().isEmpty())) {
+				getFilterSql(filterSql, cache, tableAliasName, filters, queryProvider.getProviderArray(), value,
+						index + "_tl", columnMap, fieldMap, DEFAULT_ALIAS);
 			}
-		}
+			emitter.mergeJoinWhere();
 
-		if(!ValidateTool.isEmpty(leftJoinFilterSql.toString())) {
-			if(!ValidateTool.isEmpty(filterSqlBuffer.toString())) {
-				filterSqlBuffer.append(AppendTypeEnum.AND.getJoinTypeName() + leftJoinFilterSql.toString());
-			} else {
-				filterSqlBuffer.append(leftJoinFilterSql);
+			if (INDEX_DEFAULT.equals(index) && queryProvider.getSeekValues() != null) {
+				/**
+				 * 游标分页条件，只作用于主查询
+				 */
+				String seekSql = this.getSeekFilterSql(cache, tableAliasName, columnMap, queryProvider, value, index + "_sk");
+				if (filterSql.length() > 0) {
+					filterSql.insert(0, '(').append(')').append(AppendTypeEnum.AND.getJoinTypeName());
+				}
+				filterSql.append(seekSql);
 			}
-		}
-		if (!ValidateTool.isEmpty(filterSqlBuffer.toString())) {
-			sql.WHERE(filterSqlBuffer.toString());
-		}
-
-		if (!groups.isEmpty()) {
-			sql.GROUP_BY(groups.toArray(new String[groups.size()]));
-		}
-		if(!ValidateTool.isEmpty(havingFilterSql.toString())) {
-			sql.HAVING(havingFilterSql.toString());
-		}
-
-		if (!orders.isEmpty()) {
-			sql.ORDER_BY(orders.toArray(new String[orders.size()]));
+			emitter.emitSelect(sql);
+		} finally {
+			emitter.release();
 		}
 
 		if(queryProvider.getUnionProviderArray() != null && !queryProvider.getUnionProviderArray().isEmpty()) {
-			StringBuffer unionSql = new StringBuffer();
-			for (Object[] obj : queryProvider.getUnionProviderArray()) {
-				UnionEnum unionEnum = (UnionEnum) obj[0];
-				QueryProviderHandle unionProvider = (QueryProviderHandle) obj[1];
-				unionSql.append(unionEnum.getUnionType() + this.getSelectSql(cache, unionProvider, value, unionProvider.getTableName(), index + "_un"));
+			for (UnionNode union : queryProvider.getUnionProviderArray()) {
+				UnionEnum unionEnum = union.getUnionType();
+				QueryProviderHandle unionProvider = (QueryProviderHandle) union.getProvider();
+				sql.append(unionEnum.getUnionType());
+				this.getSelectSql(sql, cache, unionProvider, value, unionProvider.getTableName(), index + "_un");
 			}
-			return sql.toString() + unionSql.toString();
-		} else {
-			return sql.toString();
 		}
 
 //		if (PageEnum.IS_PAGE_TRUE == queryProvider.getIsPage()) {
@@ -602,91 +879,70 @@ public abstract class AbstractSqlHandleMethod {
 		TableIndexCache cache = new TableIndexCache();
 //		String tableAliasName = cache.getTableAsName();
 		String tableAliasName = this.getTableAsName(cache, queryProvider.getTableAsNameSerialNumber());
-		SQL sql = new SQL();
-		sql.SELECT("count(1)");
 		Map<String, Object> value = new HashMap<>();
 
-		StringBuffer leftJoinFilterSql = new StringBuffer();
-		List<String> groups = new ArrayList<>();
-		StringBuffer havingFilterSql = new StringBuffer();
-		String table = tableName + " " + tableAliasName + getLeftJoinTable(cache, tableAliasName, queryProvider.getLeftJoinProviderArray(), value, INDEX_DEFAULT + "_cl", leftJoinFilterSql, null, groups, havingFilterSql, null, fieldMap, columnMap, true);
-		sql.FROM(table);
-
-		// 处理 group by 语句
-		this.addGroupBy(cache, groups, tableAliasName, columnMap, queryProvider);
-		/**
-		 * 拼装 having 字句
-		 */
-		this.addHaving(havingFilterSql, queryProvider.getHavingArray(), cache, tableAliasName, INDEX_DEFAULT + "_gh", fieldMap, columnMap, value);
+		SqlEmitter emitter = SqlEmitter.acquire();
+		try {
+			emitter.from.append(tableName).append(' ').append(tableAliasName);
+			getLeftJoinTable(cache, tableAliasName, queryProvider.getLeftJoinProviderArray(), value, INDEX_DEFAULT + "_cl", emitter, emitter.from, false, fieldMap, columnMap, true);
 
-		StringBuffer filterSqlBuffer = new StringBuffer();
-		List<Object[]> filters = queryProvider.getFilterArray();
-		if ((filters != null && !filters.isEmpty()) || (queryProvider.getProviderArray() != null && !queryProvider.getProviderArray().isEmpty())) {
+			// 处理 group by 语句
+			this.addGroupBy(cache, emitter, tableAliasName, columnMap, queryProvider);
+			/**
+			 * 拼装 having 字句
+			 */
+			this.addHaving(emitter, queryProvider.getHavingArray(), cache, tableAliasName, INDEX_DEFAULT + "_gh", fieldMap, columnMap, value);
 
-			String filterSql = getFilterSql(cache, tableAliasName, filters, queryProvider.getProviderArray(), value,
-					INDEX_DEFAULT + "_tl", columnMap, fieldMap, DEFAULT_ALIAS);
-			if(!ValidateTool.isEmpty(filterSql)) {
-				filterSqlBuffer.append(filterSql);
+			List<FilterNode> filters = queryProvider.getFilterArray();
+			if ((filters != null && !filters.isEmpty()) || (queryProvider.getProviderArray() != null && !queryProvider.getProviderArray().isEmpty())) {
+				getFilterSql(emitter.where, cache, tableAliasName, filters, queryProvider.getProviderArray(), value,
+						INDEX_DEFAULT + "_tl", columnMap, fieldMap, DEFAULT_ALIAS);
 			}
-		}
+			emitter.mergeJoinWhere();
 
-		if(!ValidateTool.isEmpty(leftJoinFilterSql.toString())) {
-			if(!ValidateTool.isEmpty(filterSqlBuffer.toString())) {
-				filterSqlBuffer.append(AppendTypeEnum.AND.getJoinTypeName() + leftJoinFilterSql);
-			} else {
-				filterSqlBuffer.append(leftJoinFilterSql);
-//				filterSql = leftJoinFilterSql.toString();
+			if(!value.isEmpty()) {
+				// 放入值到map
+				param.put(SqlConstant.PROVIDER_FILTER, value);
 			}
-		}
-		if (!ValidateTool.isEmpty(filterSqlBuffer.toString())) {
-			sql.WHERE(filterSqlBuffer.toString());
-		}
 
-		if(!value.isEmpty()) {
-			// 放入值到map
-			param.put(SqlConstant.PROVIDER_FILTER, value);
-		}
-
-		if (!groups.isEmpty()) {
-			sql.GROUP_BY(groups.toArray(new String[groups.size()]));
-		}
-		if(!ValidateTool.isEmpty(havingFilterSql.toString())) {
-			sql.HAVING(havingFilterSql.toString());
+			emitter.emitCount(emitter.sql);
+			String sql = emitter.sql.toString();
+			SqlShapeStats.record(tableName, sql);
+			return sql;
+		} finally {
+			emitter.release();
 		}
-
-		return sql.toString();
 	}
 
 	/**
 	 * 构造 SQL 分组
 	 * @param cache
-	 * @param groups
+	 * @param emitter
 	 * @param tableAsName
 	 * @param columnMap
 	 * @param queryConditionProvider
 	 */
-	private void addGroupBy(TableIndexCache cache, List<String> groups, String tableAsName, Map<String, String> columnMap, AbstractQueryConditionProviderHandle queryConditionProvider) {
-		List<Object[]> queryGroup = queryConditionProvider.getGroupArray();
+	private void addGroupBy(TableIndexCache cache, SqlEmitter emitter, String tableAsName, Map<String, String> columnMap, AbstractQueryConditionProviderHandle queryConditionProvider) {
+		List<GroupNode> queryGroup = queryConditionProvider.getGroupArray();
 		if (queryGroup != null && !queryGroup.isEmpty()) {
-			for (Object[] groupArray : queryGroup) {
-				SqlHandleEnum handleEnum = (SqlHandleEnum) groupArray[1];
-				String fieldName = getField(groupArray[0].toString(), columnMap);
+			for (GroupNode group : queryGroup) {
+				SqlHandleEnum handleEnum = group.getHandleType();
+				ColumnRef groupColumn = group.getColumn();
 				String tempTableAsName;
 				String tempFieldName;
-				if(fieldName.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
-					String[] fieldArray = fieldName.split("[.]");
-					tempTableAsName = getTableAsName(cache, fieldArray[0].substring(fieldArray[0].indexOf("_") + 1));
-					tempFieldName = fieldArray[1];
+				if(groupColumn.isTableAs()) {
+					tempTableAsName = getTableAsName(cache, groupColumn.getTableAsNameSerialNumber());
+					tempFieldName = groupColumn.getFieldName();
 				} else {
 					tempTableAsName = tableAsName;
-					tempFieldName = fieldName;
+					tempFieldName = getField(groupColumn.getName(), columnMap);
 				}
 				switch (handleEnum) {
 					case HANDLE_DEFAULT:
-						groups.add(tempTableAsName + "." + tempFieldName);
+						emitter.appendGroup(tempTableAsName + "." + tempFieldName);
 						break;
 					case HANDLE_DATE_FORMAT:
-						groups.add("DATE_FORMAT(" + tempTableAsName + "." + tempFieldName + ",'" + groupArray[2] + "')");
+						emitter.appendGroup("DATE_FORMAT(" + tempTableAsName + "." + tempFieldName + ",'" + group.getPattern() + "')");
 						break;
 					default:
 						break;
@@ -695,20 +951,21 @@ public abstract class AbstractSqlHandleMethod {
 		}
 	}
 
-	private void addHaving(StringBuffer havingFilterSql, List<Object[]> havingArray, TableIndexCache cache, String tableAsName, String index, Map<String, String> fieldMap, Map<String, String> columnMap, Map<String, Object> value) {
+	private void addHaving(SqlEmitter emitter, List<HavingNode> havingArray, TableIndexCache cache, String tableAsName, String index, Map<String, String> fieldMap, Map<String, String> columnMap, Map<String, Object> value) {
 		if(!tableAsName.endsWith(".")) {
 			tableAsName += ".";
 		}
 		if(havingArray != null && !havingArray.isEmpty()) {
+			StringBuilder havingFilterSql = emitter.having;
 			for(int i = 0, j = havingArray.size(); i < j; i++) {
-				if(!ValidateTool.isEmpty(havingFilterSql.toString())) {
+				if(havingFilterSql.length() > 0) {
 					havingFilterSql.append(AppendTypeEnum.AND.getJoinTypeName());
 				}
-				Object[] obj = havingArray.get(i);
-				String field = (String) obj[0];
-				SqlHandleEnum sqlHandleEnum = (SqlHandleEnum) obj[1];
-				FilterEnum filterType = (FilterEnum) obj[2];
-				Number valueNumber = (Number) obj[3];
+				HavingNode having = havingArray.get(i);
+				String field = having.getName();
+				SqlHandleEnum sqlHandleEnum = having.getHandleType();
+				FilterEnum filterType = having.getFilterType();
+				Number valueNumber = having.getValue();
 				String key = SqlConstant.PROVIDER_FILTER + "_h" + index + "_" + i;
 
 				String havingSql = getAgFunction(cache, tableAsName, field, fieldMap, columnMap);
@@ -716,105 +973,179 @@ public abstract class AbstractSqlHandleMethod {
 				String expression = "#{request." + SqlConstant.PROVIDER_FILTER + "." + key + "}";
 				switch (sqlHandleEnum) {
 					case HANDLE_COUNT:
-						havingFilterSql.append("count(" + havingSql + ")" + getFilterType(filterType) + expression);
+						havingFilterSql.append("count(").append(havingSql).append(')').append(getFilterType(filterType)).append(expression);
 					default:
-						havingFilterSql.append(havingSql + getFilterType(filterType) + expression);
+						havingFilterSql.append(havingSql).append(getFilterType(filterType)).append(expression);
 				}
-				value.put(key, valueNumber);
+				putValue(value, key, valueNumber, having, 0, -1);
 			}
 		}
 	}
 
 	/**
 	 * 处理排序
-	 * @param orders
+	 * @param emitter
 	 * @param tableAliasName
 	 * @param fieldMap
 	 * @param columnMap
 	 * @param orderArray
 	 */
-	private void addOrder(List<String> orders, TableIndexCache cache, String tableAliasName, Map<String, String> fieldMap, Map<String, String> columnMap, List<Object[]> orderArray) {
+	private void addOrder(SqlEmitter emitter, TableIndexCache cache, String tableAliasName, Map<String, String> fieldMap, Map<String, String> columnMap, List<OrderNode> orderArray) {
 		if (orderArray != null && !orderArray.isEmpty()) {
-			for (Object[] orderInfo : orderArray) {
-				String column = columnMap.get(orderInfo[0]);
-				String fieldName;
-				if (!ValidateTool.isEmpty(column)) {
-					fieldName = column;
-				} else {
-					fieldName = orderInfo[0].toString();
-				}
-
-				String tempTableAsName;
-				String tempFieldName;
-				if(fieldName.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
-					String[] fieldArray = fieldName.split("[.]");
-					tempTableAsName = getTableAsName(cache, fieldArray[0].substring(fieldArray[0].indexOf("_") + 1));
-					tempFieldName = fieldArray[1];
-				} else {
-					tempTableAsName = tableAliasName;
-					tempFieldName = fieldName;
-				}
+			for (OrderNode orderInfo : orderArray) {
+				String fieldName = getOrderFieldName(columnMap, orderInfo);
+				String orderColumn = getOrderColumn(cache, tableAliasName, orderInfo, fieldName);
+				String direction = orderInfo.getDirection();
 
-				SqlHandleEnum sqlHandleEnum = (SqlHandleEnum) orderInfo[2];
+				SqlHandleEnum sqlHandleEnum = orderInfo.getHandleType();
 				switch (sqlHandleEnum) {
 					case HANDLE_DEFAULT:
-						orders.add(tempTableAsName + "." + tempFieldName + " " + orderInfo[1]);
+						emitter.appendOrder(orderColumn + " " + direction);
 						break;
 					case HANDLE_SUM:
-						orders.add("sum(" + tempTableAsName + "." + tempFieldName + ") " + orderInfo[1]);
+						emitter.appendOrder("sum(" + orderColumn + ") " + direction);
 						break;
 					case HANDLE_AVG:
-						orders.add("avg(" + tempTableAsName + "." + tempFieldName + ") " + orderInfo[1]);
+						emitter.appendOrder("avg(" + orderColumn + ") " + direction);
 						break;
 					case HANDLE_DISTINCT:
-						orders.add("distinct(" + tempTableAsName + "." + tempFieldName + ") " + orderInfo[1]);
+						emitter.appendOrder("distinct(" + orderColumn + ") " + direction);
 						break;
 					case HANDLE_EXP:
-						orders.add(getAgFunction(cache, tableAliasName, fieldName, fieldMap, columnMap) + " " + orderInfo[1]);
+						emitter.appendOrder(getAgFunction(cache, tableAliasName, fieldName, fieldMap, columnMap) + " " + direction);
 						break;
 				}
 			}
 		}
 	}
 
-	private String getLeftJoinTable(TableIndexCache cache, String tableAliasName, List<Object[]> leftJoinProviders, Map<String, Object> value, String index, StringBuffer leftJoinFilterSql, List<String> column, List<String> groups, StringBuffer havingFilterSql, List<String> orders, Map<String, String> fieldMap, Map<String, String> columnMap, boolean selectFlag) {
+	private String getOrderFieldName(Map<String, String> columnMap, OrderNode orderInfo) {
+		String column = columnMap.get(orderInfo.getName());
+		if (!ValidateTool.isEmpty(column)) {
+			return column;
+		}
+		return orderInfo.getName();
+	}
+
+	/**
+	 * 获取排序字段带表别名的字段名，#as_ 开头的字段取对应连接表的别名
+	 * @param cache
+	 * @param tableAliasName
+	 * @param orderInfo
+	 * @param fieldName   已转换为数据库字段的名称
+	 * @return
+	 */
+	private String getOrderColumn(TableIndexCache cache, String tableAliasName, OrderNode orderInfo, String fieldName) {
+		ColumnRef orderColumn = orderInfo.getColumn();
+		if(orderColumn.isTableAs()) {
+			return getTableAsName(cache, orderColumn.getTableAsNameSerialNumber()) + "." + orderColumn.getFieldName();
+		}
+		return tableAliasName + "." + fieldName;
+	}
+
+	/**
+	 * 构建游标分页条件 (k1,k2) > (?,?)，排序字段取自主查询的 orderArray，
+	 * 排序字段只能为普通字段且排序方向一致，升序为 >，降序为 <
+	 * @param cache
+	 * @param tableAliasName
+	 * @param columnMap
+	 * @param queryProvider
+	 * @param value
+	 * @param index
+	 * @return
+	 */
+	private String getSeekFilterSql(TableIndexCache cache, String tableAliasName, Map<String, String> columnMap, QueryProviderHandle queryProvider, Map<String, Object> value, String index) {
+		List<OrderNode> orderArray = queryProvider.getOrderArray();
+		Object[] seekValues = queryProvider.getSeekValues();
+		if (orderArray == null || orderArray.isEmpty()) {
+			throw new HandleException("error: seek page must set order");
+		}
+		if (orderArray.size() != seekValues.length) {
+			throw new HandleException("error: seek values size must be equal to order size");
+		}
+
+		String direction = null;
+		StringBuilder columnSql = new StringBuilder();
+		StringBuilder valueSql = new StringBuilder();
+		for (int i = 0, j = orderArray.size(); i < j; i++) {
+			OrderNode orderInfo = orderArray.get(i);
+			if (!SqlHandleEnum.HANDLE_DEFAULT.equals(orderInfo.getHandleType())) {
+				throw new HandleException("error: seek page order only support column");
+			}
+			if (direction == null) {
+				direction = orderInfo.getDirection();
+			} else if (!direction.equals(orderInfo.getDirection())) {
+				throw new HandleException("error: seek page order must be same direction");
+			}
+
+			String key = SqlConstant.PROVIDER_FILTER + "_v" + index + "_" + i;
+			putValue(value, key, seekValues[i], seekValues, i, -1);
+			if (i > 0) {
+				columnSql.append(",");
+				valueSql.append(",");
+			}
+			columnSql.append(getOrderColumn(cache, tableAliasName, orderInfo, getOrderFieldName(columnMap, orderInfo)));
+			valueSql.append("#{request." + SqlConstant.PROVIDER_FILTER + ".").append(key).append("}");
+		}
+
+		String operator = "desc".equals(direction) ? " < " : " > ";
+		if (seekValues.length == 1) {
+			return columnSql + operator + valueSql;
+		}
+		return "(" + columnSql + ")" + operator + "(" + valueSql + ")";
+	}
+
+	/**
+	 * 构造 left join 连接，连接语句写入 sql，连接表的查询字段、分组、having 和 where 条件写入 emitter 对应的子句
+	 * @param cache
+	 * @param tableAliasName
+	 * @param leftJoinProviders
+	 * @param value
+	 * @param index
+	 * @param emitter
+	 * @param sql
+	 * @param columnFlag    是否构造查询字段
+	 * @param fieldMap
+	 * @param columnMap
+	 * @param selectFlag
+	 */
+	private void getLeftJoinTable(TableIndexCache cache, String tableAliasName, List<JoinNode> leftJoinProviders, Map<String, Object> value, String index, SqlEmitter emitter, StringBuilder sql, boolean columnFlag, Map<String, String> fieldMap, Map<String, String> columnMap, boolean selectFlag) {
 
 		if (leftJoinProviders == null || leftJoinProviders.isEmpty()) {
-			return "";
+			return;
 		}
 
-		StringBuffer sql = new StringBuffer();
 		for (int l = 0, m = leftJoinProviders.size(); l < m; l++) {
-			Object[] leftJoinArray = leftJoinProviders.get(l);
-			QueryProviderHandle childParam = (QueryProviderHandle) leftJoinArray[2];
+			JoinNode leftJoin = leftJoinProviders.get(l);
+			QueryProviderHandle childParam = (QueryProviderHandle) leftJoin.getProvider();
 			String connectTableName = childParam.getTableName();
 			if (ValidateTool.isEmpty(connectTableName)) {
 				throw new HandleException("error: connectTableName is null");
 			}
 			String connectTableAliasName = this.getTableAsName(cache, childParam.getTableAsNameSerialNumber());
+			int joinStart = sql.length();
+			int aliasIndex = emitter.addJoinAlias(connectTableAliasName);
 
-			sql.append(" left join " + connectTableName + " " + connectTableAliasName + " on ");
+			sql.append(" left join ").append(connectTableName).append(' ').append(connectTableAliasName).append(" on ");
 			Map<String, String> childFieldMap = CacheInfoConstant.FIELD_CACHE.get(connectTableName);
 			Map<String, String> childColumnMap = CacheInfoConstant.COLUMN_CACHE.get(connectTableName);
 
-			Object fieldName = leftJoinArray[0];
-			Object paramFieldName = leftJoinArray[1];
+			String[] fieldArr = leftJoin.getFieldNames();
+			String[] paramFieldArr = leftJoin.getParamFieldNames();
 
 //			if(fieldName != null && paramFieldName != null) {
-				if (fieldName instanceof String) {
+				if (leftJoin.isSingle()) {
 					// 说明是单个
 //					onFilterSql.append(tableAliasName + "." + leftJoinArray[0] + "=" + connectTableAliasName + "." + paramFieldName);
-					sql.append(tableAliasName + "." + leftJoinArray[0] + "=" + connectTableAliasName + "." + paramFieldName);
+					sql.append(tableAliasName).append('.').append(fieldArr[0]).append('=').append(connectTableAliasName).append('.').append(paramFieldArr[0]);
 				} else {
-					String[] fieldArr = (String[]) fieldName;
-					String[] paramFieldArr = (String[]) paramFieldName;
 					// 说明是数组
 					for (int i = 0, j = fieldArr.length; i < j; i++) {
 //						sql.append(tableAliasName + "." + fieldArr[i] + "=" + connectTableAliasName + "." + paramFieldArr[i]);
 //						sql.append(tableAliasName + "." + fieldArr[i] + "=" + connectTableAliasName + "." + paramFieldArr[i]);
 
 						sql.append(getAgFunction(cache, tableAliasName + ".", fieldArr[i], fieldMap, columnMap));
-						sql.append("=");
+						sql.append('=');
 						sql.append(getAgFunction(cache, connectTableAliasName + ".", paramFieldArr[i], childFieldMap, childColumnMap));
 						if (i != j - 1) {
 							sql.append(AppendTypeEnum.AND.getJoinTypeName());
@@ -836,29 +1167,28 @@ public abstract class AbstractSqlHandleMethod {
 			 * 如果是查询拼接时，构造查询字段、分组和 having 子句
 			 */
 			if(selectFlag) {
-				if(column != null && childParam.getColumnArray() != null && !childParam.getColumnArray().isEmpty()) {
-					getSelectFieldColumns(childParam, cache, connectTableAliasName, childColumnMap, childFieldMap, column);
+				if(columnFlag && childParam.getColumnArray() != null && !childParam.getColumnArray().isEmpty()) {
+					getSelectFieldColumns(childParam, cache, connectTableAliasName, childColumnMap, childFieldMap, emitter);
 				}
 
-				this.addGroupBy(cache, groups, connectTableAliasName, childColumnMap, childParam);
+				this.addGroupBy(cache, emitter, connectTableAliasName, childColumnMap, childParam);
 				/**
 				 * 解析 having 字句
 				 */
-				this.addHaving(havingFilterSql, childParam.getHavingArray(), cache, tableAliasName, index + "_gh_" + l, childFieldMap, childColumnMap, value);
+				this.addHaving(emitter, childParam.getHavingArray(), cache, tableAliasName, index + "_gh_" + l, childFieldMap, childColumnMap, value);
 			}
 
-			if(orders != null && !orders.isEmpty()) {
-				this.addOrder(orders, cache, connectTableAliasName, childFieldMap, childColumnMap, childParam.getOrderArray());
+			if(emitter.order.length() > 0) {
+				this.addOrder(emitter, cache, connectTableAliasName, childFieldMap, childColumnMap, childParam.getOrderArray());
 			}
 
-			List<Object[]> onFilters = childParam.getOnFilterArray();
+			List<FilterNode> onFilters = childParam.getOnFilterArray();
 			if((onFilters != null && !onFilters.isEmpty())  || (childParam.getOnProviderArray() != null && !childParam.getOnProviderArray().isEmpty())) {
-				String onFilterCacheSql = this.getFilterSql(cache, connectTableAliasName, onFilters,  childParam.getOnProviderArray(), value, index + "_ofl_" + l, childColumnMap, childFieldMap, true);
-				if(!ValidateTool.isEmpty(onFilterCacheSql)) {
-					if(!onFilterCacheSql.startsWith(AppendTypeEnum.AND.getJoinTypeName()) && !onFilterCacheSql.startsWith(AppendTypeEnum.OR.getJoinTypeName())) {
-						onFilterCacheSql = AppendTypeEnum.AND.getJoinTypeName() + onFilterCacheSql;
-					}
-					sql.append(onFilterCacheSql);
+				int onFilterStart = sql.length();
+				this.getFilterSql(sql, cache, connectTableAliasName, onFilters,  childParam.getOnProviderArray(), value, index + "_ofl_" + l, childColumnMap, childFieldMap, true);
+				if(sql.length() > onFilterStart && !SqlEmitter.startsWith(sql, onFilterStart, AppendTypeEnum.AND.getJoinTypeName())
+						&& !SqlEmitter.startsWith(sql, onFilterStart, AppendTypeEnum.OR.getJoinTypeName())) {
+					sql.insert(onFilterStart, AppendTypeEnum.AND.getJoinTypeName());
 				}
 			}
 
@@ -868,22 +1198,50 @@ public abstract class AbstractSqlHandleMethod {
 //			}
 
 			if((childParam.getFilterArray() != null && !childParam.getFilterArray().isEmpty()) || (childParam.getProviderArray() != null && !childParam.getProviderArray().isEmpty())) {
-				String filterSql = this.getFilterSql(cache, connectTableAliasName, childParam.getFilterArray(), childParam.getProviderArray(), value, index + "_fl" + l, childColumnMap, childFieldMap);
-				if(ValidateTool.isEmpty(leftJoinFilterSql.toString())) {
-					leftJoinFilterSql.append(filterSql);
-				} else {
-					leftJoinFilterSql.append(AppendTypeEnum.AND.getJoinTypeName() + filterSql);
+				StringBuilder leftJoinFilterSql = emitter.joinWhere;
+				if(leftJoinFilterSql.length() > 0) {
+					leftJoinFilterSql.append(AppendTypeEnum.AND.getJoinTypeName());
 				}
+				this.getFilterSql(leftJoinFilterSql, cache, connectTableAliasName, childParam.getFilterArray(), childParam.getProviderArray(), value, index + "_fl" + l, childColumnMap, childFieldMap);
 			}
 
-			List<Object[]> paramLeftJoinProviders = childParam.getLeftJoinProviderArray();
+			List<JoinNode> paramLeftJoinProviders = childParam.getLeftJoinProviderArray();
 			if (paramLeftJoinProviders != null && paramLeftJoinProviders.size() > 0) {
-				sql.append(getLeftJoinTable(cache, connectTableAliasName, paramLeftJoinProviders, value, index + "_" + l, leftJoinFilterSql, column, groups, havingFilterSql, orders, childFieldMap, childColumnMap, selectFlag));
+				getLeftJoinTable(cache, connectTableAliasName, paramLeftJoinProviders, value, index + "_" + l, emitter, sql, columnFlag, childFieldMap, childColumnMap, selectFlag);
+			}
+
+			if (sql == emitter.from && isNeutralJoin(leftJoin)) {
+				emitter.addNeutralJoin(joinStart, aliasIndex);
 			}
 
 		}
+	}
+
+	/**
+	 * 判断 left join 是否不影响查询的行数，连接表及其嵌套连接表没有条件、分组，并且按连接表的主键 id 连接，最多匹配一行
+	 * @param leftJoin
+	 * @return
+	 */
+	private static boolean isNeutralJoin(JoinNode leftJoin) {
+		QueryProviderHandle childParam = (QueryProviderHandle) leftJoin.getProvider();
+		if (!Arrays.asList(leftJoin.getParamFieldNames()).contains(CommonField.FIELD_ID)
+				|| !isEmpty(childParam.getFilterArray()) || !isEmpty(childParam.getProviderArray())
+				|| !isEmpty(childParam.getOnFilterArray()) || !isEmpty(childParam.getOnProviderArray())
+				|| !isEmpty(childParam.getGroupArray()) || !isEmpty(childParam.getHavingArray())) {
+			return false;
+		}
+		if (childParam.getLeftJoinProviderArray() != null) {
+			for (JoinNode join : childParam.getLeftJoinProviderArray()) {
+				if (!isNeutralJoin(join)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
 
-		return sql.toString();
+	private static boolean isEmpty(List<?> list) {
+		return list == null || list.isEmpty();
 	}
 
 	/**
@@ -893,14 +1251,14 @@ public abstract class AbstractSqlHandleMethod {
 	 * @return
 	 * @throws HandleException
 	 */
-	private void getSelectFieldColumns(QueryProviderHandle queryProvider, TableIndexCache cache, String tableAliasName, Map<String, String> columnMap, Map<String, String> fieldMap, List<String> column)
+	private void getSelectFieldColumns(QueryProviderHandle queryProvider, TableIndexCache cache, String tableAliasName, Map<String, String> columnMap, Map<String, String> fieldMap, SqlEmitter emitter)
 			throws HandleException {
 
 		if(queryProvider.isSelectNothingFlag()) {
 			return;
 		}
 
-		List<Object[]> fields;
+		List<ColumnNode> fields;
 		boolean allFlag = true;
 		if ((fields = queryProvider.getColumnArray()) != null && fields.size() > 0) {
 			allFlag = false;
@@ -923,9 +1281,9 @@ public abstract class AbstractSqlHandleMethod {
 				}
 				String columnName = tableAliasName + name;
 				if (name.equals(key)) {
-					column.add(columnName);
+					emitter.appendColumn(columnName);
 				} else {
-					column.add(columnName + " as " + key);
+					emitter.appendColumn(columnName + " as " + key);
 				}
 			}
 
@@ -935,14 +1293,14 @@ public abstract class AbstractSqlHandleMethod {
 //				getLeftJoinSelectColumn(cache, leftJoinParams, column);
 //			}
 
-			if (column.isEmpty()) {
+			if (emitter.select.length() == 0) {
 				throw new HandleException("error：field is null");
 			}
 			return;
 		}
 
 		// 获取列
-		getSelectColumn(cache, tableAliasName, column, fields, fieldMap, columnMap, notFields);
+		getSelectColumn(cache, tableAliasName, emitter, fields, fieldMap, columnMap, notFields);
 
 		// 获取left join
 //		List<Object[]> leftJoinParams = queryProvider.getLeftJoinProviders();
@@ -950,7 +1308,7 @@ public abstract class AbstractSqlHandleMethod {
 //			getLeftJoinSelectColumn(cache, leftJoinParams, column);
 //		}
 
-		if (column.size() == 0) {
+		if (emitter.select.length() == 0) {
 			throw new HandleException("error：field is null");
 		}
 
@@ -1014,21 +1372,21 @@ public abstract class AbstractSqlHandleMethod {
 	 * 获取需要查询的字段
 	 * @author HuangLongPu
 	 * @param tableAliasName
-	 * @param column
+	 * @param emitter
 	 * @param fields
 	 * @param fieldMap
 	 * @param columnMap
 	 * @param notFields
 	 */
-	private void getSelectColumn(TableIndexCache cache, String tableAliasName, List<String> column, List<Object[]> fields, Map<String, String> fieldMap,
+	private void getSelectColumn(TableIndexCache cache, String tableAliasName, SqlEmitter emitter, List<ColumnNode> fields, Map<String, String> fieldMap,
 			Map<String, String> columnMap, Map<String, String> notFields) {
 		// 别名加点
 		if (!ValidateTool.isEmpty(tableAliasName) && !tableAliasName.contains(".")) {
 			tableAliasName += ".";
 		}
-		for (Object[] obj : fields) {
-			String fieldName = obj[0].toString();
-			Object value = obj[2];
+		for (ColumnNode field : fields) {
+			String fieldName = field.getName();
+			Object value = field.getValue();
 
 			String fieldTemp;
 			if (columnMap.containsKey(fieldName)) {
@@ -1044,48 +1402,48 @@ public abstract class AbstractSqlHandleMethod {
 			if (notFields != null && (notFields.containsKey(fieldAliaName) || notFields.containsKey(fieldName) || notFields.containsKey(fieldTemp))) {
 				continue;
 			}
-			SqlHandleEnum type = (SqlHandleEnum) obj[1];
+			SqlHandleEnum type = field.getHandleType();
 			String columnName;
 			String fieldAsTemp = ValidateTool.isEmpty(fieldAliaName) ? "" : " as " + fieldAliaName;
 			switch (type) {
 			case HANDLE_COUNT:
 				// 说明是count查询
 				if (ValidateTool.isEmpty(fieldName)) {
-					column.add("count(1)" + fieldAsTemp);
+					emitter.appendColumn("count(1)" + fieldAsTemp);
 				} else {
-					column.add("count(distinct " + fieldTemp + ")" + fieldAsTemp);
+					emitter.appendColumn("count(distinct " + fieldTemp + ")" + fieldAsTemp);
 				}
 				break;
 			case HANDLE_SUM:
 				columnName = "sum(ifnull(" + getAgFunction(cache, tableAliasName, fieldTemp, fieldMap, columnMap) + ", 0))";
-				column.add(columnName + fieldAsTemp);
+				emitter.appendColumn(columnName + fieldAsTemp);
 				break;
 			case HANDLE_MAX:
 				columnName = "max(" + getAgFunction(cache, tableAliasName, fieldTemp, fieldMap, columnMap) + ")";
-				column.add(columnName + fieldAsTemp);
+				emitter.appendColumn(columnName + fieldAsTemp);
 				break;
 			case HANDLE_MIN:
 				columnName = "min(" + getAgFunction(cache, tableAliasName, fieldTemp, fieldMap, columnMap) + ")";
-				column.add(columnName + fieldAsTemp);
+				emitter.appendColumn(columnName + fieldAsTemp);
 				break;
 			case HANDLE_AVG:
 				columnName = "avg(ifnull(" + getAgFunction(cache, tableAliasName, fieldTemp, fieldMap, columnMap) + ", 0))";
-				column.add(columnName + fieldAsTemp);
+				emitter.appendColumn(columnName + fieldAsTemp);
 				break;
 			case HANDLE_DISTINCT:
-				column.add("distinct(" + fieldTemp + ")" + fieldAsTemp);
+				emitter.appendColumn("distinct(" + fieldTemp + ")" + fieldAsTemp);
 				break;
 			case HANDLE_EXP:
 				columnName = getAgFunction(cache, tableAliasName, fieldTemp, fieldMap, columnMap);
-				column.add(columnName + fieldAsTemp);
+				emitter.appendColumn(columnName + fieldAsTemp);
 				break;
 			case HANDLE_DATE_FORMAT:
 				if (!fieldMap.containsKey(fieldTemp) && !columnMap.containsKey(fieldTemp)) {
 					throw new HandleException("error: fieldName('" + fieldName + "')  is invalid");
 				} else {
 //					columnName = tableAliasName + fieldTemp;
-//					column.add(columnName + fieldAsTemp);
-					column.add("DATE_FORMAT(" + tableAliasName + fieldTemp + ",'" + obj[3] + "')" + fieldAsTemp);
+//					emitter.appendColumn(columnName + fieldAsTemp);
+					emitter.appendColumn("DATE_FORMAT(" + tableAliasName + fieldTemp + ",'" + field.getPattern() + "')" + fieldAsTemp);
 				}
 				break;
 			default:
@@ -1093,7 +1451,7 @@ public abstract class AbstractSqlHandleMethod {
 					throw new HandleException("error: fieldName('" + fieldName + "')  is invalid");
 				} else {
 					columnName = tableAliasName + fieldTemp;
-					column.add(columnName + fieldAsTemp);
+					emitter.appendColumn(columnName + fieldAsTemp);
 				}
 				break;
 			}
@@ -1108,144 +1466,53 @@ public abstract class AbstractSqlHandleMethod {
 	 * @return
 	 */
 	private String getAgFunction(TableIndexCache cache, String tableAliasName, String fieldName, Map<String, String> fieldMap, Map<String, String> columnMap) {
-		boolean replaceFlag = false;
-		String fieldNameTemp = fieldName;
-		if (fieldName.contains("+")) {
-			fieldName = fieldName.replace("+", "}+{");
-			fieldNameTemp = fieldNameTemp.replace("+", ",");
-			replaceFlag = true;
-		}
-		if (fieldName.contains("-")) {
-			fieldName = fieldName.replace("-", "}-{");
-			fieldNameTemp = fieldNameTemp.replace("-", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("*")) {
-			fieldName = fieldName.replace("*", "}*{");
-			fieldNameTemp = fieldNameTemp.replace("*", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("/")) {
-			fieldName = fieldName.replace("/", "}/{");
-			fieldNameTemp = fieldNameTemp.replace("/", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("(")) {
-			fieldName = fieldName.replace("(", "}({");
-			fieldNameTemp = fieldNameTemp.replace("(", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
+		ColumnExpression expression = ColumnExpression.of(fieldName);
+		if (expression.isSimple()) {
+			return getExpressionField(cache, tableAliasName, expression, 0, fieldMap, columnMap);
 		}
-		if (fieldName.contains(")")) {
-			fieldName = fieldName.replace(")", "}){");
-			fieldNameTemp = fieldNameTemp.replace(")", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains(",")) {
-			fieldName = fieldName.replace(",", "},{");
-//			fieldNameTemp = fieldNameTemp.replace(",", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
+
+		/**
+		 * 先按解析时确定的顺序分配连接表别名，再逐个替换字段
+		 */
+		for (String tableAsNameSerialNumber : expression.getTableAsOrder()) {
+			getTableAsName(cache, tableAsNameSerialNumber);
 		}
-		if (replaceFlag && fieldName.contains(" ")) {
-			fieldName = fieldName.replace(" ", "} {");
-			fieldNameTemp = fieldNameTemp.replace(" ", ",");
+		StringBuilder sql = new StringBuilder(fieldName.length() + 16);
+		for (int i = 0, j = expression.getTokenSize(); i < j; i++) {
+			sql.append(expression.getLiteral(i)).append(getExpressionField(cache, tableAliasName, expression, i, fieldMap, columnMap));
 		}
+		sql.append(expression.getLiteral(expression.getTokenSize()));
+		return expression.isStripBraces() ? sql.toString().replaceAll("[{}]", "") : sql.toString();
+	}
 
-//		fieldName = fieldName.replace(" ", "");
-		if (replaceFlag) {
-			fieldName = "{" + fieldName + "}";
-			String[] fieldNameTempArr = fieldNameTemp.split(",");
-			Map<String, String> fieldNameTempMap = new HashMap<>();
-			Map<String, String> cacheFieldNameTempMap = new HashMap<>();
-			for (String name : fieldNameTempArr) {
-				if (ValidateTool.isEmpty(name)) {
-					continue;
-				}
-				fieldNameTempMap.put(name, name);
-				cacheFieldNameTempMap.put(name, name);
-			}
-
-			for (Map.Entry<String, String> map : fieldNameTempMap.entrySet()) {
-				String field = map.getValue();
-//				String tempField = field.toLowerCase();
-
-				if(field.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
-					// 说明带有自定义别名
-					// #tas_201919999.name
-					String[] fieldArray = field.split("[.]");
-					String tableAsNameSerialNumber = fieldArray[0].substring(fieldArray[0].indexOf("_") + 1);
-					String expFieldName = fieldArray[1];
-					if(columnMap.containsKey(expFieldName)) {
-						fieldName = fieldName.replace("{" + field + "}", getTableAsName(cache, tableAsNameSerialNumber) + "." + columnMap.get(expFieldName));
-					}  else {
-						fieldName = fieldName.replace("{" + field + "}", getTableAsName(cache, tableAsNameSerialNumber) + "." + expFieldName);
-					}
-				} else {
-					// {name}
-					if(fieldMap.containsKey(field)) {
-						fieldName = fieldName.replace("{" + field + "}", tableAliasName + field);
-					} else if (columnMap.containsKey(field)) {
-						fieldName = fieldName.replace("{" + field + "}", tableAliasName + columnMap.get(field));
-					} else {
-						fieldName = fieldName.replace("{" + field + "}", cacheFieldNameTempMap.get(map.getKey()));
-					}
-				}
+	/**
+	 * 获取表达式中字段片段对应的列，带有自定义别名的取连接表的别名，实体字段或数据库列取当前表的别名，其他原样返回
+	 * @param cache
+	 * @param tableAliasName
+	 * @param expression
+	 * @param index
+	 * @param fieldMap
+	 * @param columnMap
+	 * @return
+	 */
+	private String getExpressionField(TableIndexCache cache, String tableAliasName, ColumnExpression expression, int index, Map<String, String> fieldMap, Map<String, String> columnMap) {
+		String[] tableAsToken = expression.getTableAsToken(index);
+		if (tableAsToken != null) {
+			String expFieldName = tableAsToken[1];
+			if(columnMap.containsKey(expFieldName)) {
+				return getTableAsName(cache, tableAsToken[0]) + "." + columnMap.get(expFieldName);
+			} else {
+				return getTableAsName(cache, tableAsToken[0]) + "." + expFieldName;
 			}
+		}
 
-			return fieldName.replaceAll("[{}]", "");
+		String field = expression.getToken(index);
+		if(fieldMap.containsKey(field)) {
+			return tableAliasName + field;
+		} else if (columnMap.containsKey(field)) {
+			return tableAliasName + columnMap.get(field);
 		} else {
-//			String tempFieldName = fieldName.replace(" ", "");
-//			if(tempFieldName.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
-//				String[] fieldArray = tempFieldName.split("[.]");
-//				String tableAsNameSerialNumber = fieldArray[0].substring(fieldArray[0].indexOf("_") + 1);
-//				String expFieldName = fieldArray[1];
-//
-//				if(columnMap.containsKey(expFieldName)) {
-//					return getTableAsName(cache, tableAsNameSerialNumber) + "." + columnMap.get(expFieldName);
-//				} else {
-//					return getTableAsName(cache, tableAsNameSerialNumber) + "." + expFieldName;
-//				}
-//			}
-//
-//			if(fieldMap.containsKey(tempFieldName)) {
-//				return tableAliasName + tempFieldName;
-//			} else if (columnMap.containsKey(tempFieldName)) {
-//				return tableAliasName + columnMap.get(tempFieldName);
-//			} else {
-//				return fieldName;
-//			}
-
-
-			if(fieldName.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
-				String[] fieldArray = fieldName.split("[.]");
-				String tableAsNameSerialNumber = fieldArray[0].substring(fieldArray[0].indexOf("_") + 1);
-				String expFieldName = fieldArray[1];
-
-				if(columnMap.containsKey(expFieldName)) {
-					return getTableAsName(cache, tableAsNameSerialNumber) + "." + columnMap.get(expFieldName);
-				} else {
-					return getTableAsName(cache, tableAsNameSerialNumber) + "." + expFieldName;
-				}
-			}
-
-			if(fieldMap.containsKey(fieldName)) {
-				return tableAliasName + fieldName;
-			} else if (columnMap.containsKey(fieldName)) {
-				return tableAliasName + columnMap.get(fieldName);
-			} else {
-				return fieldName;
-			}
+			return field;
 		}
 	}
 
@@ -1327,93 +1594,95 @@ public abstract class AbstractSqlHandleMethod {
 	 */
 	public void getQueryPageSql(Map<String, Object> providers, String tableName) {
 
-		SQL sql = new SQL();
 		QueryProviderHandle queryProvider = (QueryProviderHandle) providers.get(SqlConstant.PROVIDER_OBJ);
-		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		TableIndexCache cache = new TableIndexCache();
-		String tableAliasName = this.getTableAsName(cache, queryProvider.getTableAsNameSerialNumber());
-		List<String> column = new ArrayList<>();
-		getSelectFieldColumns(queryProvider, cache, tableAliasName, columnMap, fieldMap, column);
-		Map<String, Object> value = new HashMap<>();
+		if (queryProvider.getTemplateBinding() == null) {
+			this.getQueryPageSql(providers, queryProvider, new HashMap<>(), tableName);
+			return;
+		}
 
-		// 构造 group by 语句
-		List<String> groups = new ArrayList<>();
-		StringBuffer havingFilterSql = new StringBuffer();
-		// 构造order by 语句
-		List<String> orders = new ArrayList<>();
-		StringBuffer leftJoinFilterSql = new StringBuffer();
-		String fromTable = tableName + " " + tableAliasName + getLeftJoinTable(cache, tableAliasName, queryProvider.getLeftJoinProviderArray(), value, INDEX_DEFAULT + "_cl", leftJoinFilterSql, column, groups, havingFilterSql, orders, fieldMap, columnMap, true);
-		sql.SELECT(String.join(",", column));
-		sql.FROM(fromTable);
-		// 分页的语句
-		SQL totalSql = new SQL();
-		totalSql.SELECT("count(1)");
-		totalSql.FROM(fromTable);
-
-		this.addGroupBy(cache, groups, tableAliasName, columnMap, queryProvider);
 		/**
-		 * 拼装 having 字句
+		 * 模板查询按编译好的统计语句、查询语句和参数顺序取绑定的值
 		 */
-		this.addHaving(havingFilterSql, queryProvider.getHavingArray(), cache, tableAliasName, INDEX_DEFAULT + "_gh", fieldMap, columnMap, value);
-		this.addOrder(orders, cache, tableAliasName, fieldMap, columnMap, queryProvider.getOrderArray());
-
-		StringBuffer filterSqlBuffer = new StringBuffer();
-		List<Object[]> filters = queryProvider.getFilterArray();
-		if ((filters != null && !filters.isEmpty()) || (queryProvider.getProviderArray() != null && !queryProvider.getProviderArray().isEmpty())) {
-
-			String filterSql = getFilterSql(cache, tableAliasName, filters, queryProvider.getProviderArray(), value,
-					INDEX_DEFAULT + "_t", columnMap, fieldMap, DEFAULT_ALIAS);
-			if(!ValidateTool.isEmpty(filterSql)) {
-				filterSqlBuffer.append(filterSql);
-			}
+		QueryTemplate.Binding binding = queryProvider.getTemplateBinding();
+		String key = binding.getKey(tableName, 'p');
+		QueryTemplate.Compiled compiled = binding.getTemplate().getCompiled(key);
+		if (compiled == null) {
+			QueryTemplate.ValueMap bindValue = new QueryTemplate.ValueMap(binding);
+			Map<String, Object> compileProviders = new HashMap<>();
+			this.getQueryPageSql(compileProviders, queryProvider, bindValue, tableName);
+			compiled = binding.getTemplate().compile(key, (String) compileProviders.get(SqlConstant.PROVIDER_QUERY_SQL),
+					(String) compileProviders.get(SqlConstant.PROVIDER_COUNT_SQL), bindValue);
 		}
-
-		if(!ValidateTool.isEmpty(leftJoinFilterSql.toString())) {
-			if(!ValidateTool.isEmpty(filterSqlBuffer.toString())) {
-				filterSqlBuffer.append(AppendTypeEnum.AND.getJoinTypeName() + leftJoinFilterSql);
-//				filterSql += " and " + leftJoinFilterSql.toString();
-			} else {
-				filterSqlBuffer.append(leftJoinFilterSql);
-//				filterSql = leftJoinFilterSql.toString();
-			}
+		Map<String, Object> value = compiled.bind(binding);
+		if (!value.isEmpty()) {
+			providers.put(SqlConstant.PROVIDER_FILTER, value);
 		}
-//		if (!ValidateTool.isEmpty(filterSql)) {
-//			sql.WHERE(filterSql);
-//			totalSql.WHERE(filterSql);
-//		}
+		providers.put(SqlConstant.PROVIDER_COUNT_SQL, compiled.getCountSql());
+		providers.put(SqlConstant.PROVIDER_QUERY_SQL, compiled.getSql());
+	}
 
-		if(!ValidateTool.isEmpty(filterSqlBuffer.toString())) {
-			sql.WHERE(filterSqlBuffer.toString());
-			totalSql.WHERE(filterSqlBuffer.toString());
-		}
+	/**
+	 * 构建分页查询的统计语句和查询语句，条件值放入 value
+	 * @param providers
+	 * @param queryProvider
+	 * @param value
+	 * @param tableName
+	 */
+	private void getQueryPageSql(Map<String, Object> providers, QueryProviderHandle queryProvider, Map<String, Object> value, String tableName) {
 
-		if(!value.isEmpty()) {
-			// 放入值到map
-			providers.put(SqlConstant.PROVIDER_FILTER, value);
-		}
+		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
+		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
+		TableIndexCache cache = new TableIndexCache();
+		String tableAliasName = this.getTableAsName(cache, queryProvider.getTableAsNameSerialNumber());
 
-		if (!groups.isEmpty()) {
-			sql.GROUP_BY(groups.toArray(new String[groups.size()]));
-			totalSql.GROUP_BY(groups.toArray(new String[groups.size()]));
-		}
+		SqlEmitter emitter = SqlEmitter.acquire();
+		try {
+			getSelectFieldColumns(queryProvider, cache, tableAliasName, columnMap, fieldMap, emitter);
+			emitter.from.append(tableName).append(' ').append(tableAliasName);
+			getLeftJoinTable(cache, tableAliasName, queryProvider.getLeftJoinProviderArray(), value, INDEX_DEFAULT + "_cl", emitter, emitter.from, true, fieldMap, columnMap, true);
 
-		if(!ValidateTool.isEmpty(havingFilterSql.toString())) {
-			sql.HAVING(havingFilterSql.toString());
-			totalSql.HAVING(havingFilterSql.toString());
-		}
+			// 构造 group by 语句
+			this.addGroupBy(cache, emitter, tableAliasName, columnMap, queryProvider);
+			/**
+			 * 拼装 having 字句
+			 */
+			this.addHaving(emitter, queryProvider.getHavingArray(), cache, tableAliasName, INDEX_DEFAULT + "_gh", fieldMap, columnMap, value);
+			// 构造order by 语句
+			this.addOrder(emitter, cache, tableAliasName, fieldMap, columnMap, queryProvider.getOrderArray());
+
+			List<FilterNode> filters = queryProvider.getFilterArray();
+			if ((filters != null && !filters.isEmpty()) || (queryProvider.getProviderArray() != null && !queryProvider.getProviderArray().isEmpty())) {
+				getFilterSql(emitter.where, cache, tableAliasName, filters, queryProvider.getProviderArray(), value,
+						INDEX_DEFAULT + "_t", columnMap, fieldMap, DEFAULT_ALIAS);
+			}
+			emitter.mergeJoinWhere();
 
-		if (!orders.isEmpty()) {
-			sql.ORDER_BY(orders.toArray(new String[orders.size()]));
-		}
+			if(!value.isEmpty()) {
+				// 放入值到map
+				providers.put(SqlConstant.PROVIDER_FILTER, value);
+			}
 
-		if (groups != null && !groups.isEmpty()) {
-			providers.put(SqlConstant.PROVIDER_COUNT_SQL, "select count(1) from (" + totalSql.toString() + ") s");
-		} else {
-			providers.put(SqlConstant.PROVIDER_COUNT_SQL, totalSql.toString());
+			// 分页的语句，与查询语句共用 from、where、group by 和 having 子句
+			StringBuilder sql = emitter.sql;
+			if (emitter.isDistinctCount()) {
+				emitter.emitDistinctCount(sql);
+			} else if (emitter.group.length() > 0) {
+				sql.append("select count(1) from (");
+				emitter.emitCount(sql);
+				sql.append(") s");
+			} else {
+				emitter.emitCount(sql);
+			}
+			providers.put(SqlConstant.PROVIDER_COUNT_SQL, sql.toString());
+
+			sql.setLength(0);
+			emitter.emitSelect(sql);
+			String querySql = sql.toString();
+			SqlShapeStats.record(tableName, querySql);
+			providers.put(SqlConstant.PROVIDER_QUERY_SQL, querySql);
+		} finally {
+			emitter.release();
 		}
-
-		providers.put(SqlConstant.PROVIDER_QUERY_SQL, sql.toString());
 	}
 
 	/**
@@ -1450,6 +1719,22 @@ public abstract class AbstractSqlHandleMethod {
 	 */
 	abstract protected String appendPageSql(String sql, int pageNumber, int pageSize);
 
+	/**
+	 * 获取 DateFormat 条件值对应时间范围的起始时间，格式不是连续的时间范围时返回 null
+	 * @param expression   条件值表达式
+	 * @param pattern      时间格式
+	 * @return String
+	 */
+	abstract protected String getDateRangeStartSql(String expression, String pattern);
+
+	/**
+	 * 获取 DateFormat 条件值对应时间范围的结束时间(不包含)，格式不是连续的时间范围时返回 null
+	 * @param expression   条件值表达式
+	 * @param pattern      时间格式
+	 * @return String
+	 */
+	abstract protected String getDateRangeEndSql(String expression, String pattern);
+
 	/**
 	 * 得到分页信息
 	 * @param pageNumber
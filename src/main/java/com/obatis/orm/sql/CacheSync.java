@@ -0,0 +1,167 @@
+package com.obatis.orm.sql;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多节点缓存一致性入口，设置 CacheSyncBus 后，通过 SqlHandleFactory 写入数据时发布失效事件，
+ * 存在事务时在事务提交后发布，收到事件后移除本节点的查询结果缓存和实体缓存，默认不设置。
+ * 失效事件只移除缓存，不写入数据，迟到或乱序的事件最多造成多余的未命中，不会使旧数据重新进入缓存；
+ * 处理事件时递增表的版本号，处理前开始、处理后完成的查询结果不放入缓存。
+ * 版本号按节点单调递增，版本号不大于该节点已处理的最大版本号的事件计为迟到事件
+ * @author HuangLongPu
+ */
+public class CacheSync {
+
+	private static final String NODE_ID = UUID.randomUUID().toString();
+	/**
+	 * 以启动时间作为初始值，节点重启后版本号仍大于重启前的版本号
+	 */
+	private static final AtomicLong VERSION = new AtomicLong(System.currentTimeMillis() * 1000);
+	/**
+	 * key 为节点标识，value 为已处理的最大版本号
+	 */
+	private static final Map<String, Long> NODE_VERSIONS = new ConcurrentHashMap<>();
+	private static final LongAdder PUBLISH_COUNT = new LongAdder();
+	private static final LongAdder RECEIVE_COUNT = new LongAdder();
+	private static final LongAdder LATE_COUNT = new LongAdder();
+
+	private static volatile CacheSyncBus bus;
+
+	private CacheSync() {
+
+	}
+
+	/**
+	 * 设置失效事件的广播通道，关闭已设置的通道，为 null 时不再发布和接收事件
+	 * @param bus
+	 */
+	public static synchronized void setBus(CacheSyncBus bus) {
+		CacheSyncBus old = CacheSync.bus;
+		CacheSync.bus = null;
+		if (old != null) {
+			old.close();
+		}
+		if (bus != null) {
+			bus.start(CacheSync::apply);
+		}
+		CacheSync.bus = bus;
+	}
+
+	public static CacheSyncBus getBus() {
+		return bus;
+	}
+
+	/**
+	 * 本节点的标识，每次启动随机生成
+	 * @return
+	 */
+	public static String getNodeId() {
+		return NODE_ID;
+	}
+
+	/**
+	 * 发布表的失效事件，未设置通道时不处理，存在事务时在事务提交后发布
+	 * @param tableName
+	 * @param ids  实体缓存中需要移除的 id，为 null 时清空表的实体缓存
+	 */
+	protected static void publish(String tableName, Collection<?> ids) {
+		if (bus == null) {
+			return;
+		}
+		List<String> idList = null;
+		if (ids != null) {
+			idList = new ArrayList<>(ids.size());
+			for (Object id : ids) {
+				idList.add(String.valueOf(id));
+			}
+		}
+		List<String> eventIds = idList;
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status != TransactionSynchronization.STATUS_ROLLED_BACK) {
+						send(tableName, eventIds);
+					}
+				}
+			});
+		} else {
+			send(tableName, eventIds);
+		}
+	}
+
+	private static void send(String tableName, List<String> ids) {
+		CacheSyncBus current = bus;
+		if (current == null) {
+			return;
+		}
+		try {
+			current.publish(new CacheSyncEvent(NODE_ID, VERSION.incrementAndGet(), tableName, ids));
+			PUBLISH_COUNT.increment();
+		} catch (RuntimeException e) {
+			/**
+			 * 写入操作已完成，发布失败时只打印异常，其他节点的缓存在过期后恢复一致
+			 */
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * 处理收到的失效事件，移除表的查询结果缓存以及实体缓存中对应的记录
+	 * @param event
+	 */
+	public static void apply(CacheSyncEvent event) {
+		RECEIVE_COUNT.increment();
+		Long lastVersion = NODE_VERSIONS.get(event.getNodeId());
+		NODE_VERSIONS.merge(event.getNodeId(), event.getVersion(), Math::max);
+		if (lastVersion != null && event.getVersion() <= lastVersion) {
+			LATE_COUNT.increment();
+		}
+
+		QueryResultCache.remove(event.getTableName());
+		EntityCache cache = EntityCache.getCache(event.getTableName());
+		if (cache == null) {
+			return;
+		}
+		if (event.getIds() == null) {
+			cache.invalidateAll();
+		} else if (!event.getIds().isEmpty()) {
+			cache.removeAll(event.getIds());
+		}
+	}
+
+	/**
+	 * 已发布的事件个数
+	 * @return
+	 */
+	public static long getPublishCount() {
+		return PUBLISH_COUNT.sum();
+	}
+
+	/**
+	 * 已处理的事件个数
+	 * @return
+	 */
+	public static long getReceiveCount() {
+		return RECEIVE_COUNT.sum();
+	}
+
+	/**
+	 * 迟到或乱序的事件个数，这些事件同样会处理
+	 * @return
+	 */
+	public static long getLateCount() {
+		return LATE_COUNT.sum();
+	}
+}
@@ -0,0 +1,28 @@
+package com.obatis.orm.sql;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效事件的广播通道，多个节点部署时通过 CacheSync.setBus 设置，
+ * 写入数据后发布失效事件，收到其他节点的事件后移除本节点对应的缓存
+ * @author HuangLongPu
+ */
+public interface CacheSyncBus {
+
+	/**
+	 * 开始接收事件，收到的事件交给 receiver 处理，由 CacheSync 设置通道时调用一次
+	 * @param receiver
+	 */
+	void start(Consumer<CacheSyncEvent> receiver);
+
+	/**
+	 * 发布事件，发送失败不影响已完成的写入操作
+	 * @param event
+	 */
+	void publish(CacheSyncEvent event);
+
+	/**
+	 * 停止接收事件并释放资源
+	 */
+	void close();
+}
@@ -0,0 +1,136 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 缓存失效事件，由写入数据的节点发布，其他节点收到后移除表的查询结果缓存，以及实体缓存中对应 id 的记录。
+ * ids 为 null 时清空表的实体缓存，为空集合时只移除查询结果缓存。
+ * version 为发布节点单调递增的版本号，同一节点的事件按版本号排序
+ * @author HuangLongPu
+ */
+public final class CacheSyncEvent {
+
+	private static final String FORMAT_VERSION = "v1";
+	private static final String SEPARATOR = "|";
+	private static final String ID_SEPARATOR = ",";
+	private static final String ALL_IDS = "*";
+	private static final String CHARSET = "UTF-8";
+
+	private final String nodeId;
+	private final long version;
+	private final String tableName;
+	private final List<String> ids;
+
+	public CacheSyncEvent(String nodeId, long version, String tableName, Collection<String> ids) {
+		if (nodeId == null || tableName == null) {
+			throw new IllegalArgumentException("nodeId or tableName is null");
+		}
+		this.nodeId = nodeId;
+		this.version = version;
+		this.tableName = tableName;
+		this.ids = ids == null ? null : Collections.unmodifiableList(new ArrayList<>(ids));
+	}
+
+	/**
+	 * 发布事件的节点标识
+	 * @return
+	 */
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * 实体缓存中需要移除的 id，为 null 时清空表的实体缓存
+	 * @return
+	 */
+	public List<String> getIds() {
+		return ids;
+	}
+
+	/**
+	 * 编码为文本，格式为 v1|节点标识|版本号|表名|id,id，表名和 id 经过 URL 编码，* 也编码，清空实体缓存时 id 部分为 *
+	 * @return
+	 */
+	public String encode() {
+		StringBuilder text = new StringBuilder(64);
+		text.append(FORMAT_VERSION).append(SEPARATOR).append(encodeText(nodeId)).append(SEPARATOR).append(version)
+				.append(SEPARATOR).append(encodeText(tableName)).append(SEPARATOR);
+		if (ids == null) {
+			text.append(ALL_IDS);
+		} else {
+			for (int i = 0, j = ids.size(); i < j; i++) {
+				if (i > 0) {
+					text.append(ID_SEPARATOR);
+				}
+				text.append(encodeText(ids.get(i)));
+			}
+		}
+		return text.toString();
+	}
+
+	/**
+	 * 从文本解码，格式不正确时抛出 HandleException
+	 * @param text
+	 * @return
+	 */
+	public static CacheSyncEvent decode(String text) {
+		String[] parts = text.split("\\" + SEPARATOR, -1);
+		if (parts.length != 5 || !FORMAT_VERSION.equals(parts[0])) {
+			throw new HandleException("error: cache sync event<" + text + "> is invalid");
+		}
+		long version;
+		try {
+			version = Long.parseLong(parts[2]);
+		} catch (NumberFormatException e) {
+			throw new HandleException("error: cache sync event<" + text + "> is invalid");
+		}
+		List<String> ids = null;
+		if (!ALL_IDS.equals(parts[4])) {
+			ids = new ArrayList<>();
+			if (!parts[4].isEmpty()) {
+				for (String id : parts[4].split(ID_SEPARATOR, -1)) {
+					ids.add(decodeText(id));
+				}
+			}
+		}
+		return new CacheSyncEvent(decodeText(parts[1]), version, decodeText(parts[3]), ids);
+	}
+
+	private static String encodeText(String value) {
+		try {
+			// URLEncoder 不编码 *，编码后与清空实体缓存的标识区分
+			return URLEncoder.encode(value, CHARSET).replace(ALL_IDS, "%2A");
+		} catch (UnsupportedEncodingException e) {
+			throw new HandleException("error: " + e.getMessage());
+		}
+	}
+
+	private static String decodeText(String value) {
+		try {
+			return URLDecoder.decode(value, CHARSET);
+		} catch (UnsupportedEncodingException e) {
+			throw new HandleException("error: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CacheSyncEvent{nodeId=" + nodeId + ", version=" + version + ", tableName=" + tableName + ", ids=" + ids + "}";
+	}
+}
@@ -0,0 +1,188 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.CacheInfoConstant;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字段表达式，按运算符、括号、逗号和空格拆分为字段片段与分隔片段，解析一次后缓存，拼接 SQL 时只需按表替换字段片段。
+ * 不含运算符、括号和逗号的表达式作为单个字段处理。
+ * 解析结果与表无关，不同表的相同表达式共用缓存
+ * @author HuangLongPu
+ */
+final class ColumnExpression {
+
+	/**
+	 * 缓存表达式的最大个数，超过后不再缓存，每次重新解析
+	 */
+	private static final int MAX_CACHE_SIZE = 4096;
+	private static final Map<String, ColumnExpression> EXPRESSION_CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 * 分隔片段，literals[i] 拼接在 tokens[i] 之前，最后一个拼接在末尾
+	 */
+	private final String[] literals;
+	/**
+	 * 字段片段
+	 */
+	private final String[] tokens;
+	/**
+	 * 字段片段为 #as_ 连接表字段时，依次为别名序列号和字段名，否则为 null
+	 */
+	private final String[][] tableAsTokens;
+	/**
+	 * 需要预先分配别名的连接表序列号，顺序与逐个替换字段时分配别名的顺序一致
+	 */
+	private final String[] tableAsOrder;
+	/**
+	 * 表达式中含有 { 或 } 时，拼接后移除
+	 */
+	private final boolean stripBraces;
+
+	private ColumnExpression(List<String> literals, List<String> tokens, String[] tableAsOrder, boolean stripBraces) {
+		this.literals = literals.toArray(new String[0]);
+		this.tokens = tokens.toArray(new String[0]);
+		this.tableAsTokens = new String[this.tokens.length][];
+		for (int i = 0; i < this.tokens.length; i++) {
+			this.tableAsTokens[i] = splitTableAs(this.tokens[i]);
+		}
+		this.tableAsOrder = tableAsOrder;
+		this.stripBraces = stripBraces;
+	}
+
+	/**
+	 * 获取解析后的表达式
+	 * @param expression
+	 * @return
+	 */
+	static ColumnExpression of(String expression) {
+		ColumnExpression columnExpression = EXPRESSION_CACHE.get(expression);
+		if (columnExpression == null) {
+			columnExpression = parse(expression);
+			if (EXPRESSION_CACHE.size() < MAX_CACHE_SIZE) {
+				EXPRESSION_CACHE.put(expression, columnExpression);
+			}
+		}
+		return columnExpression;
+	}
+
+	private static ColumnExpression parse(String expression) {
+		List<String> literals = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		if (!isExpression(expression)) {
+			literals.add("");
+			literals.add("");
+			tokens.add(expression);
+			return new ColumnExpression(literals, tokens, null, false);
+		}
+
+		int literalStart = 0;
+		int i = 0;
+		int length = expression.length();
+		while (i < length) {
+			if (isSeparator(expression.charAt(i))) {
+				i++;
+				continue;
+			}
+			int tokenStart = i;
+			while (i < length && !isSeparator(expression.charAt(i))) {
+				i++;
+			}
+			literals.add(expression.substring(literalStart, tokenStart));
+			tokens.add(expression.substring(tokenStart, i));
+			literalStart = i;
+		}
+		literals.add(expression.substring(literalStart));
+
+		/**
+		 * 按 HashMap 的遍历顺序分配连接表别名，与逐个替换字段时的分配顺序保持一致
+		 */
+		Map<String, String> tokenMap = new HashMap<>();
+		for (String token : tokens) {
+			tokenMap.put(token, token);
+		}
+		List<String> tableAsOrder = new ArrayList<>();
+		for (String token : tokenMap.keySet()) {
+			String[] tableAs = splitTableAs(token);
+			if (tableAs != null) {
+				tableAsOrder.add(tableAs[0]);
+			}
+		}
+		return new ColumnExpression(literals, tokens, tableAsOrder.toArray(new String[0]), expression.indexOf('{') >= 0 || expression.indexOf('}') >= 0);
+	}
+
+	/**
+	 * 是否为含有运算符、括号或逗号的表达式
+	 * @param expression
+	 * @return
+	 */
+	private static boolean isExpression(String expression) {
+		for (int i = 0, j = expression.length(); i < j; i++) {
+			char c = expression.charAt(i);
+			if (c != ' ' && isSeparator(c)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isSeparator(char c) {
+		switch (c) {
+			case '+':
+			case '-':
+			case '*':
+			case '/':
+			case '(':
+			case ')':
+			case ',':
+			case ' ':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private static String[] splitTableAs(String token) {
+		if (!token.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
+			return null;
+		}
+		String[] fieldArray = token.split("[.]");
+		return new String[] {fieldArray[0].substring(fieldArray[0].indexOf("_") + 1), fieldArray[1]};
+	}
+
+	int getTokenSize() {
+		return tokens.length;
+	}
+
+	String getLiteral(int index) {
+		return literals[index];
+	}
+
+	String getToken(int index) {
+		return tokens[index];
+	}
+
+	String[] getTableAsToken(int index) {
+		return tableAsTokens[index];
+	}
+
+	String[] getTableAsOrder() {
+		return tableAsOrder;
+	}
+
+	boolean isStripBraces() {
+		return stripBraces;
+	}
+
+	/**
+	 * 是否为单个字段
+	 * @return
+	 */
+	boolean isSimple() {
+		return tableAsOrder == null;
+	}
+}
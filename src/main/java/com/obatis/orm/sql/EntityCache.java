@@ -0,0 +1,333 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+import com.obatis.orm.constant.type.FilterEnum;
+import com.obatis.orm.convert.BeanCacheConvert;
+import com.obatis.orm.convert.EntityMetadata;
+import com.obatis.orm.model.CommonField;
+import com.obatis.orm.model.TableCacheInfo;
+import com.obatis.orm.provider.condition.handle.ConditionProviderHandle;
+import com.obatis.orm.provider.node.FilterNode;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实体缓存，按表缓存 findById 查询的实体，key 为 id，超过缓存时间或最大条数时移除。
+ * 通过实体的 @TableCache 注解或 register 方法开启，同一 SqlHandleFactory 的增删改操作会移除受影响的记录，
+ * 无法确定受影响的 id 时清空整张表的缓存。存入和取出时均复制实体，调用方修改返回的实体不影响缓存。
+ * 每次移除记录时递增版本号，加载期间版本号发生变化的结果不再放入缓存，避免并发更新时缓存旧数据
+ * @author HuangLongPu
+ */
+public class EntityCache {
+
+	private static final Map<String, EntityCache> CACHE_MAP = new ConcurrentHashMap<>();
+
+	private final String tableName;
+	private final int maxSize;
+	private final long ttlMillis;
+	private final AtomicLong version = new AtomicLong();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadCount = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder expireCount = new LongAdder();
+	/**
+	 * 按访问顺序排列，超过最大条数时淘汰最久未访问的记录，读写均需加锁
+	 */
+	private final Map<String, Entry> entries;
+
+	private EntityCache(String tableName, int maxSize, long ttlMillis) {
+		this.tableName = tableName;
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if (size() > EntityCache.this.maxSize) {
+					evictionCount.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * 开启表的实体缓存，已开启的替换为新的配置并清空已缓存的记录
+	 * @param tableName
+	 * @param maxSize    最多缓存的记录条数
+	 * @param ttlMillis  缓存时间，单位毫秒
+	 */
+	public static void register(String tableName, int maxSize, long ttlMillis) {
+		if (tableName == null || tableName.isEmpty()) {
+			throw new IllegalArgumentException("tableName is empty");
+		}
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be greater than 0");
+		}
+		if (ttlMillis <= 0) {
+			throw new IllegalArgumentException("ttlMillis must be greater than 0");
+		}
+		CACHE_MAP.put(tableName, new EntityCache(tableName, maxSize, ttlMillis));
+	}
+
+	/**
+	 * 关闭表的实体缓存
+	 * @param tableName
+	 */
+	public static void unregister(String tableName) {
+		CACHE_MAP.remove(tableName);
+	}
+
+	public static boolean isRegistered(String tableName) {
+		return CACHE_MAP.containsKey(tableName);
+	}
+
+	/**
+	 * 获取表的实体缓存，未开启返回 null
+	 * @param tableName
+	 * @return
+	 */
+	protected static EntityCache getCache(String tableName) {
+		return tableName == null ? null : CACHE_MAP.get(tableName);
+	}
+
+	/**
+	 * 获取表的缓存统计信息，未开启返回 null
+	 * @param tableName
+	 * @return
+	 */
+	public static TableCacheInfo getInfo(String tableName) {
+		EntityCache cache = getCache(tableName);
+		return cache == null ? null : cache.getInfo();
+	}
+
+	/**
+	 * 获取所有开启缓存的表的统计信息，key 为表名
+	 * @return
+	 */
+	public static Map<String, TableCacheInfo> getInfos() {
+		Map<String, TableCacheInfo> infos = new TreeMap<>();
+		for (EntityCache cache : CACHE_MAP.values()) {
+			infos.put(cache.tableName, cache.getInfo());
+		}
+		return Collections.unmodifiableMap(infos);
+	}
+
+	/**
+	 * 清空表缓存的记录，保留统计信息
+	 * @param tableName
+	 */
+	public static void clear(String tableName) {
+		EntityCache cache = getCache(tableName);
+		if (cache != null) {
+			cache.invalidateAll();
+		}
+	}
+
+	private TableCacheInfo getInfo() {
+		int size;
+		synchronized (entries) {
+			size = entries.size();
+		}
+		return new TableCacheInfo(tableName, size, hitCount.sum(), missCount.sum(), loadCount.sum(), loadNanos.sum(), evictionCount.sum(), expireCount.sum());
+	}
+
+	/**
+	 * 获取缓存的实体副本，不存在或已过期返回 null
+	 * @param id
+	 * @return
+	 */
+	protected Object get(Object id) {
+		String key = String.valueOf(id);
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null && entry.expireTime < System.currentTimeMillis()) {
+				entries.remove(key);
+				expireCount.increment();
+				entry = null;
+			}
+		}
+		if (entry == null) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		return copy(entry.entity);
+	}
+
+	/**
+	 * 获取当前版本号，从数据库加载前获取，放入缓存时校验
+	 * @return
+	 */
+	protected long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * 放入从数据库加载的实体，加载期间有记录被移除时不放入，实体为 null 时只记录加载次数
+	 * @param id
+	 * @param entity
+	 * @param loadVersion  加载前获取的版本号
+	 * @param costNanos    加载耗时，单位纳秒
+	 */
+	protected void put(Object id, Object entity, long loadVersion, long costNanos) {
+		loadCount.increment();
+		loadNanos.add(costNanos);
+		if (entity == null) {
+			return;
+		}
+		Entry entry = new Entry(copy(entity), System.currentTimeMillis() + ttlMillis);
+		synchronized (entries) {
+			if (version.get() == loadVersion) {
+				entries.put(String.valueOf(id), entry);
+			}
+		}
+	}
+
+	/**
+	 * 移除指定 id 的记录，存在事务时在事务结束后再移除一次，避免事务提交前其他线程加载到旧数据并放入缓存
+	 * @param ids
+	 */
+	protected void invalidate(Collection<?> ids) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		removeAll(ids);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					removeAll(ids);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 移除更新或删除条件影响的记录，ids 为 getFilterIds 获取的 id，为 null 时清空整张表
+	 * @param ids
+	 */
+	protected void invalidateFilter(Set<String> ids) {
+		if (ids != null) {
+			invalidate(ids);
+			return;
+		}
+		invalidateAll();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					invalidateAll();
+				}
+			});
+		}
+	}
+
+	/**
+	 * 获取更新或删除条件影响的 id，条件中以 and 连接 id 的 = 或 in 条件时只影响对应的 id，
+	 * 任意一个条件无法确定受影响的 id 时返回 null
+	 * @param providers
+	 * @return
+	 */
+	protected static Set<String> getFilterIds(List<? extends ConditionProviderHandle> providers) {
+		Set<String> ids = new LinkedHashSet<>();
+		for (ConditionProviderHandle provider : providers) {
+			Set<String> filterIds = getFilterIds(provider);
+			if (filterIds == null) {
+				return null;
+			}
+			ids.addAll(filterIds);
+		}
+		return ids;
+	}
+
+	/**
+	 * 移除指定 id 的记录并递增版本号，不处理事务
+	 * @param ids
+	 */
+	protected void removeAll(Collection<?> ids) {
+		synchronized (entries) {
+			version.incrementAndGet();
+			for (Object id : ids) {
+				entries.remove(String.valueOf(id));
+			}
+		}
+	}
+
+	/**
+	 * 清空缓存的记录并递增版本号，不处理事务
+	 */
+	protected void invalidateAll() {
+		synchronized (entries) {
+			version.incrementAndGet();
+			entries.clear();
+		}
+	}
+
+	/**
+	 * 获取条件限定的 id，第一层条件全部以 and 连接且包含 id 的 = 或 in 条件时，受影响的记录只可能是这些 id，否则返回 null
+	 * @param provider
+	 * @return
+	 */
+	private static Set<String> getFilterIds(ConditionProviderHandle provider) {
+		if (provider.getFilterArray() == null || !InFilterChunk.isAndFilter(provider.getFilterArray(), provider.getProviderArray())) {
+			return null;
+		}
+		for (FilterNode filter : provider.getFilterArray()) {
+			if (!CommonField.FIELD_ID.equals(filter.getName()) || filter.getValue() == null) {
+				continue;
+			}
+			if (FilterEnum.EQUAL == filter.getFilterType()) {
+				return Collections.singleton(String.valueOf(filter.getValue()));
+			} else if (FilterEnum.IN == filter.getFilterType()) {
+				Set<String> ids = new LinkedHashSet<>();
+				for (Object id : AbstractSqlHandleMethod.getInFilterValues(filter.getValue())) {
+					ids.add(String.valueOf(id));
+				}
+				return ids;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 按实体元数据复制实体的字段值
+	 * @param entity
+	 * @return
+	 */
+	private Object copy(Object entity) {
+		EntityMetadata metadata = BeanCacheConvert.getEntityMetadata(tableName);
+		if (metadata == null) {
+			throw new HandleException("error: table(" + tableName + ") is not loaded");
+		}
+		return metadata.getAccessor().copy(entity);
+	}
+
+	private static final class Entry {
+
+		private final Object entity;
+		private final long expireTime;
+
+		private Entry(Object entity, long expireTime) {
+			this.entity = entity;
+			this.expireTime = expireTime;
+		}
+	}
+}
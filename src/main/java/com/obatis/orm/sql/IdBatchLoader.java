@@ -0,0 +1,253 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * findById 批量加载，按表开启，默认不开启。开启后同一时间窗口内到达的 findById 调用收集为一批，
+ * 等待时间达到窗口时长或 id 个数达到上限时，以一条 where id in (...) 语句查询，结果按 id 分发给各调用方，不存在的 id 返回 null。
+ * 批次中第一个到达的调用方在有其他 load 调用进行中时等待窗口结束，否则不等待，之后在本线程执行查询，id 个数达到上限时由最后加入的调用方立即执行；
+ * 同一批次中相同 id 的调用方获得同一个对象，应当作只读数据使用
+ * @author HuangLongPu
+ */
+public class IdBatchLoader {
+
+	/**
+	 * 默认收集窗口时长，单位毫秒
+	 */
+	public static final long DEFAULT_WINDOW_MILLIS = 2;
+	/**
+	 * 默认每批最多的 id 个数
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	/**
+	 * key 为表名，value 为 {窗口时长, 每批最多的 id 个数}
+	 */
+	private static final Map<String, long[]> TABLE_CONFIGS = new ConcurrentHashMap<>();
+
+	private final String tableName;
+	/**
+	 * 按 id 集合查询，返回查询到的记录
+	 */
+	private final Function<List<Object>, List<?>> query;
+	/**
+	 * 从记录中获取 id
+	 */
+	private final Function<Object, Object> idGetter;
+	/**
+	 * 进行中的 load 调用个数，只有当前调用时批次不等待窗口
+	 */
+	private final AtomicInteger loading = new AtomicInteger();
+	private Batch current;
+
+	protected IdBatchLoader(String tableName, Function<List<Object>, List<?>> query, Function<Object, Object> idGetter) {
+		this.tableName = tableName;
+		this.query = query;
+		this.idGetter = idGetter;
+	}
+
+	/**
+	 * 开启表的 findById 批量加载，使用默认的窗口时长和每批 id 个数。
+	 * 有并发的 findById 时，每次调用最多增加一个窗口时长的延迟
+	 * @param tableName
+	 */
+	public static void enable(String tableName) {
+		enable(tableName, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+	/**
+	 * 开启表的 findById 批量加载。批次中第一个到达的调用方在有其他 load 调用进行中时等待窗口结束，
+	 * 每次调用最多增加 windowMillis 的延迟；没有并发调用时直接查询，不增加延迟
+	 * @param tableName
+	 * @param windowMillis   收集窗口时长，单位毫秒，为 0 时只合并查询执行前同时到达的调用
+	 * @param maxBatchSize   每批最多的 id 个数
+	 */
+	public static void enable(String tableName, long windowMillis, int maxBatchSize) {
+		if (tableName == null || tableName.isEmpty()) {
+			throw new IllegalArgumentException("tableName is empty");
+		}
+		if (windowMillis < 0) {
+			throw new IllegalArgumentException("windowMillis must not be negative");
+		}
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be positive");
+		}
+		TABLE_CONFIGS.put(tableName, new long[] {windowMillis, maxBatchSize});
+	}
+
+	public static void disable(String tableName) {
+		TABLE_CONFIGS.remove(tableName);
+	}
+
+	public static boolean isEnabled(String tableName) {
+		return !TABLE_CONFIGS.isEmpty() && TABLE_CONFIGS.containsKey(tableName);
+	}
+
+	/**
+	 * 加入当前批次并等待结果，表未开启批量加载时直接按单个 id 查询
+	 * @param id
+	 * @return
+	 */
+	protected Object load(Object id) {
+		long[] config = TABLE_CONFIGS.get(tableName);
+		if (config == null) {
+			return this.execute(new Batch(id)).get(String.valueOf(id));
+		}
+
+		loading.incrementAndGet();
+		try {
+			Batch batch;
+			boolean leader;
+			boolean full;
+			CompletableFuture<Object> future;
+			synchronized (this) {
+				leader = current == null;
+				if (leader) {
+					current = new Batch();
+				}
+				batch = current;
+				future = batch.add(id);
+				full = batch.futures.size() >= config[1];
+				if (full) {
+					current = null;
+				}
+			}
+
+			if (full) {
+				this.run(batch);
+			} else if (leader) {
+				if (loading.get() > 1) {
+					batch.await(config[0]);
+				}
+				if (this.close(batch)) {
+					this.run(batch);
+				}
+			}
+			return await(future);
+		} finally {
+			loading.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 结束收集，批次已被其他调用方结束时返回 false
+	 * @param batch
+	 * @return
+	 */
+	private synchronized boolean close(Batch batch) {
+		if (current != batch) {
+			return false;
+		}
+		current = null;
+		return true;
+	}
+
+	/**
+	 * 执行批次查询并分发结果，查询失败时批次中的调用方都抛出同样的异常
+	 * @param batch
+	 */
+	private void run(Batch batch) {
+		batch.signal();
+		Map<String, Object> rows;
+		try {
+			rows = this.execute(batch);
+		} catch (RuntimeException | Error e) {
+			for (CompletableFuture<Object> future : batch.futures.values()) {
+				future.completeExceptionally(e);
+			}
+			throw e;
+		}
+		for (Map.Entry<String, CompletableFuture<Object>> entry : batch.futures.entrySet()) {
+			entry.getValue().complete(rows.get(entry.getKey()));
+		}
+	}
+
+	private Map<String, Object> execute(Batch batch) {
+		List<?> list = query.apply(batch.ids);
+		Map<String, Object> rows = new HashMap<>();
+		if (list != null) {
+			for (Object row : list) {
+				if (row != null) {
+					rows.put(String.valueOf(idGetter.apply(row)), row);
+				}
+			}
+		}
+		return rows;
+	}
+
+	private static Object await(CompletableFuture<Object> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new HandleException("error: findById batch is interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new HandleException("error: findById batch fail, " + cause.getMessage());
+		}
+	}
+
+	/**
+	 * 一批 id，相同的 id 只查询一次，key 为 id 的字符串形式
+	 */
+	private static final class Batch {
+
+		private final List<Object> ids = new ArrayList<>();
+		private final Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+		private boolean closed;
+
+		private Batch() {
+
+		}
+
+		private Batch(Object id) {
+			this.add(id);
+		}
+
+		private CompletableFuture<Object> add(Object id) {
+			return futures.computeIfAbsent(String.valueOf(id), key -> {
+				ids.add(id);
+				return new CompletableFuture<>();
+			});
+		}
+
+		/**
+		 * 等待窗口结束，批次提前结束时返回
+		 * @param windowMillis
+		 */
+		private synchronized void await(long windowMillis) {
+			long deadline = System.currentTimeMillis() + windowMillis;
+			long remaining = windowMillis;
+			while (!closed && remaining > 0) {
+				try {
+					this.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				remaining = deadline - System.currentTimeMillis();
+			}
+		}
+
+		private synchronized void signal() {
+			closed = true;
+			this.notifyAll();
+		}
+	}
+}
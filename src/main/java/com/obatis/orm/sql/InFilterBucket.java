@@ -0,0 +1,64 @@
+package com.obatis.orm.sql;
+
+/**
+ * in 查询占位符个数分桶，开启后 in 查询的占位符个数向上取整为 2 的幂，多出的位置重复最后一个值，
+ * 值个数不同的 in 查询生成相同的 SQL 语句，提升 SQL 缓存、mybatis 语句解析缓存和数据库预编译语句缓存的命中率。默认关闭
+ * @author HuangLongPu
+ */
+public class InFilterBucket {
+
+	/**
+	 * 默认最大的分桶大小，超过后按该值的整数倍取整
+	 */
+	public static final int DEFAULT_MAX_BUCKET_SIZE = 1024;
+
+	private static volatile boolean enabled = false;
+	private static volatile int maxBucketSize = DEFAULT_MAX_BUCKET_SIZE;
+
+	private InFilterBucket() {
+
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 开启或关闭 in 查询分桶
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		InFilterBucket.enabled = enabled;
+	}
+
+	public static int getMaxBucketSize() {
+		return maxBucketSize;
+	}
+
+	/**
+	 * 设置最大的分桶大小
+	 * @param maxBucketSize
+	 */
+	public static void setMaxBucketSize(int maxBucketSize) {
+		if (maxBucketSize <= 0) {
+			throw new IllegalArgumentException("error: maxBucketSize must be greater than 0");
+		}
+		InFilterBucket.maxBucketSize = maxBucketSize;
+	}
+
+	/**
+	 * 获取 in 查询的占位符个数，未开启时与值的个数相同
+	 * @param size   in 查询值的个数
+	 * @return
+	 */
+	public static int getBucketSize(int size) {
+		if (!enabled || size <= 1) {
+			return size;
+		}
+		int max = maxBucketSize;
+		if (size > max) {
+			return (int) Math.min(Integer.MAX_VALUE, ((long) size + max - 1) / max * max);
+		}
+		return Math.min(Integer.highestOneBit(size - 1) << 1, max);
+	}
+}
@@ -0,0 +1,319 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.type.AppendTypeEnum;
+import com.obatis.orm.constant.type.FilterEnum;
+import com.obatis.orm.constant.type.InFilterStrategyEnum;
+import com.obatis.orm.constant.type.SqlHandleEnum;
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.provider.node.ColumnNode;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.JoinNode;
+import com.obatis.orm.provider.node.ProviderNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 超大 in 查询拆分执行，开启后 list 查询中 in 查询值的个数超过阈值时，值去重后按 chunkSize 拆分为多条语句执行，结果按批次顺序合并，
+ * 避免单条语句过长超过 max_allowed_packet 以及数据库对超长 in 列表的执行计划退化。
+ * 只有条件全部以 and 连接且不含排序、分组、聚合、limit、union、游标分页的查询才拆分，否则仍按单条语句执行。
+ * 每次命中阈值的查询按执行方式计数，默认关闭
+ * @author HuangLongPu
+ */
+public class InFilterChunk {
+
+	/**
+	 * 默认拆分阈值，in 查询值的个数超过该值时拆分
+	 */
+	public static final int DEFAULT_THRESHOLD = 5000;
+	/**
+	 * 默认每条语句 in 查询值的个数
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private static volatile boolean enabled = false;
+	private static volatile boolean parallel = false;
+	private static volatile int threshold = DEFAULT_THRESHOLD;
+	private static volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	private static final Map<InFilterStrategyEnum, AtomicLong> STRATEGY_COUNT = new EnumMap<>(InFilterStrategyEnum.class);
+	private static final AtomicLong CHUNK_COUNT = new AtomicLong();
+
+	static {
+		for (InFilterStrategyEnum strategy : InFilterStrategyEnum.values()) {
+			STRATEGY_COUNT.put(strategy, new AtomicLong());
+		}
+	}
+
+	private InFilterChunk() {
+
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 开启或关闭超大 in 查询拆分
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		InFilterChunk.enabled = enabled;
+	}
+
+	public static boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * 设置拆分后的语句是否并行执行，并行时使用 SqlTaskExecutor 线程池，存在事务时始终在当前线程依次执行
+	 * @param parallel
+	 */
+	public static void setParallel(boolean parallel) {
+		InFilterChunk.parallel = parallel;
+	}
+
+	public static int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * 设置拆分阈值
+	 * @param threshold
+	 */
+	public static void setThreshold(int threshold) {
+		if (threshold <= 0) {
+			throw new IllegalArgumentException("error: threshold must be greater than 0");
+		}
+		InFilterChunk.threshold = threshold;
+	}
+
+	public static int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * 设置拆分后每条语句 in 查询值的个数
+	 * @param chunkSize
+	 */
+	public static void setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("error: chunkSize must be greater than 0");
+		}
+		InFilterChunk.chunkSize = chunkSize;
+	}
+
+	/**
+	 * 获取 in 查询值的个数超过阈值的查询按某种方式执行的次数
+	 * @param strategy
+	 * @return
+	 */
+	public static long getStrategyCount(InFilterStrategyEnum strategy) {
+		return STRATEGY_COUNT.get(strategy).get();
+	}
+
+	/**
+	 * 获取 in 查询值的个数超过阈值的查询按各执行方式执行的次数
+	 * @return
+	 */
+	public static Map<InFilterStrategyEnum, Long> getStrategyCounts() {
+		Map<InFilterStrategyEnum, Long> counts = new EnumMap<>(InFilterStrategyEnum.class);
+		for (Map.Entry<InFilterStrategyEnum, AtomicLong> entry : STRATEGY_COUNT.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().get());
+		}
+		return Collections.unmodifiableMap(counts);
+	}
+
+	/**
+	 * 获取拆分后执行的语句总条数
+	 * @return
+	 */
+	public static long getChunkCount() {
+		return CHUNK_COUNT.get();
+	}
+
+	/**
+	 * 清空执行次数统计
+	 */
+	public static void clear() {
+		for (AtomicLong count : STRATEGY_COUNT.values()) {
+			count.set(0);
+		}
+		CHUNK_COUNT.set(0);
+	}
+
+	protected static void record(InFilterStrategyEnum strategy, int chunks) {
+		STRATEGY_COUNT.get(strategy).incrementAndGet();
+		CHUNK_COUNT.addAndGet(chunks);
+	}
+
+	/**
+	 * 获取需要拆分的 in 条件，只在主查询第一层条件中查找，多个 in 条件超过阈值时取值最多的一个，模板查询按占位绑定的值计算个数。
+	 * 未开启、未超过阈值或查询结构不支持拆分时返回 null，超过阈值但不支持拆分时按 SINGLE 计数
+	 * @param provider
+	 * @return
+	 */
+	protected static FilterNode getChunkFilter(QueryProviderHandle provider) {
+		if (!enabled || provider.getFilterArray() == null) {
+			return null;
+		}
+
+		FilterNode chunkFilter = null;
+		int maxSize = threshold;
+		for (FilterNode filter : provider.getFilterArray()) {
+			if (FilterEnum.IN == filter.getFilterType()) {
+				int size = AbstractSqlHandleMethod.getInFilterValues(getFilterValue(provider, filter)).length;
+				if (size > maxSize) {
+					chunkFilter = filter;
+					maxSize = size;
+				}
+			}
+		}
+		if (chunkFilter == null) {
+			return null;
+		}
+		if (provider.getLimit() > 0 || provider.getSeekValues() != null || !isEmpty(provider.getOrderArray())
+				|| !isEmpty(provider.getUnionProviderArray()) || !isChunkable(provider)) {
+			record(InFilterStrategyEnum.SINGLE, 1);
+			return null;
+		}
+		return chunkFilter;
+	}
+
+	/**
+	 * 判断查询及其连接表是否可以按 in 条件拆分执行，拆分后各批次的结果互不重叠，合并后与单条语句的结果一致
+	 * @param provider
+	 * @return
+	 */
+	private static boolean isChunkable(QueryProviderHandle provider) {
+		if (!isEmpty(provider.getGroupArray()) || !isEmpty(provider.getHavingArray())) {
+			return false;
+		}
+		if (provider.getColumnArray() != null) {
+			for (ColumnNode column : provider.getColumnArray()) {
+				if (SqlHandleEnum.HANDLE_DEFAULT != column.getHandleType() && SqlHandleEnum.HANDLE_DATE_FORMAT != column.getHandleType()) {
+					return false;
+				}
+			}
+		}
+		if (!isAndFilter(provider.getFilterArray(), provider.getProviderArray())) {
+			return false;
+		}
+		if (provider.getLeftJoinProviderArray() != null) {
+			for (JoinNode join : provider.getLeftJoinProviderArray()) {
+				if (!isChunkable((QueryProviderHandle) join.getProvider())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 判断条件是否全部以 and 连接，第一个条件直接拼接，不区分拼接类型
+	 * @param filters
+	 * @param providers
+	 * @return
+	 */
+	static boolean isAndFilter(List<FilterNode> filters, List<ProviderNode> providers) {
+		if (filters != null) {
+			for (int i = 1, j = filters.size(); i < j; i++) {
+				if (AppendTypeEnum.AND != filters.get(i).getAppendType()) {
+					return false;
+				}
+			}
+		}
+		if (providers != null) {
+			for (ProviderNode provider : providers) {
+				if (AppendTypeEnum.AND != provider.getAppendType()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean isEmpty(List<?> list) {
+		return list == null || list.isEmpty();
+	}
+
+	/**
+	 * 获取条件值，模板查询的占位取绑定的值
+	 * @param provider
+	 * @param filter
+	 * @return
+	 */
+	private static Object getFilterValue(QueryProviderHandle provider, FilterNode filter) {
+		QueryTemplate.Binding binding = provider.getTemplateBinding();
+		return binding == null ? filter.getValue() : resolve(binding, filter.getValue());
+	}
+
+	private static Object resolve(QueryTemplate.Binding binding, Object value) {
+		return value instanceof QueryTemplate.Slot ? binding.getValue(((QueryTemplate.Slot) value).getName()) : value;
+	}
+
+	/**
+	 * in 条件值去重后按 chunkSize 拆分，去重避免同一行出现在多个批次的结果中
+	 * @param provider
+	 * @param filter
+	 * @return
+	 */
+	protected static List<Object[]> split(QueryProviderHandle provider, FilterNode filter) {
+		Object[] values = new LinkedHashSet<>(Arrays.asList(AbstractSqlHandleMethod.getInFilterValues(getFilterValue(provider, filter)))).toArray();
+		int size = chunkSize;
+		List<Object[]> chunks = new ArrayList<>((values.length + size - 1) / size);
+		for (int from = 0; from < values.length; from += size) {
+			chunks.add(Arrays.copyOfRange(values, from, Math.min(from + size, values.length)));
+		}
+		return chunks;
+	}
+
+	/**
+	 * 拆分执行时的条件值容器，带有拆分的 in 条件和本批次的值，构建 SQL 时该条件只展开本批次的值。
+	 * 模板查询的条件值为占位，放入时取绑定的值
+	 */
+	static final class ValueMap extends HashMap<String, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient FilterNode filter;
+		private final Object[] values;
+		private final transient QueryTemplate.Binding binding;
+
+		ValueMap(FilterNode filter, Object[] values, QueryTemplate.Binding binding) {
+			this.filter = filter;
+			this.values = values;
+			this.binding = binding;
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			return super.put(key, this.resolve(value));
+		}
+
+		/**
+		 * 条件值为占位时取绑定的值
+		 * @param value
+		 * @return
+		 */
+		Object resolve(Object value) {
+			return binding == null ? value : InFilterChunk.resolve(binding, value);
+		}
+
+		/**
+		 * 获取条件展开的值，非拆分的条件返回 null
+		 * @param node
+		 * @return
+		 */
+		Object[] getValues(FilterNode node) {
+			return node == filter ? values : null;
+		}
+	}
+}
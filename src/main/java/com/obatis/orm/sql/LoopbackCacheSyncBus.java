@@ -0,0 +1,30 @@
+package com.obatis.orm.sql;
+
+import java.util.function.Consumer;
+
+/**
+ * 进程内的缓存失效通道，发布的事件编码后立即解码并交给本节点处理，用于单节点部署和测试事件的处理流程
+ * @author HuangLongPu
+ */
+public class LoopbackCacheSyncBus implements CacheSyncBus {
+
+	private volatile Consumer<CacheSyncEvent> receiver;
+
+	@Override
+	public void start(Consumer<CacheSyncEvent> receiver) {
+		this.receiver = receiver;
+	}
+
+	@Override
+	public void publish(CacheSyncEvent event) {
+		Consumer<CacheSyncEvent> current = receiver;
+		if (current != null) {
+			current.accept(CacheSyncEvent.decode(event.encode()));
+		}
+	}
+
+	@Override
+	public void close() {
+		receiver = null;
+	}
+}
@@ -0,0 +1,130 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 基于 UDP 组播的缓存失效通道，同一网段内加入相同组播地址和端口的节点互相接收事件，忽略本节点发布的事件。
+ * UDP 不保证送达，适用于本地多进程测试或可以接受偶尔依赖缓存过期时间恢复一致的场景
+ * @author HuangLongPu
+ */
+public class MulticastCacheSyncBus implements CacheSyncBus {
+
+	public static final String DEFAULT_GROUP = "239.255.27.1";
+	public static final int DEFAULT_PORT = 45688;
+	/**
+	 * 单个数据包的最大字节数，事件超过该长度时改为清空整张表的事件
+	 */
+	private static final int MAX_PACKET_SIZE = 60000;
+
+	private final InetAddress group;
+	private final int port;
+	/**
+	 * 加入和退出组播使用的地址，网卡为 null 时使用系统默认网卡
+	 */
+	private final InetSocketAddress groupAddress;
+	private volatile MulticastSocket socket;
+
+	public MulticastCacheSyncBus() {
+		this(DEFAULT_GROUP, DEFAULT_PORT);
+	}
+
+	public MulticastCacheSyncBus(String group, int port) {
+		try {
+			this.group = InetAddress.getByName(group);
+		} catch (UnknownHostException e) {
+			throw new IllegalArgumentException("group<" + group + "> is invalid");
+		}
+		if (!this.group.isMulticastAddress()) {
+			throw new IllegalArgumentException("group<" + group + "> is not multicast address");
+		}
+		if (port <= 0 || port > 65535) {
+			throw new IllegalArgumentException("port<" + port + "> is invalid");
+		}
+		this.port = port;
+		this.groupAddress = new InetSocketAddress(this.group, port);
+	}
+
+	@Override
+	public synchronized void start(Consumer<CacheSyncEvent> receiver) {
+		if (socket != null) {
+			throw new HandleException("error: cache sync bus is started");
+		}
+		MulticastSocket multicastSocket;
+		try {
+			multicastSocket = new MulticastSocket(port);
+			multicastSocket.setTimeToLive(1);
+			multicastSocket.joinGroup(groupAddress, null);
+		} catch (IOException e) {
+			throw new HandleException("error: cache sync bus start fail, " + e.getMessage());
+		}
+		socket = multicastSocket;
+
+		Thread thread = new Thread(() -> receive(multicastSocket, receiver), "obatis-cache-sync");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void receive(MulticastSocket multicastSocket, Consumer<CacheSyncEvent> receiver) {
+		byte[] buffer = new byte[MAX_PACKET_SIZE];
+		while (!multicastSocket.isClosed()) {
+			DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+			try {
+				multicastSocket.receive(packet);
+			} catch (IOException e) {
+				if (!multicastSocket.isClosed()) {
+					e.printStackTrace();
+				}
+				continue;
+			}
+			try {
+				CacheSyncEvent event = CacheSyncEvent.decode(new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8));
+				if (!CacheSync.getNodeId().equals(event.getNodeId())) {
+					receiver.accept(event);
+				}
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Override
+	public void publish(CacheSyncEvent event) {
+		MulticastSocket multicastSocket = socket;
+		if (multicastSocket == null) {
+			throw new HandleException("error: cache sync bus is not started");
+		}
+		byte[] data = event.encode().getBytes(StandardCharsets.UTF_8);
+		if (data.length > MAX_PACKET_SIZE) {
+			data = new CacheSyncEvent(event.getNodeId(), event.getVersion(), event.getTableName(), null).encode().getBytes(StandardCharsets.UTF_8);
+		}
+		try {
+			multicastSocket.send(new DatagramPacket(data, data.length, group, port));
+		} catch (IOException e) {
+			throw new HandleException("error: cache sync event publish fail, " + e.getMessage());
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		MulticastSocket multicastSocket = socket;
+		if (multicastSocket == null) {
+			return;
+		}
+		socket = null;
+		try {
+			multicastSocket.leaveGroup(groupAddress, null);
+		} catch (IOException e) {
+			// 关闭时忽略退出组播失败
+		}
+		multicastSocket.close();
+	}
+}
@@ -0,0 +1,80 @@
+package com.obatis.orm.sql;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页查询总条数缓存，key 为统计 SQL 和条件值组成的 QueryKey，超过缓存时间后重新统计
+ * @author HuangLongPu
+ */
+public class PageCountCache {
+
+	/**
+	 * 最多缓存的总条数个数，超过后先清理过期的，仍然超过则清空
+	 */
+	private static final int MAX_SIZE = 4096;
+	private static final Map<QueryKey, long[]> CACHE = new ConcurrentHashMap<>();
+
+	private PageCountCache() {
+
+	}
+
+	/**
+	 * 构建缓存 key，条件值按 key 排序，保证相同条件生成的 key 相同，条件值的类型不同时 key 不同
+	 * @param countSql
+	 * @param value
+	 * @return
+	 */
+	protected static QueryKey getKey(String countSql, Map<?, ?> value) {
+		return QueryKey.of(countSql, value);
+	}
+
+	/**
+	 * 获取未过期的总条数，不存在或已过期返回 null
+	 * @param key
+	 * @return
+	 */
+	protected static Long get(QueryKey key) {
+		long[] item = CACHE.get(key);
+		if (item == null) {
+			return null;
+		}
+		if (item[1] < System.currentTimeMillis()) {
+			CACHE.remove(key, item);
+			return null;
+		}
+		return item[0];
+	}
+
+	protected static void put(QueryKey key, long total, long cacheMillis) {
+		if (cacheMillis <= 0) {
+			return;
+		}
+		if (CACHE.size() >= MAX_SIZE) {
+			removeExpired();
+			if (CACHE.size() >= MAX_SIZE) {
+				CACHE.clear();
+			}
+		}
+		CACHE.put(key, new long[] {total, System.currentTimeMillis() + cacheMillis});
+	}
+
+	public static int size() {
+		return CACHE.size();
+	}
+
+	public static void clear() {
+		CACHE.clear();
+	}
+
+	private static void removeExpired() {
+		long now = System.currentTimeMillis();
+		Iterator<long[]> iterator = CACHE.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next()[1] < now) {
+				iterator.remove();
+			}
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.SqlConstant;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预解析的 SqlProvider 语句，#{request.provider_filters.xxx}、#{request.provider_fields.xxx} 占位符已替换为 ?，
+ * 按占位符顺序记录参数所在的值容器和 key，绑定时按位置取值放入 BoundSql 的附加参数，不再经过 OGNL 逐级反射取值
+ * @author HuangLongPu
+ */
+public class PositionalSqlSource implements SqlSource {
+
+	/**
+	 * SqlProvider 中条件值容器的参数名
+	 */
+	public static final String REQUEST_PARAM = "request";
+
+	private static final String PLACEHOLDER_OPEN = "#{";
+	private static final String PLACEHOLDER_PREFIX = REQUEST_PARAM + ".";
+	private static final int GROUP_FILTER = 0;
+	private static final int GROUP_FIELD = 1;
+
+	private final Configuration configuration;
+	private final String sql;
+	private final List<ParameterMapping> parameterMappings;
+	private final String[] keys;
+	private final int[] groups;
+
+	private PositionalSqlSource(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, String[] keys, int[] groups) {
+		this.configuration = configuration;
+		this.sql = sql;
+		this.parameterMappings = parameterMappings;
+		this.keys = keys;
+		this.groups = groups;
+	}
+
+	/**
+	 * 解析语句，存在无法按位置绑定的占位符时返回 null，由 mybatis 默认方式处理
+	 * @param configuration
+	 * @param script
+	 * @return
+	 */
+	protected static PositionalSqlSource compile(Configuration configuration, String script) {
+
+		StringBuilder sql = new StringBuilder(script.length());
+		List<String> keyList = new ArrayList<>();
+		List<Integer> groupList = new ArrayList<>();
+		int offset = 0;
+		int start;
+		while ((start = script.indexOf(PLACEHOLDER_OPEN, offset)) >= 0) {
+			if (start > 0 && script.charAt(start - 1) == '\\') {
+				return null;
+			}
+			int end = script.indexOf('}', start);
+			if (end < 0 || !script.startsWith(PLACEHOLDER_PREFIX, start + 2)) {
+				return null;
+			}
+			int groupStart = start + 2 + PLACEHOLDER_PREFIX.length();
+			int group;
+			int keyStart;
+			if (script.startsWith(SqlConstant.PROVIDER_FILTER + ".", groupStart)) {
+				group = GROUP_FILTER;
+				keyStart = groupStart + SqlConstant.PROVIDER_FILTER.length() + 1;
+			} else if (script.startsWith(SqlConstant.PROVIDER_FIELD + ".", groupStart)) {
+				group = GROUP_FIELD;
+				keyStart = groupStart + SqlConstant.PROVIDER_FIELD.length() + 1;
+			} else {
+				return null;
+			}
+			if (keyStart >= end || !isKey(script, keyStart, end)) {
+				return null;
+			}
+
+			keyList.add(script.substring(keyStart, end));
+			groupList.add(group);
+			sql.append(script, offset, start).append('?');
+			offset = end + 1;
+		}
+		sql.append(script, offset, script.length());
+
+		int size = keyList.size();
+		String[] keys = keyList.toArray(new String[size]);
+		int[] groups = new int[size];
+		List<ParameterMapping> parameterMappings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			groups[i] = groupList.get(i);
+			/**
+			 * 与 mybatis 解析 Map 参数时一致，javaType 为 Object，执行时按值的类型选择 TypeHandler
+			 */
+			parameterMappings.add(new ParameterMapping.Builder(configuration, keys[i], Object.class).build());
+		}
+		return new PositionalSqlSource(configuration, sql.toString(), Collections.unmodifiableList(parameterMappings), keys, groups);
+	}
+
+	private static boolean isKey(String script, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = script.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 语句末尾追加不含占位符的部分，如 limit 语句
+	 * @param tail
+	 * @return
+	 */
+	protected PositionalSqlSource append(String tail) {
+		return new PositionalSqlSource(configuration, sql + tail, parameterMappings, keys, groups);
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	@Override
+	public BoundSql getBoundSql(Object parameterObject) {
+		BoundSql boundSql = new BoundSql(configuration, sql, parameterMappings, parameterObject);
+		if (keys.length == 0) {
+			return boundSql;
+		}
+
+		Map<?, ?> filterValue = null;
+		Map<?, ?> fieldValue = null;
+		if (parameterObject instanceof Map && ((Map<?, ?>) parameterObject).containsKey(REQUEST_PARAM)) {
+			Object request = ((Map<?, ?>) parameterObject).get(REQUEST_PARAM);
+			if (request instanceof Map) {
+				filterValue = getValueMap((Map<?, ?>) request, SqlConstant.PROVIDER_FILTER);
+				fieldValue = getValueMap((Map<?, ?>) request, SqlConstant.PROVIDER_FIELD);
+			}
+		}
+		for (int i = 0; i < keys.length; i++) {
+			Map<?, ?> value = groups[i] == GROUP_FILTER ? filterValue : fieldValue;
+			boundSql.setAdditionalParameter(keys[i], value == null ? null : value.get(keys[i]));
+		}
+		return boundSql;
+	}
+
+	private static Map<?, ?> getValueMap(Map<?, ?> request, String name) {
+		Object value = request.get(name);
+		return value instanceof Map ? (Map<?, ?>) value : null;
+	}
+}
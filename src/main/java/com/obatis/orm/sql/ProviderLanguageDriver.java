@@ -0,0 +1,57 @@
+package com.obatis.orm.sql;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SqlProvider 语句的脚本驱动，语句按占位符预解析为 PositionalSqlSource 并缓存，结构相同的语句不再由 mybatis 每次重新解析。
+ * 包含 ${}、&lt;script&gt; 或其他格式占位符的语句仍由 XMLLanguageDriver 处理
+ * @author HuangLongPu
+ */
+public class ProviderLanguageDriver extends XMLLanguageDriver {
+
+	/**
+	 * 缓存解析后语句的最大条数
+	 */
+	private final static int SQL_SOURCE_CACHE_SIZE = 1024;
+
+	/**
+	 * key 为语句中最后一个占位符及之前的部分，分页等语句末尾不同的 limit 共用同一个解析结果
+	 */
+	private final Map<String, PositionalSqlSource> sqlSourceCache = new LinkedHashMap<String, PositionalSqlSource>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PositionalSqlSource> eldest) {
+			return size() > SQL_SOURCE_CACHE_SIZE;
+		}
+	};
+
+	@Override
+	public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+		if (script.startsWith("<script>") || script.contains("${")) {
+			return super.createSqlSource(configuration, script, parameterType);
+		}
+
+		int end = script.lastIndexOf('}') + 1;
+		String head = end == script.length() ? script : script.substring(0, end);
+		PositionalSqlSource sqlSource;
+		synchronized (sqlSourceCache) {
+			sqlSource = sqlSourceCache.get(head);
+		}
+		if (sqlSource == null) {
+			sqlSource = PositionalSqlSource.compile(configuration, head);
+			if (sqlSource == null) {
+				return super.createSqlSource(configuration, script, parameterType);
+			}
+			synchronized (sqlSourceCache) {
+				sqlSourceCache.put(head, sqlSource);
+			}
+		}
+		return end == script.length() ? sqlSource : sqlSource.append(script.substring(end));
+	}
+}
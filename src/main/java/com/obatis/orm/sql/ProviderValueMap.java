@@ -0,0 +1,49 @@
+package com.obatis.orm.sql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 构建 SQL 时存放条件值的容器，同时按放入顺序记录每个值来源的条件节点，用于 SQL 缓存命中时重新绑定条件值
+ * @author HuangLongPu
+ */
+public class ProviderValueMap extends HashMap<String, Object> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<String> keys = new ArrayList<>();
+	private final List<Object> sources = new ArrayList<>();
+	private final List<int[]> positions = new ArrayList<>();
+
+	protected ProviderValueMap() {
+
+	}
+
+	/**
+	 * 放入条件值并记录来源
+	 * @param key
+	 * @param value
+	 * @param source     值来源的条件节点或游标值数组
+	 * @param position   值在游标值数组中的下标，条件节点为 0
+	 * @param element    in 查询展开后占位符的下标，非 in 查询为 -1
+	 */
+	protected void bind(String key, Object value, Object source, int position, int element) {
+		this.put(key, value);
+		keys.add(key);
+		sources.add(source);
+		positions.add(new int[] {position, element});
+	}
+
+	protected List<String> getKeys() {
+		return keys;
+	}
+
+	protected List<Object> getSources() {
+		return sources;
+	}
+
+	protected List<int[]> getPositions() {
+		return positions;
+	}
+}
@@ -0,0 +1,99 @@
+package com.obatis.orm.sql;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 查询缓存 key，由查询标识、SQL 语句和按 key 排序的条件值组成，通过 equals 比较。
+ * 每个条件值保留 key、值的类型和值本身，数组及集合按元素比较，类型不同的相同字面值(如 1 和 "1")、
+ * 包含分隔符的字符串都不会与其他条件生成相同的 key。数组及集合在生成时复制，之后修改条件值不影响 key
+ * @author HuangLongPu
+ */
+public final class QueryKey {
+
+	private final Object[] parts;
+	private final int hash;
+
+	private QueryKey(Object[] parts) {
+		this.parts = parts;
+		this.hash = Arrays.deepHashCode(parts);
+	}
+
+	/**
+	 * 构建 key
+	 * @param sql
+	 * @param filters  条件值，key 为条件参数名
+	 * @param tags     查询标识，如查询类型、页码等，按顺序比较
+	 * @return
+	 */
+	protected static QueryKey of(String sql, Map<?, ?> filters, Object... tags) {
+		Object[] values;
+		if (filters == null || filters.isEmpty()) {
+			values = new Object[0];
+		} else {
+			values = new Object[filters.size() * 3];
+			int i = 0;
+			for (Map.Entry<?, ?> entry : new TreeMap<>(filters).entrySet()) {
+				Object value = entry.getValue();
+				values[i++] = entry.getKey();
+				values[i++] = value == null ? null : value.getClass();
+				values[i++] = snapshot(value);
+			}
+		}
+		return new QueryKey(new Object[] {snapshot(tags), sql, values});
+	}
+
+	/**
+	 * 复制数组及集合，集合转为数组
+	 * @param value
+	 * @return
+	 */
+	private static Object snapshot(Object value) {
+		if (value instanceof Collection) {
+			Object[] items = ((Collection<?>) value).toArray();
+			for (int i = 0; i < items.length; i++) {
+				items[i] = snapshot(items[i]);
+			}
+			return items;
+		}
+		if (value instanceof Object[]) {
+			Object[] items = ((Object[]) value).clone();
+			for (int i = 0; i < items.length; i++) {
+				items[i] = snapshot(items[i]);
+			}
+			return items;
+		}
+		if (value != null && value.getClass().isArray()) {
+			int length = Array.getLength(value);
+			Object items = Array.newInstance(value.getClass().getComponentType(), length);
+			System.arraycopy(value, 0, items, 0, length);
+			return items;
+		}
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof QueryKey)) {
+			return false;
+		}
+		QueryKey other = (QueryKey) obj;
+		return hash == other.hash && Arrays.deepEquals(parts, other.parts);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.deepToString(parts);
+	}
+}
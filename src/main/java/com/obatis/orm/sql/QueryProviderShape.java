@@ -0,0 +1,211 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.provider.node.AbstractNode;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.HavingNode;
+import com.obatis.orm.provider.node.JoinNode;
+import com.obatis.orm.provider.node.ProviderNode;
+import com.obatis.orm.provider.node.UnionNode;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * QueryProvider 结构指纹，遍历查询代理的字段、条件、连接、排序、分组等结构信息生成缓存 key，
+ * 结构相同(条件值不同)的 QueryProvider 生成的 SQL 语句相同。
+ * 遍历时按顺序收集条件节点，用于 SQL 缓存命中时绑定新的条件值
+ * @author HuangLongPu
+ */
+public class QueryProviderShape {
+
+	private final StringBuilder keyBuilder = new StringBuilder(128);
+	private final List<Object> sources = new ArrayList<>();
+	private final List<Object[]> inValues = new ArrayList<>();
+	private String key;
+
+	private QueryProviderShape() {
+
+	}
+
+	/**
+	 * 构建 QueryProvider 的结构指纹
+	 * @param provider
+	 * @param tableName
+	 * @return
+	 */
+	public static QueryProviderShape of(QueryProviderHandle provider, String tableName) {
+		QueryProviderShape shape = new QueryProviderShape();
+		shape.append(tableName);
+		if (SargableRewrite.isEnabled()) {
+			// 条件改写开启前后生成的语句不同，不共用缓存
+			shape.keyBuilder.append('~');
+		}
+		shape.appendProvider(provider);
+		shape.key = shape.keyBuilder.toString();
+		return shape;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * 获取遍历顺序中第 slot 个值来源的值，条件节点取节点的值，游标值数组取 position 下标的值
+	 * @param slot
+	 * @param position
+	 * @return
+	 */
+	protected Object getSourceValue(int slot, int position) {
+		Object source = sources.get(slot);
+		if (source instanceof FilterNode) {
+			return ((FilterNode) source).getValue();
+		} else if (source instanceof HavingNode) {
+			return ((HavingNode) source).getValue();
+		}
+		return ((Object[]) source)[position];
+	}
+
+	/**
+	 * 获取第 slot 个条件展开后的 in 查询值，非 in 查询返回 null
+	 * @param slot
+	 * @return
+	 */
+	protected Object[] getInValues(int slot) {
+		return inValues.get(slot);
+	}
+
+	/**
+	 * 值来源与遍历顺序的映射，按引用比较
+	 * @return
+	 */
+	protected Map<Object, Integer> getSourceIndex() {
+		Map<Object, Integer> sourceIndex = new IdentityHashMap<>();
+		for (int i = sources.size() - 1; i >= 0; i--) {
+			sourceIndex.put(sources.get(i), i);
+		}
+		return sourceIndex;
+	}
+
+	private void appendProvider(QueryProviderHandle provider) {
+		keyBuilder.append('{');
+		append(provider.getTableName());
+		append(provider.getTableAsNameSerialNumber());
+		keyBuilder.append(provider.isSelectNothingFlag() ? '1' : '0');
+
+		appendNodes("c", provider.getColumnArray());
+
+		Map<String, String> removeColumns = provider.getRemoveColumnArray();
+		if (removeColumns != null && !removeColumns.isEmpty()) {
+			keyBuilder.append("r");
+			for (String removeColumn : removeColumns.keySet()) {
+				append(removeColumn);
+			}
+		}
+
+		appendFilters("f", provider.getFilterArray());
+		appendProviders("p", provider.getProviderArray());
+		appendFilters("o", provider.getOnFilterArray());
+		appendProviders("q", provider.getOnProviderArray());
+
+		List<JoinNode> leftJoins = provider.getLeftJoinProviderArray();
+		if (leftJoins != null && !leftJoins.isEmpty()) {
+			keyBuilder.append("j");
+			for (JoinNode leftJoin : leftJoins) {
+				keyBuilder.append(leftJoin.getShapeKey());
+				appendProvider((QueryProviderHandle) leftJoin.getProvider());
+			}
+		}
+
+		appendNodes("s", provider.getOrderArray());
+		appendNodes("g", provider.getGroupArray());
+
+		List<HavingNode> havings = provider.getHavingArray();
+		if (havings != null && !havings.isEmpty()) {
+			keyBuilder.append("h");
+			for (HavingNode having : havings) {
+				keyBuilder.append(having.getShapeKey());
+				addSource(having, null);
+			}
+		}
+
+		Object[] seekValues = provider.getSeekValues();
+		if (seekValues != null) {
+			keyBuilder.append("k#").append(seekValues.length);
+			addSource(seekValues, null);
+		}
+
+		List<UnionNode> unions = provider.getUnionProviderArray();
+		if (unions != null && !unions.isEmpty()) {
+			keyBuilder.append("u");
+			for (UnionNode union : unions) {
+				keyBuilder.append(union.getShapeKey());
+				appendProvider((QueryProviderHandle) union.getProvider());
+			}
+		}
+		keyBuilder.append('}');
+	}
+
+	/**
+	 * 追加不含条件值的节点，直接使用节点缓存的结构指纹
+	 * @param type
+	 * @param nodes
+	 */
+	private void appendNodes(String type, List<? extends AbstractNode> nodes) {
+		if (nodes == null || nodes.isEmpty()) {
+			return;
+		}
+		keyBuilder.append(type);
+		for (AbstractNode node : nodes) {
+			keyBuilder.append(node.getShapeKey());
+		}
+	}
+
+	private void appendFilters(String type, List<FilterNode> filters) {
+		if (filters == null || filters.isEmpty()) {
+			return;
+		}
+		keyBuilder.append(type);
+		for (FilterNode filter : filters) {
+			keyBuilder.append(filter.getShapeKey());
+			Object[] items = null;
+			switch (filter.getFilterType()) {
+				case IN:
+				case NOT_IN:
+					// in 查询每个值对应一个占位符，占位符个数(开启分桶时为分桶大小)属于结构信息
+					items = AbstractSqlHandleMethod.getInFilterValues(filter.getValue());
+					keyBuilder.append('#').append(InFilterBucket.getBucketSize(items.length));
+					break;
+				case IN_PROVIDER:
+				case NOT_IN_PROVIDER:
+					appendProvider((QueryProviderHandle) filter.getValue());
+					break;
+				default:
+					break;
+			}
+			addSource(filter, items);
+		}
+	}
+
+	private void appendProviders(String type, List<ProviderNode> providers) {
+		if (providers == null || providers.isEmpty()) {
+			return;
+		}
+		keyBuilder.append(type);
+		for (ProviderNode provider : providers) {
+			keyBuilder.append(provider.getShapeKey());
+			appendProvider((QueryProviderHandle) provider.getProvider());
+		}
+	}
+
+	private void addSource(Object source, Object[] items) {
+		sources.add(source);
+		inValues.add(items);
+	}
+
+	private void append(Object value) {
+		AbstractNode.appendKey(keyBuilder, value);
+	}
+}
@@ -0,0 +1,307 @@
+package com.obatis.orm.sql;
+
+import com.obatis.config.response.result.ResultInfo;
+import com.obatis.orm.constant.CacheInfoConstant;
+import com.obatis.orm.constant.type.FilterEnum;
+import com.obatis.orm.convert.BeanCacheConvert;
+import com.obatis.orm.convert.EntityMetadata;
+import com.obatis.orm.model.CommonModel;
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.JoinNode;
+import com.obatis.orm.provider.node.ProviderNode;
+import com.obatis.orm.provider.node.UnionNode;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 查询结果缓存，QueryProvider 设置 cacheable 后生效，key 为查询类型、SQL 语句和条件值组成的 QueryKey。
+ * 每条结果标记查询涉及的所有表(主表、left join、inProvider、union 及嵌套条件中的表)，
+ * 通过 SqlHandleFactory 对其中任意一张表增删改时移除标记了该表的结果。
+ * 每张表移除结果时递增版本号，查询期间涉及的表版本号发生变化时不放入缓存
+ * @author HuangLongPu
+ */
+public class QueryResultCache {
+
+	/**
+	 * 最多缓存的结果个数，超过后淘汰最久未访问的结果
+	 */
+	private static final int MAX_SIZE = 4096;
+
+	/**
+	 * 以下容器均以 CACHE 加锁访问
+	 */
+	private static final Map<QueryKey, Entry> CACHE = new LinkedHashMap<QueryKey, Entry>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<QueryKey, Entry> eldest) {
+			if (size() > MAX_SIZE) {
+				removeTableKey(eldest.getKey(), eldest.getValue(), null);
+				return true;
+			}
+			return false;
+		}
+	};
+	/**
+	 * key 为表名，value 为标记了该表的结果 key
+	 */
+	private static final Map<String, Set<QueryKey>> TABLE_KEYS = new HashMap<>();
+	private static final Map<String, Long> TABLE_VERSIONS = new HashMap<>();
+
+	private QueryResultCache() {
+
+	}
+
+	/**
+	 * 获取未过期的缓存结果，不存在或已过期返回 null
+	 * @param key
+	 * @return
+	 */
+	protected static Entry get(QueryKey key) {
+		synchronized (CACHE) {
+			Entry entry = CACHE.get(key);
+			if (entry != null && entry.expireTime < System.currentTimeMillis()) {
+				CACHE.remove(key);
+				removeTableKey(key, entry, null);
+				return null;
+			}
+			return entry;
+		}
+	}
+
+	/**
+	 * 获取查询涉及的表的当前版本号，查询前获取，放入缓存时校验
+	 * @param tables
+	 * @return
+	 */
+	protected static long[] getVersions(String[] tables) {
+		long[] versions = new long[tables.length];
+		synchronized (CACHE) {
+			for (int i = 0; i < tables.length; i++) {
+				versions[i] = TABLE_VERSIONS.getOrDefault(tables[i], 0L);
+			}
+		}
+		return versions;
+	}
+
+	/**
+	 * 放入查询结果，查询期间涉及的表有结果被移除时不放入
+	 * @param key
+	 * @param result
+	 * @param tables       查询涉及的表
+	 * @param versions     查询前获取的表版本号
+	 * @param cacheMillis  缓存时间，单位毫秒
+	 */
+	protected static void put(QueryKey key, Object result, String[] tables, long[] versions, long cacheMillis) {
+		Entry entry = new Entry(copy(result), tables, System.currentTimeMillis() + cacheMillis);
+		synchronized (CACHE) {
+			for (int i = 0; i < tables.length; i++) {
+				if (TABLE_VERSIONS.getOrDefault(tables[i], 0L) != versions[i]) {
+					return;
+				}
+			}
+			Entry old = CACHE.put(key, entry);
+			if (old != null) {
+				removeTableKey(key, old, null);
+			}
+			for (String table : tables) {
+				TABLE_KEYS.computeIfAbsent(table, k -> new HashSet<>()).add(key);
+			}
+		}
+	}
+
+	/**
+	 * 移除标记了该表的结果，存在事务时在事务结束后再移除一次，避免事务提交前其他线程查询到旧数据并放入缓存
+	 * @param tableName
+	 */
+	public static void invalidate(String tableName) {
+		remove(tableName);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					remove(tableName);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 移除标记了该表的结果并递增表的版本号，不处理事务
+	 * @param tableName
+	 */
+	protected static void remove(String tableName) {
+		synchronized (CACHE) {
+			TABLE_VERSIONS.merge(tableName, 1L, Long::sum);
+			Set<QueryKey> keys = TABLE_KEYS.remove(tableName);
+			if (keys == null) {
+				return;
+			}
+			for (QueryKey key : keys) {
+				Entry entry = CACHE.remove(key);
+				if (entry != null) {
+					removeTableKey(key, entry, tableName);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 从结果标记的表中移除结果 key，excludeTable 为正在移除的表
+	 * @param key
+	 * @param entry
+	 * @param excludeTable
+	 */
+	private static void removeTableKey(QueryKey key, Entry entry, String excludeTable) {
+		for (String table : entry.tables) {
+			if (table.equals(excludeTable)) {
+				continue;
+			}
+			Set<QueryKey> keys = TABLE_KEYS.get(table);
+			if (keys != null) {
+				keys.remove(key);
+				if (keys.isEmpty()) {
+					TABLE_KEYS.remove(table);
+				}
+			}
+		}
+	}
+
+	public static int size() {
+		synchronized (CACHE) {
+			return CACHE.size();
+		}
+	}
+
+	public static void clear() {
+		synchronized (CACHE) {
+			for (String table : TABLE_KEYS.keySet()) {
+				TABLE_VERSIONS.merge(table, 1L, Long::sum);
+			}
+			CACHE.clear();
+			TABLE_KEYS.clear();
+		}
+	}
+
+	/**
+	 * 获取查询涉及的所有表，按表名排序
+	 * @param provider
+	 * @param tableName  主表
+	 * @return
+	 */
+	protected static String[] getTables(QueryProviderHandle provider, String tableName) {
+		Set<String> tables = new TreeSet<>();
+		tables.add(tableName);
+		addTables(provider, tables);
+		return tables.toArray(new String[0]);
+	}
+
+	private static void addTables(QueryProviderHandle provider, Set<String> tables) {
+		if (provider.getTableName() != null) {
+			tables.add(provider.getTableName());
+		}
+		addTables(provider.getFilterArray(), provider.getProviderArray(), tables);
+		addTables(provider.getOnFilterArray(), provider.getOnProviderArray(), tables);
+		if (provider.getLeftJoinProviderArray() != null) {
+			for (JoinNode join : provider.getLeftJoinProviderArray()) {
+				addTables((QueryProviderHandle) join.getProvider(), tables);
+			}
+		}
+		if (provider.getUnionProviderArray() != null) {
+			for (UnionNode union : provider.getUnionProviderArray()) {
+				addTables((QueryProviderHandle) union.getProvider(), tables);
+			}
+		}
+	}
+
+	private static void addTables(List<FilterNode> filters, List<ProviderNode> providers, Set<String> tables) {
+		if (filters != null) {
+			for (FilterNode filter : filters) {
+				if (FilterEnum.IN_PROVIDER == filter.getFilterType() || FilterEnum.NOT_IN_PROVIDER == filter.getFilterType()) {
+					addTables((QueryProviderHandle) filter.getValue(), tables);
+				}
+			}
+		}
+		if (providers != null) {
+			for (ProviderNode provider : providers) {
+				addTables((QueryProviderHandle) provider.getProvider(), tables);
+			}
+		}
+	}
+
+	/**
+	 * 复制结果，List 结果逐行复制，调用方修改返回的数据不影响缓存
+	 * @param result
+	 * @return
+	 */
+	protected static Object copy(Object result) {
+		if (result instanceof List) {
+			return copyList((List<?>) result);
+		}
+		return copyRow(result);
+	}
+
+	protected static List<Object> copyList(List<?> list) {
+		List<Object> copy = new ArrayList<>(list.size());
+		for (Object row : list) {
+			copy.add(copyRow(row));
+		}
+		return copy;
+	}
+
+	/**
+	 * 复制一行数据，实体按实体元数据复制，ResultInfo 子类按结果类的属性复制，Map 复制为新的 Map，
+	 * 属性值本身不复制；其他类型(如数值、字符串)为不可变对象，不复制
+	 * @param row
+	 * @return
+	 */
+	private static Object copyRow(Object row) {
+		if (row instanceof Map) {
+			return new HashMap<>((Map<?, ?>) row);
+		} else if (row instanceof CommonModel) {
+			String tableName = CacheInfoConstant.TABLE_CACHE.get(row.getClass().getCanonicalName());
+			EntityMetadata metadata = tableName == null ? null : BeanCacheConvert.getEntityMetadata(tableName);
+			if (metadata != null) {
+				return metadata.getAccessor().copy(row);
+			}
+			return BeanCacheConvert.getResultAccessor(row.getClass()).copy(row);
+		} else if (row instanceof ResultInfo) {
+			return BeanCacheConvert.getResultAccessor(row.getClass()).copy(row);
+		}
+		return row;
+	}
+
+	/**
+	 * 缓存的结果
+	 */
+	protected static final class Entry {
+
+		private final Object result;
+		private final String[] tables;
+		private final long expireTime;
+
+		private Entry(Object result, String[] tables, long expireTime) {
+			this.result = result;
+			this.tables = tables;
+			this.expireTime = expireTime;
+		}
+
+		/**
+		 * 获取结果的副本，查询结果为 null 时返回 null
+		 * @return
+		 */
+		protected Object getResult() {
+			return copy(result);
+		}
+	}
+}
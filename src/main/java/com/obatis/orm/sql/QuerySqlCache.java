@@ -0,0 +1,188 @@
+package com.obatis.orm.sql;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询 SQL 缓存，以 QueryProvider 的结构指纹为 key，缓存构建好的 SQL 语句和条件值的绑定顺序，
+ * 结构相同的查询命中缓存后只需绑定新的条件值。缓存有容量上限，超过后淘汰最久未使用的 SQL
+ * @author HuangLongPu
+ */
+public class QuerySqlCache {
+
+	/**
+	 * 默认缓存的 SQL 条数
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private static volatile boolean enabled = true;
+	private static volatile int maxSize = DEFAULT_MAX_SIZE;
+
+	private static final AtomicLong HIT_COUNT = new AtomicLong();
+	private static final AtomicLong MISS_COUNT = new AtomicLong();
+	private static final AtomicLong EVICTION_COUNT = new AtomicLong();
+
+	private static final Map<String, Entry> CACHE = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if (size() > maxSize) {
+				EVICTION_COUNT.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private QuerySqlCache() {
+
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 开启或关闭查询 SQL 缓存，默认开启
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		QuerySqlCache.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	public static int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * 设置缓存的 SQL 条数上限
+	 * @param maxSize
+	 */
+	public static void setMaxSize(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("error: maxSize must be greater than 0");
+		}
+		QuerySqlCache.maxSize = maxSize;
+	}
+
+	public static long getHitCount() {
+		return HIT_COUNT.get();
+	}
+
+	public static long getMissCount() {
+		return MISS_COUNT.get();
+	}
+
+	public static long getEvictionCount() {
+		return EVICTION_COUNT.get();
+	}
+
+	public static synchronized int size() {
+		return CACHE.size();
+	}
+
+	public static synchronized void clear() {
+		CACHE.clear();
+	}
+
+	protected static Entry get(String key) {
+		Entry entry;
+		synchronized (QuerySqlCache.class) {
+			entry = CACHE.get(key);
+		}
+		if (entry != null) {
+			HIT_COUNT.incrementAndGet();
+		} else {
+			MISS_COUNT.incrementAndGet();
+		}
+		return entry;
+	}
+
+	/**
+	 * 放入构建好的 SQL，条件值来源无法对应到结构指纹时不缓存
+	 * @param shape
+	 * @param sql
+	 * @param value
+	 */
+	protected static void put(QueryProviderShape shape, String sql, ProviderValueMap value) {
+		Entry entry = Entry.of(shape, sql, value);
+		if (entry == null) {
+			return;
+		}
+		synchronized (QuerySqlCache.class) {
+			CACHE.put(shape.getKey(), entry);
+		}
+	}
+
+	/**
+	 * 缓存项，存放 SQL 语句以及每个条件值 key 对应的来源位置
+	 */
+	protected static class Entry {
+
+		private final String sql;
+		private final String[] keys;
+		private final int[] slots;
+		private final int[] positions;
+		private final int[] elements;
+
+		private Entry(String sql, int size) {
+			this.sql = sql;
+			this.keys = new String[size];
+			this.slots = new int[size];
+			this.positions = new int[size];
+			this.elements = new int[size];
+		}
+
+		private static Entry of(QueryProviderShape shape, String sql, ProviderValueMap value) {
+			List<String> keys = value.getKeys();
+			if (keys.size() != value.size()) {
+				return null;
+			}
+			Map<Object, Integer> sourceIndex = shape.getSourceIndex();
+			List<Object> sources = value.getSources();
+			List<int[]> positions = value.getPositions();
+			Entry entry = new Entry(sql, keys.size());
+			for (int i = 0, j = keys.size(); i < j; i++) {
+				Integer slot = sourceIndex.get(sources.get(i));
+				if (slot == null) {
+					return null;
+				}
+				entry.keys[i] = keys.get(i);
+				entry.slots[i] = slot;
+				entry.positions[i] = positions.get(i)[0];
+				entry.elements[i] = positions.get(i)[1];
+			}
+			return entry;
+		}
+
+		protected String getSql() {
+			return sql;
+		}
+
+		/**
+		 * 从结构相同的 QueryProvider 中取出条件值，按缓存的 key 放入值容器
+		 * @param shape
+		 * @return
+		 */
+		protected Map<String, Object> bind(QueryProviderShape shape) {
+			Map<String, Object> value = new HashMap<>((int) (keys.length / 0.75f) + 1);
+			for (int i = 0; i < keys.length; i++) {
+				if (elements[i] < 0) {
+					value.put(keys[i], shape.getSourceValue(slots[i], positions[i]));
+				} else {
+					// in 查询分桶时，值个数不同的查询共用缓存，超出值个数的位置取最后一个值
+					Object[] inValues = shape.getInValues(slots[i]);
+					value.put(keys[i], inValues[Math.min(elements[i], inValues.length - 1)]);
+				}
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,359 @@
+package com.obatis.orm.sql;
+
+import com.obatis.config.response.result.PageInfo;
+import com.obatis.config.response.result.ResultInfo;
+import com.obatis.exception.HandleException;
+import com.obatis.orm.SqlHandle;
+import com.obatis.orm.constant.type.FilterEnum;
+import com.obatis.orm.model.CommonModel;
+import com.obatis.orm.provider.QueryProvider;
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.HavingNode;
+import com.obatis.orm.provider.node.JoinNode;
+import com.obatis.orm.provider.node.ProviderNode;
+import com.obatis.orm.provider.node.UnionNode;
+import com.obatis.tools.ValidateTool;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查询模板，QueryProvider 中条件值使用 Slot 命名占位，定义一次后多次绑定不同的值执行。
+ * 模板按表名和 in 查询占位符个数编译一次 SQL 语句和参数顺序，之后执行只按参数顺序取绑定的值，不再构建 SQL。
+ * 模板创建后不应再修改对应的 QueryProvider。开启 InFilterChunk 时 list 查询按 in 查询占位绑定的值个数判断是否拆分，拆分执行的语句按绑定的值构建，不使用编译结果。
+ * 支持 SqlHandle 的 find、list、page 以及 listLong、findInteger 等按 QueryProvider 查询的方法，绑定后通过 getProvider 获取查询代理
+ * @author HuangLongPu
+ */
+public class QueryTemplate {
+
+	/**
+	 * 每个模板最多缓存的编译结果个数，超过后不再缓存，每次执行重新构建
+	 */
+	public static final int MAX_COMPILED_SIZE = 256;
+
+	private final QueryProviderHandle provider;
+	private final Map<String, Compiled> compiledCache = new ConcurrentHashMap<>();
+	/**
+	 * in 查询条件使用的占位名，创建模板时收集，只有这些占位绑定的值个数影响编译结果
+	 */
+	private final Set<String> inSlots = new HashSet<>();
+
+	public QueryTemplate(QueryProvider provider) {
+		if (provider == null) {
+			throw new HandleException("error: template QueryProvider is null");
+		}
+		this.provider = (QueryProviderHandle) provider;
+		this.collectInSlots(this.provider);
+	}
+
+	/**
+	 * 创建命名占位，作为 QueryProvider 的条件值使用
+	 * @param name
+	 * @return
+	 */
+	public static Slot slot(String name) {
+		if (ValidateTool.isEmpty(name)) {
+			throw new HandleException("error: template slot name is null");
+		}
+		return new Slot(name);
+	}
+
+	/**
+	 * 绑定占位的值，返回新的绑定，同一个模板可以在多个线程中同时绑定执行
+	 * @param name
+	 * @param value
+	 * @return
+	 */
+	public Binding bind(String name, Object value) {
+		return new Binding(this).bind(name, value);
+	}
+
+	/**
+	 * 获取已缓存的编译结果个数
+	 * @return
+	 */
+	public int getCompiledSize() {
+		return compiledCache.size();
+	}
+
+	/**
+	 * 收集查询代理及其嵌套条件、连接、union 中 in 查询条件使用的占位名
+	 * @param provider
+	 */
+	private void collectInSlots(QueryProviderHandle provider) {
+		this.collectInSlots(provider.getFilterArray());
+		this.collectProviderInSlots(provider.getProviderArray());
+		this.collectInSlots(provider.getOnFilterArray());
+		this.collectProviderInSlots(provider.getOnProviderArray());
+		if (provider.getLeftJoinProviderArray() != null) {
+			for (JoinNode join : provider.getLeftJoinProviderArray()) {
+				this.collectInSlots((QueryProviderHandle) join.getProvider());
+			}
+		}
+		if (provider.getUnionProviderArray() != null) {
+			for (UnionNode union : provider.getUnionProviderArray()) {
+				this.collectInSlots((QueryProviderHandle) union.getProvider());
+			}
+		}
+	}
+
+	private void collectInSlots(List<FilterNode> filters) {
+		if (filters == null) {
+			return;
+		}
+		for (FilterNode filter : filters) {
+			FilterEnum filterType = filter.getFilterType();
+			if (FilterEnum.IN == filterType || FilterEnum.NOT_IN == filterType) {
+				if (filter.getValue() instanceof Slot) {
+					inSlots.add(((Slot) filter.getValue()).getName());
+				}
+			} else if (FilterEnum.IN_PROVIDER == filterType || FilterEnum.NOT_IN_PROVIDER == filterType) {
+				this.collectInSlots((QueryProviderHandle) filter.getValue());
+			}
+		}
+	}
+
+	private void collectProviderInSlots(List<ProviderNode> providers) {
+		if (providers == null) {
+			return;
+		}
+		for (ProviderNode provider : providers) {
+			this.collectInSlots((QueryProviderHandle) provider.getProvider());
+		}
+	}
+
+	protected Compiled getCompiled(String key) {
+		return compiledCache.get(key);
+	}
+
+	/**
+	 * 根据构建 SQL 时记录的值来源编译参数顺序，来源为占位的记录占位名，其他记录构建时的值
+	 * @param key
+	 * @param sql
+	 * @param countSql
+	 * @param value
+	 * @return
+	 */
+	protected Compiled compile(String key, String sql, String countSql, ProviderValueMap value) {
+		List<String> keys = value.getKeys();
+		List<Object> sources = value.getSources();
+		List<int[]> positions = value.getPositions();
+		Compiled compiled = new Compiled(sql, countSql, keys.size());
+		for (int i = 0, j = keys.size(); i < j; i++) {
+			String itemKey = keys.get(i);
+			Object sourceValue = null;
+			Object source = sources.get(i);
+			if (source instanceof FilterNode) {
+				sourceValue = ((FilterNode) source).getValue();
+			} else if (source instanceof HavingNode) {
+				sourceValue = ((HavingNode) source).getValue();
+			}
+			compiled.keys[i] = itemKey;
+			compiled.elements[i] = positions.get(i)[1];
+			if (sourceValue instanceof Slot) {
+				compiled.slots[i] = ((Slot) sourceValue).getName();
+			} else {
+				compiled.constants[i] = value.get(itemKey);
+			}
+		}
+		if (compiledCache.size() < MAX_COMPILED_SIZE) {
+			compiledCache.put(key, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * 条件值的命名占位
+	 */
+	public static final class Slot {
+
+		private final String name;
+
+		private Slot(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public String toString() {
+			return "slot<" + name + ">";
+		}
+	}
+
+	/**
+	 * 模板的一次绑定，存放占位名对应的值
+	 */
+	public static final class Binding {
+
+		private final QueryTemplate template;
+		private final Map<String, Object> values = new TreeMap<>();
+
+		private Binding(QueryTemplate template) {
+			this.template = template;
+		}
+
+		public Binding bind(String name, Object value) {
+			if (ValidateTool.isEmpty(name)) {
+				throw new HandleException("error: template slot name is null");
+			}
+			values.put(name, value);
+			return this;
+		}
+
+		public QueryTemplate getTemplate() {
+			return template;
+		}
+
+		/**
+		 * 获取绑定后的查询代理，与模板共用条件、连接等结构，可传入 SqlHandle 按 QueryProvider 查询的方法
+		 * @return
+		 */
+		public QueryProvider getProvider() {
+			return template.provider.bindTemplate(this);
+		}
+
+		public <T extends CommonModel> T find(SqlHandle<T> handle) {
+			return handle.find(getProvider());
+		}
+
+		public <T extends CommonModel, M extends ResultInfo> M find(SqlHandle<T> handle, Class<M> resultCls) {
+			return handle.find(getProvider(), resultCls);
+		}
+
+		public <T extends CommonModel> List<T> list(SqlHandle<T> handle) {
+			return handle.list(getProvider());
+		}
+
+		public <T extends CommonModel, M extends ResultInfo> List<M> list(SqlHandle<T> handle, Class<M> resultCls) {
+			return handle.list(getProvider(), resultCls);
+		}
+
+		public <T extends CommonModel> PageInfo<T> page(SqlHandle<T> handle) {
+			return handle.page(getProvider());
+		}
+
+		public <T extends CommonModel, M extends ResultInfo> PageInfo<M> page(SqlHandle<T> handle, Class<M> resultCls) {
+			return handle.page(getProvider(), resultCls);
+		}
+
+		/**
+		 * 获取占位绑定的值，未绑定时抛出异常
+		 * @param name
+		 * @return
+		 */
+		protected Object getValue(String name) {
+			if (!values.containsKey(name)) {
+				throw new HandleException("error: template slot<" + name + "> is not bound");
+			}
+			return values.get(name);
+		}
+
+		/**
+		 * 编译结果的缓存 key，由表名、语句类型、是否开启条件改写和 in 查询占位绑定的值展开后的占位符个数组成，
+		 * 其他占位绑定的值不影响 key
+		 * @param tableName
+		 * @param type
+		 * @return
+		 */
+		protected String getKey(String tableName, char type) {
+			StringBuilder key = new StringBuilder(tableName).append(type);
+			if (SargableRewrite.isEnabled()) {
+				key.append('~');
+			}
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				key.append('|').append(entry.getKey()).append('#');
+				if (entry.getValue() != null && template.inSlots.contains(entry.getKey())) {
+					key.append(InFilterBucket.getBucketSize(AbstractSqlHandleMethod.getInFilterValues(entry.getValue()).length));
+				}
+			}
+			return key.toString();
+		}
+	}
+
+	/**
+	 * 编译时存放条件值的容器，in 查询的占位按绑定的值展开
+	 */
+	static final class ValueMap extends ProviderValueMap {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Binding binding;
+
+		ValueMap(Binding binding) {
+			this.binding = binding;
+		}
+
+		/**
+		 * 条件值为占位时取绑定的值
+		 * @param value
+		 * @return
+		 */
+		Object resolve(Object value) {
+			return value instanceof Slot ? binding.getValue(((Slot) value).getName()) : value;
+		}
+	}
+
+	/**
+	 * 编译结果，存放 SQL 语句以及每个条件值 key 对应的占位名或常量值
+	 */
+	protected static class Compiled {
+
+		private final String sql;
+		private final String countSql;
+		private final String[] keys;
+		private final String[] slots;
+		private final int[] elements;
+		private final Object[] constants;
+
+		private Compiled(String sql, String countSql, int size) {
+			this.sql = sql;
+			this.countSql = countSql;
+			this.keys = new String[size];
+			this.slots = new String[size];
+			this.elements = new int[size];
+			this.constants = new Object[size];
+		}
+
+		protected String getSql() {
+			return sql;
+		}
+
+		protected String getCountSql() {
+			return countSql;
+		}
+
+		/**
+		 * 按参数顺序取绑定的值放入值容器
+		 * @param binding
+		 * @return
+		 */
+		protected Map<String, Object> bind(Binding binding) {
+			Map<String, Object> value = new HashMap<>((int) (keys.length / 0.75f) + 1);
+			Map<String, Object[]> inValueCache = null;
+			for (int i = 0; i < keys.length; i++) {
+				if (slots[i] == null) {
+					value.put(keys[i], constants[i]);
+				} else if (elements[i] < 0) {
+					value.put(keys[i], binding.getValue(slots[i]));
+				} else {
+					// in 查询的占位每个值展开一次，分桶时超出值个数的位置取最后一个值
+					if (inValueCache == null) {
+						inValueCache = new HashMap<>();
+					}
+					Object[] inValues = inValueCache.computeIfAbsent(slots[i], name -> AbstractSqlHandleMethod.getInFilterValues(binding.getValue(name)));
+					value.put(keys[i], inValues[Math.min(elements[i], inValues.length - 1)]);
+				}
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.obatis.orm.sql;
+
+/**
+ * 条件改写，开启后将无法使用字段索引的条件改写为等价的范围条件，只改写条件字段为普通字段的情况：
+ * up/reduce 条件 col + ? > 0 改写为 col > -?，col - ? >= 0 改写为 col >= ?；
+ * DateFormat 条件的格式为 %Y、%Y-%m、%Y-%m-%d、%Y-%m-%d %H、%Y-%m-%d %H:%i、%Y-%m-%d %H:%i:%s 时，
+ * DATE_FORMAT(col, pattern) = ? 改写为 col >= 起始时间 and col < 结束时间，其他比较类型同理。
+ * 条件值格式不合法时改写前后的结果可能不同，默认关闭
+ * @author HuangLongPu
+ */
+public class SargableRewrite {
+
+	private static volatile boolean enabled = false;
+
+	private SargableRewrite() {
+
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 开启或关闭条件改写，是否开启是 SQL 缓存和查询模板编译结果 key 的一部分，切换后按新的设置生成语句
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		SargableRewrite.enabled = enabled;
+	}
+
+	/**
+	 * 判断是否为普通字段，表达式、函数等不改写
+	 * @param field
+	 * @return
+	 */
+	protected static boolean isPlainColumn(String field) {
+		if (field == null || field.isEmpty()) {
+			return false;
+		}
+		for (int i = 0, j = field.length(); i < j; i++) {
+			char c = field.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '#') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
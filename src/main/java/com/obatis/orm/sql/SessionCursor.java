@@ -0,0 +1,68 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 持有独立 session 的流式查询游标，逐行读取结果集，关闭游标时同时关闭 session。
+ * 使用完毕必须调用 close，建议使用 try-with-resources
+ * @author HuangLongPu
+ */
+public class SessionCursor<T> implements Cursor<T> {
+
+	private final SqlSession sqlSession;
+	private final Cursor<T> cursor;
+
+	protected SessionCursor(SqlSession sqlSession, Cursor<T> cursor) {
+		this.sqlSession = sqlSession;
+		this.cursor = cursor;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return cursor.isOpen();
+	}
+
+	@Override
+	public boolean isConsumed() {
+		return cursor.isConsumed();
+	}
+
+	@Override
+	public int getCurrentIndex() {
+		return cursor.getCurrentIndex();
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return cursor.iterator();
+	}
+
+	/**
+	 * 转换为顺序流，关闭流时关闭游标和 session
+	 * @return
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false).onClose(this::close);
+	}
+
+	@Override
+	public void close() {
+		try {
+			cursor.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new HandleException("error: close cursor fail");
+		} finally {
+			sqlSession.close();
+		}
+	}
+}
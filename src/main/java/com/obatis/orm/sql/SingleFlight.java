@@ -0,0 +1,149 @@
+package com.obatis.orm.sql;
+
+import com.obatis.config.response.result.PageInfo;
+import com.obatis.exception.HandleException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同查询合并执行，按表开启，默认不开启。开启后通过 SqlHandleFactory 查询时，查询类型、SQL 语句和条件值都相同的并发查询
+ * 只有最先发起的查询访问数据库，其余查询等待并共用该次的结果，缓存失效瞬间大量相同查询同时到达时不会占满连接池。
+ * 每个调用方获得结果的副本，复制方式与 QueryResultCache 相同；存在事务时不合并，保证读取到事务中修改的数据
+ * @author HuangLongPu
+ */
+public class SingleFlight {
+
+	private static final Set<String> TABLES = ConcurrentHashMap.newKeySet();
+	/**
+	 * 正在执行的查询，key 为查询类型、SQL 语句和条件值组成的 QueryKey，执行完成后移除
+	 */
+	private static final Map<QueryKey, CompletableFuture<Object>> CALLS = new ConcurrentHashMap<>();
+	/**
+	 * 各表被合并的查询次数
+	 */
+	private static final Map<String, LongAdder> COALESCED_COUNTS = new ConcurrentHashMap<>();
+
+	private SingleFlight() {
+
+	}
+
+	/**
+	 * 设置表是否开启相同查询合并执行
+	 * @param tableName
+	 * @param enabled
+	 */
+	public static void setEnabled(String tableName, boolean enabled) {
+		if (tableName == null || tableName.isEmpty()) {
+			throw new IllegalArgumentException("tableName is empty");
+		}
+		if (enabled) {
+			TABLES.add(tableName);
+		} else {
+			TABLES.remove(tableName);
+		}
+	}
+
+	public static boolean isEnabled(String tableName) {
+		return !TABLES.isEmpty() && TABLES.contains(tableName);
+	}
+
+	/**
+	 * 获取表被合并的查询次数，即没有访问数据库、共用其他查询结果的次数
+	 * @param tableName
+	 * @return
+	 */
+	public static long getCoalescedCount(String tableName) {
+		LongAdder count = COALESCED_COUNTS.get(tableName);
+		return count == null ? 0 : count.sum();
+	}
+
+	/**
+	 * 获取所有表被合并的查询次数，key 为表名
+	 * @return
+	 */
+	public static Map<String, Long> getCoalescedCounts() {
+		Map<String, Long> counts = new HashMap<>();
+		for (Map.Entry<String, LongAdder> entry : COALESCED_COUNTS.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().sum());
+		}
+		return counts;
+	}
+
+	public static void resetCoalescedCounts() {
+		COALESCED_COUNTS.clear();
+	}
+
+	/**
+	 * 执行查询，相同 key 的查询正在执行时等待其结果，否则执行查询并将结果交给执行期间到达的相同查询。
+	 * 查询失败时等待的查询抛出同样的异常
+	 * @param tableName
+	 * @param key
+	 * @param query
+	 * @param <R>
+	 * @return
+	 */
+	protected static <R> R execute(String tableName, QueryKey key, Supplier<R> query) {
+		CompletableFuture<Object> call = new CompletableFuture<>();
+		CompletableFuture<Object> running = CALLS.putIfAbsent(key, call);
+		if (running != null) {
+			COALESCED_COUNTS.computeIfAbsent(tableName, k -> new LongAdder()).increment();
+			@SuppressWarnings("unchecked")
+			R result = (R) copy(await(running));
+			return result;
+		}
+
+		R result;
+		try {
+			result = query.get();
+		} catch (RuntimeException | Error e) {
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			CALLS.remove(key, call);
+		}
+		call.complete(result);
+		@SuppressWarnings("unchecked")
+		R copyResult = (R) copy(result);
+		return copyResult;
+	}
+
+	private static Object await(CompletableFuture<Object> running) {
+		try {
+			return running.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new HandleException("error: coalesced query is interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new HandleException("error: coalesced query fail, " + cause.getMessage());
+		}
+	}
+
+	/**
+	 * 复制结果，分页结果复制分页对象和数据列表
+	 * @param result
+	 * @return
+	 */
+	private static Object copy(Object result) {
+		if (result instanceof PageInfo) {
+			PageInfo<?> page = (PageInfo<?>) result;
+			PageInfo<Object> copy = new PageInfo<>();
+			copy.setTotal(page.getTotal());
+			copy.setList(page.getList() == null ? null : QueryResultCache.copyList(page.getList()));
+			return copy;
+		}
+		return QueryResultCache.copy(result);
+	}
+}
@@ -0,0 +1,302 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.type.AppendTypeEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL 子句拼接器，按子句分别写入预分配的缓冲区，最后一次性输出完整语句，输出格式与 mybatis SQL 构造器一致。
+ * 每个线程复用同一组拼接器，in 子查询、union 等嵌套构建时按层级取用各自的拼接器，使用完必须调用 release 归还
+ * @author HuangLongPu
+ */
+final class SqlEmitter {
+
+	private static final int DEFAULT_CAPACITY = 256;
+	/**
+	 * 归还时容量超过该值的缓冲区收缩，避免超长 SQL 长期占用线程内存
+	 */
+	private static final int MAX_RETAIN_CAPACITY = 16384;
+	private static final ThreadLocal<SqlEmitter> LOCAL_EMITTER = ThreadLocal.withInitial(SqlEmitter::new);
+
+	/**
+	 * 查询字段，以 , 分隔
+	 */
+	final StringBuilder select = new StringBuilder(DEFAULT_CAPACITY);
+	/**
+	 * 主表及 left join 连接
+	 */
+	final StringBuilder from = new StringBuilder(DEFAULT_CAPACITY);
+	final StringBuilder where = new StringBuilder(DEFAULT_CAPACITY);
+	/**
+	 * left join 连接表的条件，最终拼接到 where 子句
+	 */
+	final StringBuilder joinWhere = new StringBuilder(DEFAULT_CAPACITY);
+	final StringBuilder group = new StringBuilder(DEFAULT_CAPACITY);
+	final StringBuilder having = new StringBuilder(DEFAULT_CAPACITY);
+	final StringBuilder order = new StringBuilder(DEFAULT_CAPACITY);
+	/**
+	 * 完整语句的输出缓冲区
+	 */
+	final StringBuilder sql = new StringBuilder(DEFAULT_CAPACITY * 4);
+	/**
+	 * group by 的字段个数
+	 */
+	int groupSize;
+	/**
+	 * left join 连接表的别名，按拼接顺序排列
+	 */
+	private final List<String> joinAliases = new ArrayList<>();
+	/**
+	 * 不影响行数的 left join 在 from 中的位置，每项为 {起始位置, 结束位置, 别名起始下标, 别名结束下标}，
+	 * 包含嵌套的连接表，统计语句中未被引用时移除
+	 */
+	private final List<int[]> neutralJoins = new ArrayList<>();
+
+	private SqlEmitter next;
+	private boolean used;
+
+	private SqlEmitter() {
+
+	}
+
+	/**
+	 * 获取当前线程可用的拼接器
+	 * @return
+	 */
+	static SqlEmitter acquire() {
+		SqlEmitter emitter = LOCAL_EMITTER.get();
+		while (emitter.used) {
+			if (emitter.next == null) {
+				emitter.next = new SqlEmitter();
+			}
+			emitter = emitter.next;
+		}
+		emitter.used = true;
+		return emitter;
+	}
+
+	/**
+	 * 归还拼接器，清空所有缓冲区
+	 */
+	void release() {
+		reset(select);
+		reset(from);
+		reset(where);
+		reset(joinWhere);
+		reset(group);
+		reset(having);
+		reset(order);
+		reset(sql);
+		groupSize = 0;
+		joinAliases.clear();
+		neutralJoins.clear();
+		used = false;
+	}
+
+	private static void reset(StringBuilder builder) {
+		builder.setLength(0);
+		if (builder.capacity() > MAX_RETAIN_CAPACITY) {
+			builder.trimToSize();
+			builder.ensureCapacity(DEFAULT_CAPACITY);
+		}
+	}
+
+	void appendColumn(CharSequence column) {
+		if (select.length() > 0) {
+			select.append(',');
+		}
+		select.append(column);
+	}
+
+	void appendGroup(CharSequence column) {
+		if (group.length() > 0) {
+			group.append(", ");
+		}
+		group.append(column);
+		groupSize++;
+	}
+
+	void appendOrder(CharSequence column) {
+		if (order.length() > 0) {
+			order.append(", ");
+		}
+		order.append(column);
+	}
+
+	/**
+	 * 记录 left join 连接表的别名
+	 * @param alias
+	 * @return 别名的下标
+	 */
+	int addJoinAlias(String alias) {
+		joinAliases.add(alias);
+		return joinAliases.size() - 1;
+	}
+
+	/**
+	 * 记录不影响行数的 left join，from 中 start 到当前末尾为该连接表及其嵌套连接表，aliasIndex 之后记录的别名均属于该连接表
+	 * @param start
+	 * @param aliasIndex
+	 */
+	void addNeutralJoin(int start, int aliasIndex) {
+		neutralJoins.add(new int[] {start, from.length(), aliasIndex, joinAliases.size()});
+	}
+
+	/**
+	 * 将 left join 连接表的条件合并到 where 子句
+	 */
+	void mergeJoinWhere() {
+		if (joinWhere.length() > 0) {
+			if (where.length() > 0) {
+				where.append(AppendTypeEnum.AND.getJoinTypeName());
+			}
+			where.append(joinWhere);
+		}
+	}
+
+	/**
+	 * 输出查询语句，包含 where、group by、having、order by 子句
+	 * @param out
+	 */
+	void emitSelect(StringBuilder out) {
+		out.append("SELECT ").append(select);
+		emitFrom(out);
+		emitWhere(out);
+		emitGroup(out);
+		if (order.length() > 0) {
+			out.append("\nORDER BY ").append(order);
+		}
+	}
+
+	/**
+	 * 输出 count 语句，包含 where、group by、having 子句，不影响行数且未被引用的 left join 不输出
+	 * @param out
+	 */
+	void emitCount(StringBuilder out) {
+		out.append("SELECT count(1)");
+		emitCountFrom(out);
+		emitWhere(out);
+		emitGroup(out);
+	}
+
+	/**
+	 * 是否可以用 count(distinct) 统计分组个数，只有一个分组字段且没有 having 子句时可以
+	 * @return
+	 */
+	boolean isDistinctCount() {
+		return groupSize == 1 && having.length() == 0;
+	}
+
+	/**
+	 * 输出单个字段分组的分组个数统计语句，count(distinct) 不统计 null，存在 null 值时加上 null 值的分组
+	 * @param out
+	 */
+	void emitDistinctCount(StringBuilder out) {
+		out.append("SELECT count(distinct ").append(group).append(") + CASE WHEN count(1) > count(").append(group).append(") THEN 1 ELSE 0 END");
+		emitCountFrom(out);
+		emitWhere(out);
+	}
+
+	private void emitFrom(StringBuilder out) {
+		out.append("\nFROM ").append(from);
+	}
+
+	private void emitCountFrom(StringBuilder out) {
+		if (neutralJoins.isEmpty()) {
+			emitFrom(out);
+			return;
+		}
+
+		/**
+		 * 按起始位置排序，外层连接表在前，外层移除时嵌套的连接表一并移除
+		 */
+		neutralJoins.sort((a, b) -> Integer.compare(a[0], b[0]));
+		out.append("\nFROM ");
+		int offset = 0;
+		for (int[] join : neutralJoins) {
+			if (join[0] < offset || isJoinReferenced(join)) {
+				continue;
+			}
+			out.append(from, offset, join[0]);
+			offset = join[1];
+		}
+		out.append(from, offset, from.length());
+	}
+
+	/**
+	 * 判断连接表的别名是否被 where、group by、having 子句或其他连接表引用
+	 * @param join
+	 * @return
+	 */
+	private boolean isJoinReferenced(int[] join) {
+		for (int i = join[2]; i < join[3]; i++) {
+			String alias = joinAliases.get(i);
+			if (containsAlias(where, 0, where.length(), alias) || containsAlias(group, 0, group.length(), alias)
+					|| containsAlias(having, 0, having.length(), alias) || containsAlias(from, 0, join[0], alias)
+					|| containsAlias(from, join[1], from.length(), alias)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 判断缓冲区 start 到 end 之间是否有 "别名." 形式的引用
+	 * @param builder
+	 * @param start
+	 * @param end
+	 * @param alias
+	 * @return
+	 */
+	private static boolean containsAlias(StringBuilder builder, int start, int end, String alias) {
+		String prefix = alias + ".";
+		int index = start;
+		while ((index = builder.indexOf(prefix, index)) >= 0 && index + prefix.length() <= end) {
+			if (index == 0 || !isIdentifierPart(builder.charAt(index - 1))) {
+				return true;
+			}
+			index++;
+		}
+		return false;
+	}
+
+	private static boolean isIdentifierPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	void emitWhere(StringBuilder out) {
+		if (where.length() > 0) {
+			out.append("\nWHERE (").append(where).append(')');
+		}
+	}
+
+	private void emitGroup(StringBuilder out) {
+		if (group.length() > 0) {
+			out.append("\nGROUP BY ").append(group);
+		}
+		if (having.length() > 0) {
+			out.append("\nHAVING (").append(having).append(')');
+		}
+	}
+
+	/**
+	 * 判断缓冲区从 offset 开始是否以 prefix 开头
+	 * @param builder
+	 * @param offset
+	 * @param prefix
+	 * @return
+	 */
+	static boolean startsWith(StringBuilder builder, int offset, String prefix) {
+		int length = prefix.length();
+		if (builder.length() - offset < length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (builder.charAt(offset + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -2,34 +2,62 @@ package com.obatis.orm.sql;
 
 import com.obatis.config.response.result.PageInfo;
 import com.obatis.config.response.result.ResultInfo;
+import com.obatis.config.response.result.SeekPageInfo;
 import com.obatis.exception.HandleException;
 import com.obatis.orm.SqlHandle;
 import com.obatis.orm.constant.CacheInfoConstant;
 import com.obatis.orm.constant.SqlConstant;
+import com.obatis.orm.constant.type.BatchInsertEnum;
+import com.obatis.orm.constant.type.InFilterStrategyEnum;
+import com.obatis.orm.constant.type.PageCountEnum;
+import com.obatis.orm.convert.BeanCacheConvert;
+import com.obatis.orm.convert.EntityAccessor;
 import com.obatis.orm.mapper.BaseBeanSessionMapper;
 import com.obatis.orm.mapper.BaseResultSessionMapper;
+import com.obatis.orm.mapper.CommonMapper;
 import com.obatis.orm.mapper.factory.BeanSessionMapperFactory;
 import com.obatis.orm.mapper.factory.ResultSessionMapperFactory;
+import com.obatis.orm.model.BatchInsertInfo;
 import com.obatis.orm.model.CommonField;
 import com.obatis.orm.model.CommonModel;
 import com.obatis.orm.provider.DeleteProvider;
 import com.obatis.orm.provider.QueryProvider;
 import com.obatis.orm.provider.UpdateProvider;
+import com.obatis.orm.provider.condition.handle.ConditionProviderHandle;
 import com.obatis.orm.provider.handle.ProviderBuilder;
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.provider.node.OrderNode;
 import com.obatis.tools.ValidateTool;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Resource;
 import java.lang.reflect.ParameterizedType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * SqlHandleFactory 数据库操作类，提供对数据库操作的入口，并进行简要封装
@@ -43,9 +71,14 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	private String tableName;
 	private String canonicalName;
 	private BaseBeanSessionMapper<T> baseBeanSessionMapper;
+	/**
+	 * findById 批量加载器，key 为返回类型
+	 */
+	private final Map<String, IdBatchLoader> idBatchLoaders = new ConcurrentHashMap<>();
 
 	@Resource
 	private SqlSession sqlSession;
+	private SqlSessionFactory sqlSessionFactory;
 
 	/**
 	 * 获取泛型注入类的 sessionMapper
@@ -78,14 +111,7 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 			throw new HandleException("error: resultCls is null");
 		}
 
-		Map<String, BaseResultSessionMapper<M>> resultMapperMap = new HashMap<>();
-		if (resultMapperMap.containsKey(resultCls.getCanonicalName())) {
-			return resultMapperMap.get(resultCls.getCanonicalName());
-		}
-
-		BaseResultSessionMapper<M> resultMapper = (BaseResultSessionMapper<M>) ResultSessionMapperFactory.getSessionMapper(sqlSession, resultCls.getCanonicalName());
-		resultMapperMap.put(resultCls.getCanonicalName(), resultMapper);
-		return resultMapper;
+		return (BaseResultSessionMapper<M>) ResultSessionMapperFactory.getSessionMapper(sqlSession, resultCls.getCanonicalName());
 	}
 
 	/**
@@ -107,10 +133,7 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 			getEntityCls();
 		}
 		if (ValidateTool.isEmpty(tableName)) {
-			String clsName = entityCls.getCanonicalName();
-			if (CacheInfoConstant.TABLE_CACHE.containsKey(clsName)) {
-				tableName = CacheInfoConstant.TABLE_CACHE.get(clsName);
-			}
+			tableName = CacheInfoConstant.TABLE_CACHE.get(entityCls.getCanonicalName());
 		}
 		return tableName;
 	}
@@ -126,7 +149,9 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 		if (!(t instanceof CommonModel)) {
 			throw new HandleException("error: entity is not instanceof CommonModel");
 		}
-		return this.getBaseBeanSessionMapper().insert(t, getTableName(), entityCls);
+		int count = this.getBaseBeanSessionMapper().insert(t, getTableName(), entityCls);
+		this.invalidateCacheByEntity(Collections.singletonList(t));
+		return count;
 	}
 
 	/**
@@ -136,7 +161,195 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public int batchInsert(List<T> list) throws HandleException {
-		return this.getBaseBeanSessionMapper().insertBatch(list, getTableName(), entityCls);
+		int count = this.getBaseBeanSessionMapper().insertBatch(list, getTableName(), entityCls);
+		this.invalidateCacheByEntity(list);
+		return count;
+	}
+
+	/**
+	 * 批量添加，指定执行方式，JDBC_BATCH 方式默认每 1000 条提交一次，返回影响行数
+	 * @param list
+	 * @param batchInsertType
+	 * @return
+	 * @throws HandleException
+	 */
+	@Override
+	public int batchInsert(List<T> list, BatchInsertEnum batchInsertType) throws HandleException {
+		return this.batchInsert(list, batchInsertType, SqlConstant.DEFAULT_BATCH_FLUSH_SIZE);
+	}
+
+	/**
+	 * 批量添加，指定执行方式，返回影响行数
+	 * JDBC_BATCH 方式使用固定的单行 insert 语句，在 BATCH 执行器的 session 中逐条 addBatch，每 flushSize 条提交一次，
+	 * 语句不随数据量变化，不受 max_allowed_packet 和占位符个数限制。存在事务时使用事务中的连接执行
+	 * @param list
+	 * @param batchInsertType
+	 * @param flushSize
+	 * @return
+	 * @throws HandleException
+	 */
+	@Override
+	public int batchInsert(List<T> list, BatchInsertEnum batchInsertType, int flushSize) throws HandleException {
+
+		if (batchInsertType != BatchInsertEnum.JDBC_BATCH) {
+			return this.batchInsert(list);
+		}
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batch insert list is empty");
+		}
+		if (flushSize <= 0) {
+			throw new HandleException("error: batch insert flushSize must be greater than 0");
+		}
+
+		String tableName = this.getTableName();
+		Class<?> mapperCls = BeanSessionMapperFactory.getSessionMapperClass(sqlSession, canonicalName);
+		int count = 0;
+		try (SqlSession batchSession = this.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+			@SuppressWarnings("unchecked")
+			BaseBeanSessionMapper<T> batchMapper = (BaseBeanSessionMapper<T>) batchSession.getMapper(mapperCls);
+			for (int i = 0, j = list.size(); i < j; i++) {
+				T t = list.get(i);
+				if (!(t instanceof CommonModel)) {
+					throw new HandleException("error: entity is not instanceof CommonModel");
+				}
+				batchMapper.insertRow(t, tableName, entityCls);
+				if ((i + 1) % flushSize == 0) {
+					count += getBatchCount(batchSession.flushStatements());
+				}
+			}
+			count += getBatchCount(batchSession.flushStatements());
+			batchSession.commit();
+		}
+		this.invalidateCacheByEntity(list);
+		return count;
+	}
+
+	/**
+	 * 分批添加，每 chunkSize 条为一批依次执行，返回每批的行数和耗时。
+	 * 没有事务时每批单独提交，某一批失败时之前的批次已添加
+	 * @param list
+	 * @param chunkSize
+	 * @return
+	 * @throws HandleException
+	 */
+	@Override
+	public BatchInsertInfo batchInsert(List<T> list, int chunkSize) throws HandleException {
+		return this.batchInsert(list, chunkSize, false);
+	}
+
+	/**
+	 * 分批添加，每 chunkSize 条为一批，整批的 insert 语句只生成一次。
+	 * parallel 为 true 且当前没有事务时，多批提交到有界线程池，分别从连接池获取连接并行执行；
+	 * 存在事务时始终在当前线程依次执行，保证使用事务中的连接。
+	 * 没有事务时每批单独提交，某一批执行失败或等待被中断时抛出异常，已执行的批次不会回滚，需要整体成功或失败时应在事务中调用
+	 * @param list
+	 * @param chunkSize
+	 * @param parallel
+	 * @return
+	 * @throws HandleException
+	 */
+	@Override
+	public BatchInsertInfo batchInsert(List<T> list, int chunkSize, boolean parallel) throws HandleException {
+
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batch insert list is empty");
+		}
+		if (chunkSize <= 0) {
+			throw new HandleException("error: batch insert chunkSize must be greater than 0");
+		}
+
+		String tableName = this.getTableName();
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		int size = list.size();
+		int chunkCount = (size + chunkSize - 1) / chunkSize;
+		BatchInsertInfo info = new BatchInsertInfo();
+		info.setRows(size);
+		long begin = System.currentTimeMillis();
+
+		try {
+			if (!parallel || chunkCount == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+				for (int i = 0; i < chunkCount; i++) {
+					info.addChunk(insertChunk(mapper, list, i, chunkSize, tableName));
+				}
+			} else {
+				List<Future<BatchInsertInfo.ChunkInfo>> futures = new ArrayList<>(chunkCount);
+				for (int i = 0; i < chunkCount; i++) {
+					final int index = i;
+					futures.add(SqlTaskExecutor.submit(() -> insertChunk(mapper, list, index, chunkSize, tableName)));
+				}
+				HandleException error = null;
+				for (Future<BatchInsertInfo.ChunkInfo> future : futures) {
+					try {
+						info.addChunk(future.get());
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						for (Future<BatchInsertInfo.ChunkInfo> running : futures) {
+							running.cancel(true);
+						}
+						throw new HandleException("error: batch insert is interrupted");
+					} catch (ExecutionException e) {
+						if (error == null) {
+							e.getCause().printStackTrace();
+							error = new HandleException("error: batch insert chunk fail, " + e.getCause().getMessage());
+						}
+					}
+				}
+				if (error != null) {
+					throw error;
+				}
+			}
+		} finally {
+			/**
+			 * 执行失败时已提交的批次也添加了数据，同样移除缓存
+			 */
+			this.invalidateCacheByEntity(list);
+		}
+
+		int count = 0;
+		for (BatchInsertInfo.ChunkInfo chunk : info.getChunks()) {
+			count += chunk.getCount();
+		}
+		info.setCount(count);
+		info.setCostMillis(System.currentTimeMillis() - begin);
+		return info;
+	}
+
+	private BatchInsertInfo.ChunkInfo insertChunk(BaseBeanSessionMapper<T> mapper, List<T> list, int index, int chunkSize, String tableName) {
+		int from = index * chunkSize;
+		List<T> chunk = list.subList(from, Math.min(from + chunkSize, list.size()));
+		long begin = System.currentTimeMillis();
+		int count = mapper.insertBatchChunk(chunk, tableName, entityCls);
+		return new BatchInsertInfo.ChunkInfo(index, chunk.size(), count, System.currentTimeMillis() - begin);
+	}
+
+	/**
+	 * 获取 sqlSession 对应的 SqlSessionFactory，用于打开其他执行器类型的 session
+	 * @return
+	 */
+	private SqlSessionFactory getSqlSessionFactory() {
+		if (sqlSessionFactory == null) {
+			sqlSessionFactory = new DefaultSqlSessionFactory(sqlSession.getConfiguration());
+		}
+		return sqlSessionFactory;
+	}
+
+	/**
+	 * 统计 batch 执行的影响行数，驱动返回 SUCCESS_NO_INFO 时按 1 行计算
+	 * @param results
+	 * @return
+	 */
+	private static int getBatchCount(List<BatchResult> results) {
+		int count = 0;
+		for (BatchResult result : results) {
+			for (int updateCount : result.getUpdateCounts()) {
+				if (updateCount > 0) {
+					count += updateCount;
+				} else if (updateCount == Statement.SUCCESS_NO_INFO) {
+					count++;
+				}
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -153,7 +366,9 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 		
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, provider);
-		return this.getBaseBeanSessionMapper().update(paramMap, this.getTableName());
+		int count = this.getBaseBeanSessionMapper().update(paramMap, this.getTableName());
+		this.invalidateCacheByFilter(Collections.singletonList((ConditionProviderHandle) provider));
+		return count;
 	}
 
 	/**
@@ -164,14 +379,107 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public int batchUpdate(List<UpdateProvider> list) throws HandleException {
-		
+		int count = 0;
+		for (int updateCount : this.batchUpdateCounts(list)) {
+			if (updateCount > 0) {
+				count += updateCount;
+			} else if (updateCount == Statement.SUCCESS_NO_INFO) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 批量更新，返回每个操作对象的影响行数，默认每 1000 条提交一次
+	 * @param list
+	 * @return
+	 * @throws HandleException
+	 */
+	@Override
+	public int[] batchUpdateCounts(List<UpdateProvider> list) throws HandleException {
+		return this.batchUpdateCounts(list, SqlConstant.DEFAULT_BATCH_FLUSH_SIZE);
+	}
+
+	/**
+	 * 批量更新，返回每个操作对象的影响行数，下标与 list 一致，驱动未返回行数时为 Statement.SUCCESS_NO_INFO。
+	 * 每 flushSize 条为一批，批内按 update 语句分组，相同语句的操作对象连续 addBatch，每种语句只预编译一次，
+	 * 每批提交后释放绑定值，不再拼接为一条多语句 SQL，无需开启 allowMultiQueries。
+	 * 批内不同语句的执行顺序与 list 顺序可能不同，相同语句之间保持 list 顺序。存在事务时使用事务中的连接执行
+	 * @param list
+	 * @param flushSize
+	 * @return
+	 * @throws HandleException
+	 */
+	@Override
+	public int[] batchUpdateCounts(List<UpdateProvider> list, int flushSize) throws HandleException {
+
 		if(list == null || list.isEmpty()) {
 			throw new HandleException("error: batchUpdate UpdateProvider is empty");
 		}
-		
-		Map<String, Object> paramMap = new HashMap<>();
-		paramMap.put(SqlConstant.PROVIDER_OBJ, list);
-		return this.getBaseBeanSessionMapper().updateBatch(paramMap, this.getTableName());
+		if (flushSize <= 0) {
+			throw new HandleException("error: batch update flushSize must be greater than 0");
+		}
+
+		String tableName = this.getTableName();
+		Class<?> mapperCls = BeanSessionMapperFactory.getSessionMapperClass(sqlSession, canonicalName);
+		int size = list.size();
+		int[] counts = new int[size];
+		try (SqlSession batchSession = this.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+			@SuppressWarnings("unchecked")
+			BaseBeanSessionMapper<T> batchMapper = (BaseBeanSessionMapper<T>) batchSession.getMapper(mapperCls);
+			for (int from = 0; from < size; from += flushSize) {
+				int to = Math.min(from + flushSize, size);
+				/**
+				 * key 为 update 语句，value 为使用该语句的操作对象下标
+				 */
+				Map<String, List<Integer>> sqlIndexMap = new LinkedHashMap<>();
+				List<Map<String, Object>> paramList = new ArrayList<>(to - from);
+				for (int i = from; i < to; i++) {
+					UpdateProvider provider = list.get(i);
+					if (provider == null) {
+						throw new HandleException("error: batchUpdate UpdateProvider is null");
+					}
+					Map<String, Object> paramMap = new HashMap<>();
+					paramMap.put(SqlConstant.PROVIDER_OBJ, provider);
+					String sql = SqlHandleProvider.getUpdateSql(paramMap, tableName);
+					sqlIndexMap.computeIfAbsent(sql, key -> new ArrayList<>()).add(i);
+					paramList.add(paramMap);
+				}
+
+				int[] executeIndex = new int[to - from];
+				int executeCount = 0;
+				for (Map.Entry<String, List<Integer>> entry : sqlIndexMap.entrySet()) {
+					for (int index : entry.getValue()) {
+						batchMapper.updateBySql(entry.getKey(), paramList.get(index - from));
+						executeIndex[executeCount++] = index;
+					}
+				}
+
+				/**
+				 * 执行结果按语句的执行顺序返回，依次对应到操作对象的下标
+				 */
+				executeCount = 0;
+				for (BatchResult result : batchSession.flushStatements()) {
+					for (int updateCount : result.getUpdateCounts()) {
+						counts[executeIndex[executeCount++]] = updateCount;
+					}
+				}
+			}
+			batchSession.commit();
+		} finally {
+			/**
+			 * 执行失败时已提交的批次也可能修改了数据，同样移除缓存
+			 */
+			List<ConditionProviderHandle> providers = new ArrayList<>(size);
+			for (UpdateProvider provider : list) {
+				if (provider != null) {
+					providers.add((ConditionProviderHandle) provider);
+				}
+			}
+			this.invalidateCacheByFilter(providers);
+		}
+		return counts;
 	}
 	
 	/**
@@ -184,7 +492,9 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 		if(id == null) {
 			throw new HandleException("deleteById >> id is null");
 		}
-		return this.getBaseBeanSessionMapper().deleteById(id, this.getTableName());
+		int count = this.getBaseBeanSessionMapper().deleteById(id, this.getTableName());
+		this.invalidateCacheById(id);
+		return count;
 	}
 
 	/**
@@ -194,12 +504,67 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public int delete(DeleteProvider provider) throws HandleException {
-		return this.getBaseBeanSessionMapper().delete(getProviderParamsMapInfo(provider), this.getTableName());
+		int count = this.getBaseBeanSessionMapper().delete(getProviderParamsMapInfo(provider), this.getTableName());
+		this.invalidateCacheByFilter(Collections.singletonList((ConditionProviderHandle) provider));
+		return count;
+	}
+
+	/**
+	 * 添加数据后移除查询结果缓存中标记了该表的结果，以及实体缓存中相同 id 的记录，
+	 * 设置了 CacheSyncBus 时同时发布失效事件，本节点未开启实体缓存时也发布受影响的 id，以下同
+	 * @param list
+	 */
+	private void invalidateCacheByEntity(List<T> list) {
+		String tableName = this.getTableName();
+		QueryResultCache.invalidate(tableName);
+		List<Object> ids = new ArrayList<>();
+		for (T t : list) {
+			if (t != null && t.getId() != null) {
+				ids.add(t.getId());
+			}
+		}
+		EntityCache cache = EntityCache.getCache(tableName);
+		if (cache != null) {
+			cache.invalidate(ids);
+		}
+		CacheSync.publish(tableName, ids);
+	}
+
+	/**
+	 * 更新或删除数据后移除查询结果缓存中标记了该表的结果，以及实体缓存中受影响的记录，无法确定受影响的 id 时清空整张表
+	 * @param providers
+	 */
+	private void invalidateCacheByFilter(List<ConditionProviderHandle> providers) {
+		String tableName = this.getTableName();
+		QueryResultCache.invalidate(tableName);
+		Set<String> ids = EntityCache.getFilterIds(providers);
+		EntityCache cache = EntityCache.getCache(tableName);
+		if (cache != null) {
+			cache.invalidateFilter(ids);
+		}
+		CacheSync.publish(tableName, ids);
+	}
+
+	/**
+	 * 根据 id 删除数据后移除查询结果缓存中标记了该表的结果，以及实体缓存中该 id 的记录
+	 * @param id
+	 */
+	private void invalidateCacheById(Object id) {
+		String tableName = this.getTableName();
+		QueryResultCache.invalidate(tableName);
+		List<Object> ids = Collections.singletonList(id);
+		EntityCache cache = EntityCache.getCache(tableName);
+		if (cache != null) {
+			cache.invalidate(ids);
+		}
+		CacheSync.publish(tableName, ids);
 	}
 
 	/**
 	 * 1、根据id主键查询一条记录，返回所有字段。
 	 * 2、如果根据条件有多条数据符合，则抛出异常。
+	 * 3、开启实体缓存时优先从缓存获取，存在事务时不使用缓存，保证读取到事务中修改的数据
+	 * 4、表开启了 IdBatchLoader 且当前没有事务时，缓存未命中的 id 与并发的 findById 合并为一条 in 查询
 	 * @param id
 	 * @return
 	 */
@@ -208,6 +573,28 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 		if(id == null) {
 			throw new HandleException("findById >> id is null");
 		}
+		EntityCache cache = EntityCache.getCache(this.getTableName());
+		if (cache == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+			return this.loadById(id);
+		}
+
+		T t = entityCls.cast(cache.get(id));
+		if (t != null) {
+			return t;
+		}
+		long version = cache.getVersion();
+		long begin = System.nanoTime();
+		t = this.loadById(id);
+		cache.put(id, t, version, System.nanoTime() - begin);
+		return t;
+	}
+
+	private T loadById(Object id) {
+		if (this.isIdBatchLoad()) {
+			IdBatchLoader loader = idBatchLoaders.computeIfAbsent(canonicalName, key -> new IdBatchLoader(this.getTableName(),
+					ids -> this.list(getIdsProvider(ids)), row -> ((CommonModel) row).getId()));
+			return entityCls.cast(loader.load(id));
+		}
 		QueryProvider param = ProviderBuilder.query();
 		param.equal(CommonField.FIELD_ID, id);
 		return this.find(param);
@@ -216,17 +603,36 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	/**
 	 * 1、根据id主键查询一条记录，返回所有字段，返回类型为预设的class类型，需强制转换一次。
 	 * 2、如果根据条件有多条数据符合，则抛出异常。
+	 * 3、表开启了 IdBatchLoader、当前没有事务且返回类型包含 id 字段时，与并发的 findById 合并为一条 in 查询
 	 * @param id
 	 * @param resultCls
 	 * @return
 	 */
 	@Override
 	public <M extends ResultInfo> M findById(Object id, Class<M> resultCls) {
+		if (this.isIdBatchLoad()) {
+			EntityAccessor.FieldAccessor idField = BeanCacheConvert.getResultAccessor(resultCls).getField(CommonField.FIELD_ID);
+			if (idField != null) {
+				IdBatchLoader loader = idBatchLoaders.computeIfAbsent(resultCls.getCanonicalName(), key -> new IdBatchLoader(this.getTableName(),
+						ids -> this.list(getIdsProvider(ids), resultCls), idField::get));
+				return resultCls.cast(loader.load(id));
+			}
+		}
 		QueryProvider param = ProviderBuilder.query();
 		param.equal(CommonField.FIELD_ID, id);
 		return this.find(param, resultCls);
 	}
 
+	private boolean isIdBatchLoad() {
+		return IdBatchLoader.isEnabled(this.getTableName()) && !TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	private static QueryProvider getIdsProvider(List<Object> ids) {
+		QueryProvider param = ProviderBuilder.query();
+		param.in(CommonField.FIELD_ID, ids);
+		return param;
+	}
+
 	/**
 	 * 1、根据id主键查询一条记录，返回设定的字段。
 	 * 2、如果根据条件有多条数据符合，则抛出异常。
@@ -268,7 +674,7 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public T find(QueryProvider provider) {
-		return this.getBaseBeanSessionMapper().find(getProviderParamsMapInfo(provider), this.getTableName());
+		return this.queryCacheable(provider, "find", param -> this.getBaseBeanSessionMapper().find(param, this.getTableName()));
 	}
 
 	/**
@@ -280,7 +686,8 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public <M extends ResultInfo> M find(QueryProvider provider, Class<M> resultCls) {
-		return this.getBaseResultSessionMapper(resultCls).find(getProviderParamsMapInfo(provider), this.getTableName());
+		return this.queryCacheable(provider, "find:" + resultCls.getCanonicalName(),
+				param -> this.getBaseResultSessionMapper(resultCls).find(param, this.getTableName()));
 	}
 
 	/**
@@ -291,7 +698,7 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	@Override
 	public T findOne(QueryProvider provider) {
 		provider.setLimit(1);
-		return this.getBaseBeanSessionMapper().find(getProviderParamsMapInfo(provider), this.getTableName());
+		return this.queryCacheable(provider, "find", param -> this.getBaseBeanSessionMapper().find(param, this.getTableName()));
 	}
 
 	/**
@@ -304,7 +711,8 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	@Override
 	public <M extends ResultInfo> M findOne(QueryProvider provider, Class<M> resultCls) {
 		provider.setLimit(1);
-		return this.getBaseResultSessionMapper(resultCls).find(getProviderParamsMapInfo(provider), this.getTableName());
+		return this.queryCacheable(provider, "find:" + resultCls.getCanonicalName(),
+				param -> this.getBaseResultSessionMapper(resultCls).find(param, this.getTableName()));
 	}
 	
 	/**
@@ -325,7 +733,7 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public Map<String, Object> findConvertMap(QueryProvider provider) {
-		return this.getBaseBeanSessionMapper().findToMap(getProviderParamsMapInfo(provider), this.getTableName());
+		return this.queryCacheable(provider, "findMap", param -> this.getBaseBeanSessionMapper().findToMap(param, this.getTableName()));
 	}
 
 	/**
@@ -336,7 +744,13 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public List<T> list(QueryProvider provider) {
-		return this.getBaseBeanSessionMapper().list(getProviderParamsMapInfo(provider), this.getTableName());
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		String tableName = this.getTableName();
+		FilterNode chunkFilter = InFilterChunk.getChunkFilter((QueryProviderHandle) provider);
+		if (chunkFilter != null) {
+			return this.listInChunk(provider, chunkFilter, param -> mapper.list(param, tableName));
+		}
+		return this.queryCacheable(provider, "list", param -> mapper.list(param, tableName));
 	}
 
 	/**
@@ -347,7 +761,13 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public <M extends ResultInfo> List<M> list(QueryProvider provider, Class<M> resultCls) {
-		return this.getBaseResultSessionMapper(resultCls).list(getProviderParamsMapInfo(provider), this.getTableName());
+		BaseResultSessionMapper<M> mapper = this.getBaseResultSessionMapper(resultCls);
+		String tableName = this.getTableName();
+		FilterNode chunkFilter = InFilterChunk.getChunkFilter((QueryProviderHandle) provider);
+		if (chunkFilter != null) {
+			return this.listInChunk(provider, chunkFilter, param -> mapper.list(param, tableName));
+		}
+		return this.queryCacheable(provider, "list:" + resultCls.getCanonicalName(), param -> mapper.list(param, tableName));
 	}
 
 	/**
@@ -358,7 +778,163 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public List<Map<String, Object>> listConvertMap(QueryProvider provider) {
-		return this.getBaseBeanSessionMapper().query(getProviderParamsMapInfo(provider), this.getTableName());
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		String tableName = this.getTableName();
+		FilterNode chunkFilter = InFilterChunk.getChunkFilter((QueryProviderHandle) provider);
+		if (chunkFilter != null) {
+			return this.listInChunk(provider, chunkFilter, param -> mapper.query(param, tableName));
+		}
+		return this.queryCacheable(provider, "listMap", param -> mapper.query(param, tableName));
+	}
+
+	/**
+	 * 执行可缓存的查询，provider 设置了 cacheable 且当前没有事务时，按查询类型、语句和条件值从结果缓存获取，
+	 * 未命中时执行查询并放入缓存。表开启了 SingleFlight 时，相同 key 的并发查询合并为一次执行。
+	 * 生成 key 时生成的语句放入参数，执行查询时不再重新生成
+	 * @param provider
+	 * @param type      查询类型，返回结果类型不同的查询不共用缓存
+	 * @param query     按参数执行查询
+	 * @param <R>
+	 * @return
+	 */
+	private <R> R queryCacheable(QueryProvider provider, String type, Function<Map<String, Object>, R> query) {
+		QueryProviderHandle queryProvider = (QueryProviderHandle) provider;
+		long cacheMillis = queryProvider.getResultCacheMillis();
+		String tableName = this.getTableName();
+		boolean coalesce = SingleFlight.isEnabled(tableName);
+		if ((cacheMillis <= 0 && !coalesce) || TransactionSynchronizationManager.isActualTransactionActive()) {
+			return query.apply(getProviderParamsMapInfo(provider));
+		}
+
+		Map<String, Object> paramMap = getProviderParamsMapInfo(provider);
+		String sql = SqlHandleProvider.getSelectSql(paramMap, tableName);
+		paramMap.put(SqlConstant.PROVIDER_SELECT_SQL, sql);
+		QueryKey key = QueryKey.of(sql, (Map<?, ?>) paramMap.get(SqlConstant.PROVIDER_FILTER), type);
+		if (cacheMillis <= 0) {
+			return SingleFlight.execute(tableName, key, () -> query.apply(paramMap));
+		}
+
+		QueryResultCache.Entry entry = QueryResultCache.get(key);
+		if (entry != null) {
+			@SuppressWarnings("unchecked")
+			R result = (R) entry.getResult();
+			return result;
+		}
+
+		Supplier<R> load = () -> {
+			String[] tables = QueryResultCache.getTables(queryProvider, tableName);
+			long[] versions = QueryResultCache.getVersions(tables);
+			R result = query.apply(paramMap);
+			QueryResultCache.put(key, result, tables, versions, cacheMillis);
+			return result;
+		};
+		return coalesce ? SingleFlight.execute(tableName, key, load) : load.get();
+	}
+
+	/**
+	 * 执行 list 查询，开启 InFilterChunk 且 in 查询值的个数超过阈值时，按批次拆分为多条语句执行，结果按批次顺序合并。
+	 * 设置并行且当前没有事务时，多批提交到有界线程池并行执行；存在事务时始终在当前线程依次执行，保证使用事务中的连接。
+	 * 拆分执行的查询不使用结果缓存，也不合并执行
+	 * @param provider
+	 * @param filter    需要拆分的 in 条件
+	 * @param query
+	 * @param <M>
+	 * @return
+	 */
+	private <M> List<M> listInChunk(QueryProvider provider, FilterNode filter, Function<Map<String, Object>, List<M>> query) {
+
+		List<Object[]> chunks = InFilterChunk.split((QueryProviderHandle) provider, filter);
+		int chunkCount = chunks.size();
+		List<List<M>> results = new ArrayList<>(chunkCount);
+		if (!InFilterChunk.isParallel() || chunkCount == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+			InFilterChunk.record(InFilterStrategyEnum.CHUNK, chunkCount);
+			for (Object[] chunk : chunks) {
+				results.add(query.apply(getChunkParamsMapInfo(provider, filter, chunk)));
+			}
+		} else {
+			InFilterChunk.record(InFilterStrategyEnum.PARALLEL_CHUNK, chunkCount);
+			List<Future<List<M>>> futures = new ArrayList<>(chunkCount);
+			for (Object[] chunk : chunks) {
+				Map<String, Object> param = getChunkParamsMapInfo(provider, filter, chunk);
+				futures.add(SqlTaskExecutor.submit(() -> query.apply(param)));
+			}
+			HandleException error = null;
+			for (Future<List<M>> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new HandleException("error: in chunk query is interrupted");
+				} catch (ExecutionException e) {
+					if (error == null) {
+						e.getCause().printStackTrace();
+						error = new HandleException("error: in chunk query fail, " + e.getCause().getMessage());
+					}
+				}
+			}
+			if (error != null) {
+				throw error;
+			}
+		}
+
+		int size = 0;
+		for (List<M> result : results) {
+			size += result.size();
+		}
+		List<M> list = new ArrayList<>(size);
+		for (List<M> result : results) {
+			list.addAll(result);
+		}
+		return list;
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象流式查询，结果逐行读取并转换，不一次性加载到内存。
+	 * 游标在独立的 session 中打开，存在事务时使用事务中的连接，关闭游标时关闭 session
+	 * @param provider
+	 * @return
+	 */
+	@Override
+	public SessionCursor<T> cursor(QueryProvider provider) {
+		String tableName = this.getTableName();
+		return this.openCursor(BeanSessionMapperFactory.getSessionMapperClass(sqlSession, canonicalName), provider, tableName);
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象流式查询，返回类型为预设的 class 类型
+	 * @param provider
+	 * @param resultCls
+	 * @return
+	 */
+	@Override
+	public <M extends ResultInfo> SessionCursor<M> cursor(QueryProvider provider, Class<M> resultCls) {
+		if (resultCls == null) {
+			throw new HandleException("error: resultCls is null");
+		}
+		String tableName = this.getTableName();
+		return this.openCursor(ResultSessionMapperFactory.getSessionMapperClass(sqlSession, resultCls.getCanonicalName()), provider, tableName);
+	}
+
+	@Override
+	public Stream<T> stream(QueryProvider provider) {
+		return this.cursor(provider).stream();
+	}
+
+	@Override
+	public <M extends ResultInfo> Stream<M> stream(QueryProvider provider, Class<M> resultCls) {
+		return this.cursor(provider, resultCls).stream();
+	}
+
+	private <M> SessionCursor<M> openCursor(Class<?> mapperCls, QueryProvider provider, String tableName) {
+		SqlSession cursorSession = this.getSqlSessionFactory().openSession();
+		try {
+			@SuppressWarnings("unchecked")
+			CommonMapper<M> mapper = (CommonMapper<M>) cursorSession.getMapper(mapperCls);
+			return new SessionCursor<>(cursorSession, mapper.cursor(getProviderParamsMapInfo(provider), tableName));
+		} catch (RuntimeException e) {
+			cursorSession.close();
+			throw e;
+		}
 	}
 
 	/**
@@ -712,6 +1288,19 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 		return paramMap;
 	}
 
+	/**
+	 * 封装 in 查询拆分执行的参数map，条件值容器带有本批次的 in 值
+	 * @param provider
+	 * @param filter
+	 * @param chunk
+	 * @return
+	 */
+	private Map<String, Object> getChunkParamsMapInfo(Object provider, FilterNode filter, Object[] chunk) {
+		Map<String, Object> paramMap = getProviderParamsMapInfo(provider);
+		paramMap.put(SqlConstant.PROVIDER_FILTER, new InFilterChunk.ValueMap(filter, chunk, ((QueryProviderHandle) provider).getTemplateBinding()));
+		return paramMap;
+	}
+
 	/**
 	 * 需传入的条件值。
 	 * @param sql       sql语句中的条件，用 "?" 号代替，防止SQL注入
@@ -881,13 +1470,7 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public PageInfo<T> page(QueryProvider provider) {
-		PageInfo<T> page = new PageInfo<>();
-		Map<String, Object> paramMap = this.buildQueryPage(provider, page);
-		if(paramMap == null) {
-			return page;
-		}
-		page.setList(this.getBaseBeanSessionMapper().page((String) paramMap.get(SqlConstant.PROVIDER_QUERY_SQL), paramMap));
-		return page;
+		return this.buildQueryPage(provider, "page", this.getBaseBeanSessionMapper());
 	}
 	
 	/**
@@ -899,36 +1482,187 @@ public class SqlHandleFactory<T extends CommonModel> implements SqlHandle<T> {
 	 */
 	@Override
 	public <M extends ResultInfo> PageInfo<M> page(QueryProvider provider, Class<M> resultCls) {
-		PageInfo<M> page = new PageInfo<>();
-		Map<String, Object> paramMap = this.buildQueryPage(provider, page);
-		if(paramMap == null) {
+		return this.buildQueryPage(provider, "page:" + resultCls.getCanonicalName(), this.getBaseResultSessionMapper(resultCls));
+	}
+
+	/**
+	 * 游标(keyset)分页查询，按排序字段和上一页的游标值定位，不统计总条数
+	 * @param provider
+	 * @return
+	 */
+	@Override
+	public SeekPageInfo<T> seekPage(QueryProvider provider) {
+		int limit = this.prepareSeekPage(provider);
+		return this.buildSeekPage(provider, this.list(provider), limit);
+	}
+
+	/**
+	 * 游标(keyset)分页查询，返回类型为预设的 class 类型
+	 * @param provider
+	 * @param resultCls
+	 * @return
+	 */
+	@Override
+	public <M extends ResultInfo> SeekPageInfo<M> seekPage(QueryProvider provider, Class<M> resultCls) {
+		int limit = this.prepareSeekPage(provider);
+		return this.buildSeekPage(provider, this.list(provider, resultCls), limit);
+	}
+
+	private int prepareSeekPage(QueryProvider provider) {
+		if (provider == null) {
+			throw new HandleException("error: seekPage QueryProvider is null");
+		}
+		QueryProviderHandle queryProvider = (QueryProviderHandle) provider;
+		if (queryProvider.getOrderArray() == null || queryProvider.getOrderArray().isEmpty()) {
+			throw new HandleException("error: seek page must set order");
+		}
+		if (queryProvider.getLimit() <= 0) {
+			provider.setLimit(SqlConstant.DEFAULT_SEEK_PAGE_SIZE);
+		}
+		return queryProvider.getLimit();
+	}
+
+	/**
+	 * 构建游标分页结果，本页行数等于每页行数时，取最后一行排序字段的值作为下一页的游标值
+	 * @param provider
+	 * @param list
+	 * @param limit
+	 * @param <M>
+	 * @return
+	 */
+	private <M> SeekPageInfo<M> buildSeekPage(QueryProvider provider, List<M> list, int limit) {
+		SeekPageInfo<M> page = new SeekPageInfo<>();
+		page.setList(list);
+		if (list == null || list.size() < limit) {
 			return page;
 		}
-		page.setList(this.getBaseResultSessionMapper(resultCls).page((String) paramMap.get(SqlConstant.PROVIDER_QUERY_SQL), paramMap));
+
+		List<OrderNode> orderArray = ((QueryProviderHandle) provider).getOrderArray();
+		Object row = list.get(list.size() - 1);
+		Object[] nextSeek = new Object[orderArray.size()];
+		for (int i = 0, j = orderArray.size(); i < j; i++) {
+			nextSeek[i] = getSeekValue(row, orderArray.get(i).getName());
+		}
+		page.setHasMore(true);
+		page.setNextSeek(nextSeek);
 		return page;
 	}
 
 	/**
-	 * 构造分页查询公共方法
+	 * 从结果行中获取排序字段的值，排序字段可以是属性名或 @Column 注解的字段名
+	 * @param row
+	 * @param name
+	 * @return
+	 */
+	private Object getSeekValue(Object row, String name) {
+		if (name.startsWith(CacheInfoConstant.TABLE_AS_START_PREFIX)) {
+			name = name.substring(name.indexOf(".") + 1);
+		}
+		if (row instanceof Map) {
+			return ((Map<?, ?>) row).get(name);
+		}
+
+		EntityAccessor.FieldAccessor field = this.getRowAccessor(row.getClass()).getField(name);
+		if (field == null) {
+			throw new HandleException("error: seek order field<" + name + "> is not in result");
+		}
+		return field.get(row);
+	}
+
+	/**
+	 * 获取结果行的属性访问器，实体使用实体元数据中的访问器，ResultInfo 子类使用按类缓存的访问器
+	 * @param rowCls
+	 * @return
+	 */
+	private EntityAccessor getRowAccessor(Class<?> rowCls) {
+		if (rowCls == entityCls) {
+			return BeanCacheConvert.getEntityMetadata(this.getTableName()).getAccessor();
+		}
+		return BeanCacheConvert.getResultAccessor(rowCls);
+	}
+
+	/**
+	 * 构造分页查询公共方法，按 QueryProvider 设置的方式统计总条数，设置了 seekAfter 的 QueryProvider 不能用于分页查询。
+	 * 表开启了 SingleFlight 且当前没有事务时，语句、条件值和统计方式都相同的并发分页查询合并为一次执行
 	 * @param provider
-	 * @param page
+	 * @param type      查询类型，返回结果类型不同的查询不合并
+	 * @param mapper
 	 * @return
 	 */
-	private Map<String, Object> buildQueryPage(QueryProvider provider, PageInfo page) {
+	private <M> PageInfo<M> buildQueryPage(QueryProvider provider, String type, CommonMapper<M> mapper) {
+		QueryProviderHandle queryProvider = (QueryProviderHandle) provider;
+		if (queryProvider.getSeekValues() != null) {
+			// 分页语句不拼接游标条件，游标分页使用 seekPage
+			throw new HandleException("error: page not support seekAfter, please use seekPage");
+		}
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, provider);
 		// 拼装SQL语句
-		SqlHandleProvider.getQueryPageSql(paramMap, this.getTableName());
+		String tableName = this.getTableName();
+		SqlHandleProvider.getQueryPageSql(paramMap, tableName);
+		String countSql = (String) paramMap.get(SqlConstant.PROVIDER_COUNT_SQL);
+		String querySql = (String) paramMap.get(SqlConstant.PROVIDER_QUERY_SQL);
+
+		PageCountEnum pageCountType = queryProvider.getPageCountType();
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			if (PageCountEnum.CONCURRENT.equals(pageCountType)) {
+				// 存在事务时，另一个连接看不到事务中未提交的数据，按顺序统计
+				pageCountType = PageCountEnum.COUNT;
+			}
+		} else if (SingleFlight.isEnabled(tableName)) {
+			// 分页语句在执行时才拼接 limit，key 中加入页码和每页行数
+			QueryKey key = QueryKey.of(querySql, (Map<?, ?>) paramMap.get(SqlConstant.PROVIDER_FILTER), type, pageCountType,
+					queryProvider.getPage(), queryProvider.getLimit());
+			PageCountEnum countType = pageCountType;
+			return SingleFlight.execute(tableName, key, () -> this.loadQueryPage(provider, mapper, paramMap, countSql, querySql, countType));
+		}
+		return this.loadQueryPage(provider, mapper, paramMap, countSql, querySql, pageCountType);
+	}
 
-		int total = this.getBaseBeanSessionMapper().findTotal((String) paramMap.get(SqlConstant.PROVIDER_COUNT_SQL), paramMap);
-		page.setTotal(total);
+	private <M> PageInfo<M> loadQueryPage(QueryProvider provider, CommonMapper<M> mapper, Map<String, Object> paramMap, String countSql, String querySql,
+			PageCountEnum pageCountType) {
+		PageInfo<M> page = new PageInfo<>();
+		QueryProviderHandle queryProvider = (QueryProviderHandle) provider;
+
+		switch (pageCountType) {
+			case NONE:
+				page.setTotal(-1);
+				break;
+			case CONCURRENT:
+				Map<String, Object> countParamMap = new HashMap<>(paramMap);
+				Future<Integer> totalFuture = SqlTaskExecutor.submit(() -> this.getBaseBeanSessionMapper().findTotal(countSql, countParamMap));
+				page.setList(mapper.page(querySql, paramMap));
+				try {
+					page.setTotal(totalFuture.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new HandleException("error: page count is interrupted");
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					throw new HandleException("error: page count fail, " + e.getCause().getMessage());
+				}
+				return page;
+			case CACHED:
+				QueryKey key = PageCountCache.getKey(countSql, (Map<?, ?>) paramMap.get(SqlConstant.PROVIDER_FILTER));
+				Long cacheTotal = PageCountCache.get(key);
+				if (cacheTotal == null) {
+					cacheTotal = (long) this.getBaseBeanSessionMapper().findTotal(countSql, paramMap);
+					PageCountCache.put(key, cacheTotal, queryProvider.getPageCountCacheMillis());
+				}
+				page.setTotal(cacheTotal);
+				break;
+			default:
+				page.setTotal(this.getBaseBeanSessionMapper().findTotal(countSql, paramMap));
+				break;
+		}
 
-		if (total == 0) {
+		if (page.getTotal() == 0) {
 			// 当总条数为0时，直接取消数据查询
-			return null;
+			return page;
 		}
 
 		paramMap.put(SqlConstant.PROVIDER_OBJ, provider);
-		return paramMap;
+		page.setList(mapper.page(querySql, paramMap));
+		return page;
 	}
 }
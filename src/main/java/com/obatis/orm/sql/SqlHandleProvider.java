@@ -45,6 +45,30 @@ public class SqlHandleProvider {
 		return insertMethod.handleBatchInsertSql(obj, cls, tableName);
 	}
 
+	/**
+	 * 获取分批添加时每一批的 insert sql 语句，相同行数的语句只生成一次
+	 * @param obj
+	 * @param cls
+	 * @param tableName
+	 * @return
+	 * @throws HandleException
+	 */
+	public static String getBatchInsertChunkSql(List<?> obj, Class<?> cls, String tableName) throws HandleException {
+		return insertMethod.handleBatchInsertChunkSql(obj, cls, tableName);
+	}
+
+	/**
+	 * 获取 JDBC batch 方式批量添加时使用的单行 insert sql 语句，语句包含实体的全部字段，同一张表的语句固定不变
+	 * @param obj
+	 * @param cls
+	 * @param tableName
+	 * @return
+	 * @throws HandleException
+	 */
+	public static String getInsertRowSql(Object obj, Class<?> cls, String tableName) throws HandleException {
+		return insertMethod.handleInsertRowSql(obj, cls, tableName);
+	}
+
 	/**
 	 * 获取更新 update sql 语句
 	 * @param providers
@@ -24,6 +24,14 @@ public class SqlProvider<T> {
 		return SqlHandleProvider.getBatchInsertSql(list, cls, tableName);
 	}
 	
+	public String batchInsertChunk(@Param("request") List<T> list, String tableName, Class<T> cls) throws HandleException {
+		return SqlHandleProvider.getBatchInsertChunkSql(list, cls, tableName);
+	}
+	
+	public String insertRow(@Param("request") T t, String tableName, Class<T> cls) throws HandleException {
+		return SqlHandleProvider.getInsertRowSql(t, cls, tableName);
+	}
+	
 	public String update(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
 		return SqlHandleProvider.getUpdateSql(providers, tableName);
 	}
@@ -41,11 +49,22 @@ public class SqlProvider<T> {
 	}
 	
 	public String find(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getSelectSql(providers, tableName);
+		return getSelectSql(providers, tableName);
 	}
 
 	public String list(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getSelectSql(providers, tableName);
+		return getSelectSql(providers, tableName);
+	}
+
+	/**
+	 * 参数中带有已生成的查询语句时直接使用，条件值已在生成时放入参数
+	 * @param providers
+	 * @param tableName
+	 * @return
+	 */
+	private static String getSelectSql(Map<String, Object> providers, String tableName) {
+		Object sql = providers.get(SqlConstant.PROVIDER_SELECT_SQL);
+		return sql != null ? (String) sql : SqlHandleProvider.getSelectSql(providers, tableName);
 	}
 	
 	public String validate(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
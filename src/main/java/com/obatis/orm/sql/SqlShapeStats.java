@@ -0,0 +1,84 @@
+package com.obatis.orm.sql;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按表统计生成的不同 SQL 语句(结构)个数，用于观察 in 查询分桶等优化后语句缓存的命中情况。
+ * 每张表最多记录 MAX_SHAPE_SIZE 条语句，默认关闭
+ * @author HuangLongPu
+ */
+public class SqlShapeStats {
+
+	/**
+	 * 每张表最多记录的语句条数
+	 */
+	public static final int MAX_SHAPE_SIZE = 1024;
+
+	private static volatile boolean enabled = false;
+
+	private static final Map<String, Set<String>> SHAPE_CACHE = new ConcurrentHashMap<>();
+
+	private SqlShapeStats() {
+
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 开启或关闭统计，关闭时清空已统计的数据
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		SqlShapeStats.enabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	/**
+	 * 记录表生成的 SQL 语句
+	 * @param tableName
+	 * @param sql
+	 */
+	protected static void record(String tableName, String sql) {
+		if (!enabled || tableName == null || sql == null) {
+			return;
+		}
+		Set<String> shapes = SHAPE_CACHE.computeIfAbsent(tableName, key -> ConcurrentHashMap.newKeySet());
+		if (shapes.size() < MAX_SHAPE_SIZE) {
+			shapes.add(sql);
+		}
+	}
+
+	/**
+	 * 获取表生成的不同 SQL 语句个数
+	 * @param tableName
+	 * @return
+	 */
+	public static int getShapeCount(String tableName) {
+		Set<String> shapes = SHAPE_CACHE.get(tableName);
+		return shapes == null ? 0 : shapes.size();
+	}
+
+	/**
+	 * 获取所有表生成的不同 SQL 语句个数，key 为表名
+	 * @return
+	 */
+	public static Map<String, Integer> getShapeCounts() {
+		Map<String, Integer> counts = new TreeMap<>();
+		for (Map.Entry<String, Set<String>> entry : SHAPE_CACHE.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().size());
+		}
+		return Collections.unmodifiableMap(counts);
+	}
+
+	public static void clear() {
+		SHAPE_CACHE.clear();
+	}
+}
@@ -0,0 +1,68 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.SqlConstant;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQL 并行执行的线程池，用于分批添加的并行批次、分页查询的并行统计等，
+ * 线程数和队列长度有界，队列满时由调用线程执行，避免占满连接池
+ * @author HuangLongPu
+ */
+public class SqlTaskExecutor {
+
+	private static volatile int parallelism = SqlConstant.DEFAULT_SQL_TASK_PARALLELISM;
+	private static volatile ThreadPoolExecutor executor;
+
+	private SqlTaskExecutor() {
+
+	}
+
+	public static int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 设置最大并行数，建议不超过连接池大小
+	 * @param parallelism
+	 */
+	public static synchronized void setParallelism(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("error: parallelism must be greater than 0");
+		}
+		SqlTaskExecutor.parallelism = parallelism;
+		if (executor != null) {
+			executor.setMaximumPoolSize(Math.max(parallelism, executor.getCorePoolSize()));
+			executor.setCorePoolSize(parallelism);
+			executor.setMaximumPoolSize(parallelism);
+		}
+	}
+
+	protected static <V> Future<V> submit(Callable<V> task) {
+		return getExecutor().submit(task);
+	}
+
+	private static ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			synchronized (SqlTaskExecutor.class) {
+				if (executor == null) {
+					AtomicInteger threadIndex = new AtomicInteger();
+					ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+							new ArrayBlockingQueue<>(parallelism * 16), runnable -> {
+								Thread thread = new Thread(runnable, "obatis-sql-task-" + threadIndex.incrementAndGet());
+								thread.setDaemon(true);
+								return thread;
+							}, new ThreadPoolExecutor.CallerRunsPolicy());
+					pool.allowCoreThreadTimeOut(true);
+					executor = pool;
+				}
+			}
+		}
+		return executor;
+	}
+}
@@ -1,22 +1,16 @@
 package com.obatis.orm.sql.mysql;
 
-import com.obatis.convert.date.DateConvert;
-import com.obatis.orm.model.CommonField;
 import com.obatis.orm.model.CommonModel;
-import com.obatis.orm.annotation.NotColumn;
-import com.obatis.orm.constant.CacheInfoConstant;
 import com.obatis.orm.constant.SqlConstant;
 import com.obatis.exception.HandleException;
+import com.obatis.orm.convert.EntityAccessor.FieldAccessor;
 import com.obatis.orm.sql.AbstractInsertMethod;
-import com.obatis.generator.NumberGenerator;
-import com.obatis.tools.ValidateTool;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * MySQL 批量添加方法实现
@@ -24,6 +18,15 @@ import java.util.Map;
  */
 public class HandleInsertBatchMethod extends AbstractInsertMethod {
 
+	/**
+	 * 分批添加语句缓存的最大条数，每张表通常只有整批和最后一批两种行数
+	 */
+	private static final int CHUNK_SQL_CACHE_SIZE = 256;
+	/**
+	 * 分批添加语句缓存，key 为表名和行数
+	 */
+	private static final Map<String, String> CHUNK_SQL_CACHE = new ConcurrentHashMap<>();
+
 	@Override
 	protected String handleBatchInsertSql(List<?> list, Class<?> cls, String tableName) {
 		StringBuffer sql = new StringBuffer("insert into " + tableName + "(");
@@ -36,6 +39,35 @@ public class HandleInsertBatchMethod extends AbstractInsertMethod {
         return sql.toString() + " values " + res.get(SqlConstant.BEAN_VALUE);
 	}
 
+	@Override
+	protected String handleBatchInsertChunkSql(List<?> list, Class<?> cls, String tableName) {
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batch insert list is empty");
+		}
+
+		FieldAccessor[] accessors = getEntityAccessor(tableName).getFields();
+		for (Object obj : list) {
+			if (!(obj instanceof CommonModel)) {
+				throw new HandleException("error: entity is not instanceof CommonModel");
+			}
+			for (FieldAccessor accessor : accessors) {
+				if (accessor.isDefaultValue()) {
+					accessor.getOrDefault(obj);
+				}
+			}
+		}
+
+		String key = tableName + "#" + list.size();
+		String sql = CHUNK_SQL_CACHE.get(key);
+		if (sql == null) {
+			sql = handleBatchInsertSql(list, cls, tableName);
+			if (CHUNK_SQL_CACHE.size() < CHUNK_SQL_CACHE_SIZE) {
+				CHUNK_SQL_CACHE.put(key, sql);
+			}
+		}
+		return sql;
+	}
+
 	protected Map<String, String> getBatchInsertFields(List<?> list, Class<?> cls, String tableName) {
 
 		List<String> fieldArr = new ArrayList<>();
@@ -45,14 +77,17 @@ public class HandleInsertBatchMethod extends AbstractInsertMethod {
 			throw new HandleException("error: batch insert list is empty");
 		}
 
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
+		FieldAccessor[] accessors = getEntityAccessor(tableName).getFields();
+		for (FieldAccessor accessor : accessors) {
+			fieldArr.add(accessor.getColumnName());
+		}
 		for (int i = 0, j = list.size(); i < j; i++) {
 			Object obj = list.get(i);
 			if (!(obj instanceof CommonModel)) {
 				throw new HandleException("error: entity is not instanceof CommonModel");
 			}
-			List<String> colValueArr = new ArrayList<>();
-			getBatchInsertValidColumnFields(obj, cls, columnMap, i, fieldArr, colValueArr);
+			List<String> colValueArr = new ArrayList<>(accessors.length);
+			getBatchInsertValidColumnFields(obj, accessors, i, colValueArr);
 			valueArr.add("(" + String.join(",", colValueArr) + ")");
 		}
 
@@ -66,51 +101,12 @@ public class HandleInsertBatchMethod extends AbstractInsertMethod {
 		}
 	}
 
-	private void getBatchInsertValidColumnFields(Object obj, Class<?> cls, Map<String, String> columnMap, int index, List<String> fieldArr,
-												 List<String> colValueArr) {
-
-		Field[] fields = cls.getDeclaredFields();
-		for (Field field : fields) {
-
-			boolean isStatic = Modifier.isStatic(field.getModifiers());
-			if (isStatic) {
-				continue;
-			}
-			NotColumn ts = field.getAnnotation(NotColumn.class);
-			if (ts != null) {
-				continue;
-			}
-
-			String fieldName = field.getName();
-			if (!columnMap.containsKey(fieldName)) {
-				continue;
+	private void getBatchInsertValidColumnFields(Object obj, FieldAccessor[] accessors, int index, List<String> colValueArr) {
+		for (FieldAccessor accessor : accessors) {
+			if (accessor.isDefaultValue()) {
+				accessor.getOrDefault(obj);
 			}
-			String columnName = columnMap.get(fieldName);
-
-			try {
-				field.setAccessible(true);
-				Object value = field.get(obj);
-				if (ValidateTool.isEmpty(value)) {
-					if (CommonField.FIELD_ID.equals(columnName)) {
-						field.set(obj, NumberGenerator.getNumber());
-					} else if (CommonField.FIELD_CREATE_TIME.equals(columnName)) {
-						field.set(obj, DateConvert.getDateTime());
-					}
-				}
-
-				if (index == 0) {
-					fieldArr.add(columnName);
-				}
-				colValueArr.add("#{request[" + index + "]." + fieldName + "}");
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new HandleException("error: load class fields fail");
-			}
-		}
-
-		Class<?> supCls = cls.getSuperclass();
-		if (supCls != null) {
-			getBatchInsertValidColumnFields(obj, supCls, columnMap, index, fieldArr, colValueArr);
+			colValueArr.add("#{request[" + index + "]." + accessor.getFieldName() + "}");
 		}
 	}
 }
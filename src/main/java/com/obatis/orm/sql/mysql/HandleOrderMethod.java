@@ -3,6 +3,7 @@ package com.obatis.orm.sql.mysql;
 import com.obatis.orm.constant.type.OrderEnum;
 import com.obatis.orm.constant.type.SqlHandleEnum;
 import com.obatis.orm.provider.condition.handle.AbstractOrder;
+import com.obatis.orm.provider.node.OrderNode;
 
 import java.util.List;
 
@@ -19,9 +20,8 @@ public class HandleOrderMethod extends AbstractOrder {
 	 * @param orderType
 	 */
 	@Override
-	protected void addOrder(List<Object[]> orders, String orderName, OrderEnum orderType, SqlHandleEnum sqlHandleEnum) {
-		Object[] order = {orderName, (OrderEnum.ORDER_ASC.equals(orderType) ? "asc" : "desc"), sqlHandleEnum};
-		orders.add(order);
+	protected void addOrder(List<OrderNode> orders, String orderName, OrderEnum orderType, SqlHandleEnum sqlHandleEnum) {
+		orders.add(new OrderNode(orderName, (OrderEnum.ORDER_ASC.equals(orderType) ? "asc" : "desc"), sqlHandleEnum));
 	}
 
 }
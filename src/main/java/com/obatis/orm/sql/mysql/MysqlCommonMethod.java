@@ -9,6 +9,13 @@ import com.obatis.orm.sql.AbstractSqlHandleMethod;
  */
 public class MysqlCommonMethod extends AbstractSqlHandleMethod {
 
+	/**
+	 * 可以改写为时间范围的 DATE_FORMAT 格式，以及补全为完整时间的后缀和范围的时间单位
+	 */
+	private static final String[] DATE_RANGE_PATTERNS = {"%Y", "%Y-%m", "%Y-%m-%d", "%Y-%m-%d %H", "%Y-%m-%d %H:%i", "%Y-%m-%d %H:%i:%s"};
+	private static final String[] DATE_RANGE_SUFFIXES = {"-01-01", "-01", "", ":00:00", ":00", ""};
+	private static final String[] DATE_RANGE_UNITS = {"YEAR", "MONTH", "DAY", "HOUR", "MINUTE", "SECOND"};
+
 	public MysqlCommonMethod() {
 		super();
 	}
@@ -39,6 +46,34 @@ public class MysqlCommonMethod extends AbstractSqlHandleMethod {
 		return sql + " limit " + getPageLimit(pageNumber, pageSize) + "," + pageSize;
 	}
 
+	@Override
+	protected String getDateRangeStartSql(String expression, String pattern) {
+		int index = getDateRangeIndex(pattern);
+		if (index < 0) {
+			return null;
+		}
+		String suffix = DATE_RANGE_SUFFIXES[index];
+		return "CAST(" + (suffix.isEmpty() ? expression : "CONCAT(" + expression + ",'" + suffix + "')") + " AS DATETIME)";
+	}
+
+	@Override
+	protected String getDateRangeEndSql(String expression, String pattern) {
+		String startSql = getDateRangeStartSql(expression, pattern);
+		if (startSql == null) {
+			return null;
+		}
+		return startSql + " + INTERVAL 1 " + DATE_RANGE_UNITS[getDateRangeIndex(pattern)];
+	}
+
+	private static int getDateRangeIndex(String pattern) {
+		for (int i = 0; i < DATE_RANGE_PATTERNS.length; i++) {
+			if (DATE_RANGE_PATTERNS[i].equals(pattern)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	@Override
 	protected String getBatchUpdateDbSql(String sql) {
 		return sql;
@@ -0,0 +1,68 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 缓存同步事件编码解码
+ * @author HuangLongPu
+ */
+public class CacheSyncEventTest {
+
+	@Test
+	public void encodeIds() {
+		CacheSyncEvent event = new CacheSyncEvent("node-1", 7, "t_user", Arrays.asList("1", "2"));
+		assertEquals("v1|node-1|7|t_user|1,2", event.encode());
+	}
+
+	@Test
+	public void roundTripSpecialCharacters() {
+		CacheSyncEvent event = new CacheSyncEvent("node|a b", 42, "t,user", Arrays.asList("a,b", "c|d", "中文", "%", ""));
+		CacheSyncEvent decoded = CacheSyncEvent.decode(event.encode());
+		assertEquals("node|a b", decoded.getNodeId());
+		assertEquals(42, decoded.getVersion());
+		assertEquals("t,user", decoded.getTableName());
+		assertEquals(Arrays.asList("a,b", "c|d", "中文", "%", ""), decoded.getIds());
+	}
+
+	@Test
+	public void allIds() {
+		CacheSyncEvent event = new CacheSyncEvent("node", 1, "t_user", null);
+		assertEquals("v1|node|1|t_user|*", event.encode());
+		assertNull(CacheSyncEvent.decode(event.encode()).getIds());
+	}
+
+	@Test
+	public void idNamedStarIsNotAllIds() {
+		CacheSyncEvent event = new CacheSyncEvent("node", 1, "t_user", Collections.singletonList("*"));
+		assertEquals(Collections.singletonList("*"), CacheSyncEvent.decode(event.encode()).getIds());
+	}
+
+	@Test
+	public void emptyIds() {
+		CacheSyncEvent event = new CacheSyncEvent("node", 1, "t_user", Collections.emptyList());
+		assertTrue(CacheSyncEvent.decode(event.encode()).getIds().isEmpty());
+	}
+
+	@Test(expected = HandleException.class)
+	public void rejectVersion() {
+		CacheSyncEvent.decode("v2|node|1|t_user|1");
+	}
+
+	@Test(expected = HandleException.class)
+	public void rejectFieldCount() {
+		CacheSyncEvent.decode("v1|node|1|t_user");
+	}
+
+	@Test(expected = HandleException.class)
+	public void rejectNumber() {
+		CacheSyncEvent.decode("v1|node|x|t_user|1");
+	}
+}
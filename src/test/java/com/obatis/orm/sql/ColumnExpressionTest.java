@@ -0,0 +1,87 @@
+package com.obatis.orm.sql;
+
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 字段表达式解析
+ * @author HuangLongPu
+ */
+public class ColumnExpressionTest {
+
+	/**
+	 * 按解析结果重新拼接表达式，字段片段经过 mapper 替换
+	 */
+	private static String join(ColumnExpression expression, Function<String, String> mapper) {
+		StringBuilder sql = new StringBuilder();
+		for (int i = 0, j = expression.getTokenSize(); i < j; i++) {
+			sql.append(expression.getLiteral(i)).append(mapper.apply(expression.getToken(i)));
+		}
+		return sql.append(expression.getLiteral(expression.getTokenSize())).toString();
+	}
+
+	private static String[] tokens(ColumnExpression expression) {
+		String[] tokens = new String[expression.getTokenSize()];
+		for (int i = 0; i < tokens.length; i++) {
+			tokens[i] = expression.getToken(i);
+		}
+		return tokens;
+	}
+
+	@Test
+	public void simpleField() {
+		ColumnExpression expression = ColumnExpression.of("name");
+		assertTrue(expression.isSimple());
+		assertArrayEquals(new String[] {"name"}, tokens(expression));
+		assertEquals("t.name", join(expression, token -> "t." + token));
+	}
+
+	@Test
+	public void spacesOnlyIsSimple() {
+		ColumnExpression expression = ColumnExpression.of("name ");
+		assertTrue(expression.isSimple());
+		assertArrayEquals(new String[] {"name "}, tokens(expression));
+	}
+
+	@Test
+	public void splitOperators() {
+		ColumnExpression expression = ColumnExpression.of("age+money");
+		assertFalse(expression.isSimple());
+		assertArrayEquals(new String[] {"age", "money"}, tokens(expression));
+		assertEquals("", expression.getLiteral(0));
+		assertEquals("+", expression.getLiteral(1));
+		assertEquals("", expression.getLiteral(2));
+		assertEquals(0, expression.getTableAsOrder().length);
+	}
+
+	@Test
+	public void keepSeparatorsInOrder() {
+		String source = " sum(money) * (2 - age), name ";
+		ColumnExpression expression = ColumnExpression.of(source);
+		assertArrayEquals(new String[] {"sum", "money", "2", "age", "name"}, tokens(expression));
+		assertEquals(source, join(expression, token -> token));
+		assertEquals(" <sum>(<money>) * (<2> - <age>), <name> ", join(expression, token -> "<" + token + ">"));
+	}
+
+	@Test
+	public void tableAsToken() {
+		ColumnExpression expression = ColumnExpression.of("#as_12.title+{age}");
+		assertArrayEquals(new String[] {"12", "title"}, expression.getTableAsToken(0));
+		assertNull(expression.getTableAsToken(1));
+		assertArrayEquals(new String[] {"12"}, expression.getTableAsOrder());
+		assertTrue(expression.isStripBraces());
+	}
+
+	@Test
+	public void cacheParsedExpression() {
+		assertSame(ColumnExpression.of("age*2"), ColumnExpression.of("age*2"));
+	}
+}
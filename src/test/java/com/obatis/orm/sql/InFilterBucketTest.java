@@ -0,0 +1,62 @@
+package com.obatis.orm.sql;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * in 查询分桶大小
+ * @author HuangLongPu
+ */
+public class InFilterBucketTest {
+
+	@After
+	public void reset() {
+		InFilterBucket.setEnabled(false);
+		InFilterBucket.setMaxBucketSize(InFilterBucket.DEFAULT_MAX_BUCKET_SIZE);
+	}
+
+	@Test
+	public void disabledKeepsSize() {
+		for (int size : new int[] {0, 1, 3, 5, 1000, 5000}) {
+			assertEquals(size, InFilterBucket.getBucketSize(size));
+		}
+	}
+
+	@Test
+	public void roundUpToPowerOfTwo() {
+		InFilterBucket.setEnabled(true);
+		assertEquals(0, InFilterBucket.getBucketSize(0));
+		assertEquals(1, InFilterBucket.getBucketSize(1));
+		assertEquals(2, InFilterBucket.getBucketSize(2));
+		assertEquals(4, InFilterBucket.getBucketSize(3));
+		assertEquals(4, InFilterBucket.getBucketSize(4));
+		assertEquals(8, InFilterBucket.getBucketSize(5));
+		assertEquals(512, InFilterBucket.getBucketSize(257));
+		assertEquals(1024, InFilterBucket.getBucketSize(1024));
+	}
+
+	@Test
+	public void roundUpToMaxMultiple() {
+		InFilterBucket.setEnabled(true);
+		InFilterBucket.setMaxBucketSize(100);
+		assertEquals(64, InFilterBucket.getBucketSize(33));
+		assertEquals(100, InFilterBucket.getBucketSize(65));
+		assertEquals(100, InFilterBucket.getBucketSize(100));
+		assertEquals(200, InFilterBucket.getBucketSize(101));
+		assertEquals(300, InFilterBucket.getBucketSize(201));
+	}
+
+	@Test
+	public void noOverflow() {
+		InFilterBucket.setEnabled(true);
+		InFilterBucket.setMaxBucketSize(1000);
+		assertEquals(Integer.MAX_VALUE, InFilterBucket.getBucketSize(Integer.MAX_VALUE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectInvalidMax() {
+		InFilterBucket.setMaxBucketSize(0);
+	}
+}
@@ -0,0 +1,110 @@
+package com.obatis.orm.sql;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * 查询缓存 key
+ * @author HuangLongPu
+ */
+public class QueryKeyTest {
+
+	private static final String SQL = "SELECT t_1.name\nFROM t_user t_1\nWHERE ( t_1.name = #{request.provider_filters.a})";
+
+	private static Map<String, Object> filters(Object... keyValues) {
+		Map<String, Object> filters = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			filters.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return filters;
+	}
+
+	@Test
+	public void sameFilters() {
+		Map<String, Object> first = new LinkedHashMap<>();
+		first.put("a", 1);
+		first.put("b", "x");
+		Map<String, Object> second = new LinkedHashMap<>();
+		second.put("b", "x");
+		second.put("a", 1);
+		assertEquals(QueryKey.of(SQL, first, "list"), QueryKey.of(SQL, second, "list"));
+		assertEquals(QueryKey.of(SQL, first, "list").hashCode(), QueryKey.of(SQL, second, "list").hashCode());
+	}
+
+	@Test
+	public void valueTypeMatters() {
+		assertNotEquals(QueryKey.of(SQL, filters("a", 1), "list"), QueryKey.of(SQL, filters("a", "1"), "list"));
+		assertNotEquals(QueryKey.of(SQL, filters("a", 1), "list"), QueryKey.of(SQL, filters("a", 1L), "list"));
+		assertNotEquals(QueryKey.of(SQL, filters("a", Arrays.asList(1, 2)), "list"), QueryKey.of(SQL, filters("a", new Object[] {1, 2}), "list"));
+	}
+
+	@Test
+	public void separatorInValue() {
+		Map<String, Object> injected = filters("a", "x, b=y");
+		Map<String, Object> plain = filters("a", "x", "b", "y");
+		assertNotEquals(QueryKey.of(SQL, injected, "list"), QueryKey.of(SQL, plain, "list"));
+		assertNotEquals(QueryKey.of(SQL + "|{a=1}", null, "list"), QueryKey.of(SQL, filters("a", 1), "list"));
+	}
+
+	@Test
+	public void nullValues() {
+		assertEquals(QueryKey.of(SQL, filters("a", null), "list"), QueryKey.of(SQL, filters("a", null), "list"));
+		assertNotEquals(QueryKey.of(SQL, filters("a", null), "list"), QueryKey.of(SQL, filters("a", "null"), "list"));
+		assertEquals(QueryKey.of(SQL, null, "list"), QueryKey.of(SQL, Collections.emptyMap(), "list"));
+	}
+
+	@Test
+	public void arrayValues() {
+		assertEquals(QueryKey.of(SQL, filters("a", new int[] {1, 2}), "list"), QueryKey.of(SQL, filters("a", new int[] {1, 2}), "list"));
+		assertNotEquals(QueryKey.of(SQL, filters("a", new int[] {1, 2}), "list"), QueryKey.of(SQL, filters("a", new long[] {1, 2}), "list"));
+		assertEquals(QueryKey.of(SQL, filters("a", new Object[] {new String[] {"x"}}), "list"),
+				QueryKey.of(SQL, filters("a", new Object[] {new String[] {"x"}}), "list"));
+	}
+
+	@Test
+	public void snapshotMutableValues() {
+		List<Integer> ids = new ArrayList<>(Arrays.asList(1, 2));
+		int[] ages = {3};
+		QueryKey key = QueryKey.of(SQL, filters("a", ids, "b", ages), "list");
+		QueryKey expected = QueryKey.of(SQL, filters("a", new ArrayList<>(Arrays.asList(1, 2)), "b", new int[] {3}), "list");
+		ids.add(3);
+		ages[0] = 4;
+		assertEquals(expected, key);
+		assertEquals(expected.hashCode(), key.hashCode());
+	}
+
+	@Test
+	public void tagsAndSql() {
+		Map<String, Object> filters = filters("a", 1);
+		assertNotEquals(QueryKey.of(SQL, filters, "list"), QueryKey.of(SQL, filters, "listMap"));
+		assertNotEquals(QueryKey.of(SQL, filters, "page", 1, 10), QueryKey.of(SQL, filters, "page", 2, 10));
+		assertNotEquals(QueryKey.of(SQL, filters, "page", 1, 10), QueryKey.of(SQL, filters, "page", 11, 0));
+		assertNotEquals(QueryKey.of(SQL, filters, "list"), QueryKey.of(SQL + " ", filters, "list"));
+		assertEquals(QueryKey.of(SQL, filters, "page", 1, 10), QueryKey.of(SQL, filters("a", 1), "page", 1, 10));
+	}
+
+	@Test
+	public void pageCountKey() {
+		assertEquals(PageCountCache.getKey(SQL, filters("a", 1)), PageCountCache.getKey(SQL, filters("a", 1)));
+		assertNotEquals(PageCountCache.getKey(SQL, filters("a", 1)), PageCountCache.getKey(SQL, filters("a", "1")));
+	}
+
+	@Test
+	public void pageCountCache() {
+		PageCountCache.clear();
+		PageCountCache.put(PageCountCache.getKey(SQL, filters("a", 1)), 5, 60000);
+		assertEquals(Long.valueOf(5), PageCountCache.get(PageCountCache.getKey(SQL, filters("a", 1))));
+		assertEquals(null, PageCountCache.get(PageCountCache.getKey(SQL, filters("a", "1"))));
+		PageCountCache.clear();
+	}
+}
@@ -0,0 +1,141 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.SqlConstant;
+import com.obatis.orm.constant.type.AppendTypeEnum;
+import com.obatis.orm.constant.type.OrderEnum;
+import com.obatis.orm.provider.QueryProvider;
+import com.obatis.orm.provider.handle.ProviderBuilder;
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.sql.model.ModelLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * 相同结构的 QueryProvider 复用缓存的 SQL，重新绑定条件值后与不使用缓存生成的结果一致
+ * @author HuangLongPu
+ */
+public class QuerySqlCacheTest {
+
+	@BeforeClass
+	public static void load() {
+		ModelLoader.load();
+	}
+
+	@Before
+	public void clear() {
+		QuerySqlCache.clear();
+	}
+
+	@After
+	public void reset() {
+		QuerySqlCache.setEnabled(false);
+		QuerySqlCache.clear();
+		InFilterBucket.setEnabled(false);
+		SargableRewrite.setEnabled(false);
+	}
+
+	/**
+	 * 生成语句和按 key 排序的条件值
+	 */
+	private static String build(QueryProvider provider) {
+		Map<String, Object> param = new HashMap<>();
+		param.put(SqlConstant.PROVIDER_OBJ, provider);
+		String sql = SqlHandleProvider.getSelectSql(param, "t_user");
+		Object value = param.get(SqlConstant.PROVIDER_FILTER);
+		return sql + "\n" + (value == null ? "{}" : new TreeMap<>((Map<?, ?>) value));
+	}
+
+	private static QueryProvider query(String name, Object ids, int age, Object money) {
+		QueryProvider provider = ProviderBuilder.query();
+		provider.select("name", "age");
+		provider.equal("name", name).in("id", ids).greaterThan("age", age).upGreaterThanZero("money", money);
+		QueryProvider sub = ProviderBuilder.query();
+		sub.equal("age", age + 1).orLike("name", name);
+		provider.addProvider(sub, AppendTypeEnum.OR);
+		provider.addOrder("age", OrderEnum.ORDER_DESC);
+		return provider;
+	}
+
+	/**
+	 * 不使用缓存生成，再开启缓存依次生成，每次的结果都应与不使用缓存时相同
+	 */
+	private static void assertRebind(QueryProvider... providers) {
+		String[] expected = new String[providers.length];
+		for (int i = 0; i < providers.length; i++) {
+			expected[i] = build(providers[i]);
+		}
+		QuerySqlCache.setEnabled(true);
+		for (int round = 0; round < 2; round++) {
+			for (int i = 0; i < providers.length; i++) {
+				assertEquals(expected[i], build(providers[i]));
+			}
+		}
+		QuerySqlCache.setEnabled(false);
+	}
+
+	@Test
+	public void rebindValues() {
+		assertRebind(query("a", Arrays.asList(1, 2), 3, 4), query("b", Arrays.asList(5, 6), 7, 8), query("c", new int[] {9, 10}, 11, 12));
+		QuerySqlCache.setEnabled(true);
+		build(query("d", Arrays.asList(1, 2), 3, 4));
+		long hits = QuerySqlCache.getHitCount();
+		build(query("e", Arrays.asList(3, 4), 5, 6));
+		assertEquals(hits + 1, QuerySqlCache.getHitCount());
+	}
+
+	@Test
+	public void inSizeIsShape() {
+		assertRebind(query("a", Arrays.asList(1, 2), 3, 4), query("a", Arrays.asList(1, 2, 3), 3, 4), query("a", "5,6,7,8", 3, 4),
+				query("a", 9, 3, 4));
+	}
+
+	@Test
+	public void inBucketRebind() {
+		InFilterBucket.setEnabled(true);
+		assertRebind(query("a", Arrays.asList(1, 2, 3), 3, 4), query("a", Arrays.asList(4, 5, 6, 7), 3, 4), query("a", Arrays.asList(8, 9, 10, 11, 12), 3, 4));
+	}
+
+	@Test
+	public void seekValuesRebind() {
+		QueryProvider first = ProviderBuilder.query();
+		first.equal("name", "a");
+		first.addOrder("age", OrderEnum.ORDER_ASC).addOrder("id", OrderEnum.ORDER_ASC);
+		first.seekAfter(5, 9L);
+		QueryProvider second = ProviderBuilder.query();
+		second.equal("name", "b");
+		second.addOrder("age", OrderEnum.ORDER_ASC).addOrder("id", OrderEnum.ORDER_ASC);
+		second.seekAfter(6, 10L);
+		assertRebind(first, second);
+	}
+
+	@Test
+	public void shapeKey() {
+		String key = QueryProviderShape.of((QueryProviderHandle) query("a", Arrays.asList(1, 2), 3, 4), "t_user").getKey();
+		assertEquals(key, QueryProviderShape.of((QueryProviderHandle) query("b", Arrays.asList(5, 6), 7, 8), "t_user").getKey());
+		assertNotEquals(key, QueryProviderShape.of((QueryProviderHandle) query("a", Arrays.asList(1, 2, 3), 3, 4), "t_user").getKey());
+		assertNotEquals(key, QueryProviderShape.of((QueryProviderHandle) query("a", Arrays.asList(1, 2), 3, 4), "t_dept").getKey());
+		SargableRewrite.setEnabled(true);
+		assertNotEquals(key, QueryProviderShape.of((QueryProviderHandle) query("a", Arrays.asList(1, 2), 3, 4), "t_user").getKey());
+	}
+
+	@Test
+	public void rewriteSwitchNotShared() {
+		QuerySqlCache.setEnabled(true);
+		String plain = build(query("a", Arrays.asList(1, 2), 3, 4));
+		SargableRewrite.setEnabled(true);
+		String rewritten = build(query("a", Arrays.asList(1, 2), 3, 4));
+		assertNotEquals(plain, rewritten);
+		SargableRewrite.setEnabled(false);
+		assertEquals(plain, build(query("a", Arrays.asList(1, 2), 3, 4)));
+	}
+}
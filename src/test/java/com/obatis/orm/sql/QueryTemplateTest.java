@@ -0,0 +1,150 @@
+package com.obatis.orm.sql;
+
+import com.obatis.exception.HandleException;
+import com.obatis.orm.constant.SqlConstant;
+import com.obatis.orm.constant.type.AppendTypeEnum;
+import com.obatis.orm.provider.QueryProvider;
+import com.obatis.orm.provider.handle.ProviderBuilder;
+import com.obatis.orm.provider.handle.QueryProviderHandle;
+import com.obatis.orm.provider.node.FilterNode;
+import com.obatis.orm.sql.model.ModelLoader;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 查询模板绑定后与直接构建的查询生成相同的语句和条件值
+ * @author HuangLongPu
+ */
+public class QueryTemplateTest {
+
+	@BeforeClass
+	public static void load() {
+		ModelLoader.load();
+	}
+
+	@After
+	public void reset() {
+		InFilterBucket.setEnabled(false);
+		InFilterChunk.setEnabled(false);
+		InFilterChunk.setThreshold(InFilterChunk.DEFAULT_THRESHOLD);
+		InFilterChunk.setChunkSize(InFilterChunk.DEFAULT_CHUNK_SIZE);
+		InFilterChunk.clear();
+	}
+
+	private static String select(QueryProvider provider) {
+		Map<String, Object> param = new HashMap<>();
+		param.put(SqlConstant.PROVIDER_OBJ, provider);
+		String sql = SqlHandleProvider.getSelectSql(param, "t_user");
+		return sql + "\n" + new TreeMap<>((Map<?, ?>) param.get(SqlConstant.PROVIDER_FILTER));
+	}
+
+	private static String page(QueryProvider provider) {
+		Map<String, Object> param = new HashMap<>();
+		param.put(SqlConstant.PROVIDER_OBJ, provider);
+		SqlHandleProvider.getQueryPageSql(param, "t_user");
+		return param.get(SqlConstant.PROVIDER_COUNT_SQL) + "\n" + param.get(SqlConstant.PROVIDER_QUERY_SQL) + "\n"
+				+ new TreeMap<>((Map<?, ?>) param.get(SqlConstant.PROVIDER_FILTER));
+	}
+
+	private static QueryProvider query(Object name, Object ids, Object age) {
+		QueryProvider provider = ProviderBuilder.query();
+		provider.select("name");
+		provider.equal("name", name).in("id", ids).greaterThan("age", 18);
+		QueryProvider sub = ProviderBuilder.query();
+		sub.equal("age", age).orEqual("money", 5);
+		provider.addProvider(sub, AppendTypeEnum.AND);
+		return provider;
+	}
+
+	private static QueryTemplate template() {
+		return ProviderBuilder.template(query(ProviderBuilder.slot("name"), ProviderBuilder.slot("ids"), ProviderBuilder.slot("age")));
+	}
+
+	@Test
+	public void sameAsProvider() {
+		QueryTemplate template = template();
+		Object[][] cases = {{"bob", Arrays.asList(1, 2, 3), 7}, {"amy", Arrays.asList(4, 5, 6), 9}, {"x", new int[] {9}, 1}, {"a,b", "1,2", 8}};
+		for (Object[] values : cases) {
+			QueryProvider bound = template.bind("name", values[0]).bind("ids", values[1]).bind("age", values[2]).getProvider();
+			assertEquals(select(query(values[0], values[1], values[2])), select(bound));
+			assertEquals(page(query(values[0], values[1], values[2])), page(bound));
+		}
+	}
+
+	@Test
+	public void bucketSameAsProvider() {
+		InFilterBucket.setEnabled(true);
+		QueryTemplate template = template();
+		for (List<Integer> ids : Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6, 7, 8))) {
+			assertEquals(select(query("a", ids, 1)), select(template.bind("name", "a").bind("ids", ids).bind("age", 1).getProvider()));
+		}
+		assertEquals(2, template.getCompiledSize());
+	}
+
+	@Test
+	public void compileByInSize() {
+		QueryTemplate template = template();
+		select(template.bind("name", "a").bind("ids", Arrays.asList(1, 2)).bind("age", 1).getProvider());
+		select(template.bind("name", "b").bind("ids", Arrays.asList(3, 4)).bind("age", 2).getProvider());
+		assertEquals(1, template.getCompiledSize());
+		select(template.bind("name", "c").bind("ids", Arrays.asList(3, 4, 5)).bind("age", 2).getProvider());
+		assertEquals(2, template.getCompiledSize());
+	}
+
+	@Test
+	public void commaInPlainSlot() {
+		QueryTemplate template = template();
+		for (String name : new String[] {"a", "a,b", "a,b,c", "a,b,c,d"}) {
+			select(template.bind("name", name).bind("ids", Arrays.asList(1, 2)).bind("age", name).getProvider());
+		}
+		assertEquals(1, template.getCompiledSize());
+	}
+
+	@Test(expected = HandleException.class)
+	public void unboundSlot() {
+		select(template().bind("name", "a").getProvider());
+	}
+
+	@Test
+	public void chunkBoundValues() {
+		InFilterChunk.setEnabled(true);
+		InFilterChunk.setThreshold(10);
+		InFilterChunk.setChunkSize(5);
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			ids.add(i);
+		}
+		QueryProvider provider = ProviderBuilder.query();
+		provider.equal("name", ProviderBuilder.slot("name")).in("id", ProviderBuilder.slot("ids"));
+		QueryTemplate template = ProviderBuilder.template(provider);
+
+		QueryProviderHandle bound = (QueryProviderHandle) template.bind("name", "a").bind("ids", ids).getProvider();
+		FilterNode filter = InFilterChunk.getChunkFilter(bound);
+		assertNotNull(filter);
+		List<Object[]> chunks = InFilterChunk.split(bound, filter);
+		assertEquals(3, chunks.size());
+		assertEquals(Arrays.asList(10, 11), Arrays.asList(chunks.get(2)));
+
+		Map<String, Object> param = new HashMap<>();
+		param.put(SqlConstant.PROVIDER_OBJ, bound);
+		param.put(SqlConstant.PROVIDER_FILTER, new InFilterChunk.ValueMap(filter, chunks.get(2), bound.getTemplateBinding()));
+		SqlHandleProvider.getSelectSql(param, "t_user");
+		Map<?, ?> value = (Map<?, ?>) param.get(SqlConstant.PROVIDER_FILTER);
+		assertEquals(3, value.size());
+		assertEquals(Arrays.asList("a", 10, 11), new ArrayList<>(new TreeMap<>(value).values()));
+
+		assertNull(InFilterChunk.getChunkFilter((QueryProviderHandle) template.bind("name", "a").bind("ids", ids.subList(0, 10)).getProvider()));
+	}
+}
@@ -0,0 +1,128 @@
+package com.obatis.orm.sql;
+
+import com.obatis.orm.constant.SqlConstant;
+import com.obatis.orm.provider.QueryProvider;
+import com.obatis.orm.provider.handle.ProviderBuilder;
+import com.obatis.orm.sql.model.ModelLoader;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 条件改写生成的语句
+ * @author HuangLongPu
+ */
+public class SargableRewriteTest {
+
+	private static final String FILTER = "#{request." + SqlConstant.PROVIDER_FILTER + "." + SqlConstant.PROVIDER_FILTER + "_v0_tl_0}";
+
+	@BeforeClass
+	public static void load() {
+		ModelLoader.load();
+	}
+
+	@After
+	public void reset() {
+		SargableRewrite.setEnabled(false);
+	}
+
+	private static String getWhere(QueryProvider provider) {
+		Map<String, Object> param = new HashMap<>();
+		param.put(SqlConstant.PROVIDER_OBJ, provider);
+		String sql = SqlHandleProvider.getSelectSql(param, "t_user");
+		return sql.substring(sql.indexOf("\nWHERE (") + "\nWHERE (".length(), sql.length() - 1);
+	}
+
+	private static QueryProvider query() {
+		QueryProvider provider = ProviderBuilder.query();
+		provider.select("name");
+		return provider;
+	}
+
+	@Test
+	public void disabledKeepsDateFormat() {
+		QueryProvider provider = query();
+		provider.equalDateFormat("createTime", "2020-01", "%Y-%m");
+		assertEquals("DATE_FORMAT( t_1.create_time,'%Y-%m') = " + FILTER, getWhere(provider));
+	}
+
+	@Test
+	public void equalDateFormat() {
+		SargableRewrite.setEnabled(true);
+		QueryProvider provider = query();
+		provider.equalDateFormat("createTime", "2020-01", "%Y-%m");
+		String start = "CAST(CONCAT(" + FILTER + ",'-01') AS DATETIME)";
+		assertEquals("( t_1.create_time >= " + start + " and  t_1.create_time < " + start + " + INTERVAL 1 MONTH)", getWhere(provider));
+	}
+
+	@Test
+	public void notEqualDateFormat() {
+		SargableRewrite.setEnabled(true);
+		QueryProvider provider = query();
+		provider.notEqualDateFormat("createTime", "2020", "%Y");
+		String start = "CAST(CONCAT(" + FILTER + ",'-01-01') AS DATETIME)";
+		assertEquals("( t_1.create_time < " + start + " or  t_1.create_time >= " + start + " + INTERVAL 1 YEAR)", getWhere(provider));
+	}
+
+	@Test
+	public void compareDateFormat() {
+		SargableRewrite.setEnabled(true);
+		String day = "CAST(" + FILTER + " AS DATETIME)";
+		QueryProvider provider = query();
+		provider.greaterThanDateFormat("createTime", "2020-01-02", "%Y-%m-%d");
+		assertEquals(" t_1.create_time >= " + day + " + INTERVAL 1 DAY", getWhere(provider));
+		provider = query();
+		provider.greaterEqualDateFormat("createTime", "2020-01-02", "%Y-%m-%d");
+		assertEquals(" t_1.create_time >= " + day, getWhere(provider));
+		provider = query();
+		provider.lessThanDateFormat("createTime", "2020-01-02", "%Y-%m-%d");
+		assertEquals(" t_1.create_time < " + day, getWhere(provider));
+		provider = query();
+		provider.lessEqualDateFormat("createTime", "2020-01-02", "%Y-%m-%d");
+		assertEquals(" t_1.create_time < " + day + " + INTERVAL 1 DAY", getWhere(provider));
+	}
+
+	@Test
+	public void unsupportedPatternNotRewritten() {
+		SargableRewrite.setEnabled(true);
+		QueryProvider provider = query();
+		provider.equalDateFormat("createTime", "01-02", "%m-%d");
+		assertEquals("DATE_FORMAT( t_1.create_time,'%m-%d') = " + FILTER, getWhere(provider));
+	}
+
+	@Test
+	public void upReduceFilter() {
+		QueryProvider provider = query();
+		provider.upGreaterThanZero("money", 5);
+		assertEquals(" t_1.money + " + FILTER + ">0", getWhere(provider));
+		SargableRewrite.setEnabled(true);
+		assertEquals(" t_1.money > -" + FILTER, getWhere(provider));
+		provider = query();
+		provider.upGreaterEqualZero("money", 5);
+		assertEquals(" t_1.money >= -" + FILTER, getWhere(provider));
+		provider = query();
+		provider.reduceGreaterThanZero("money", 5);
+		assertEquals(" t_1.money > " + FILTER, getWhere(provider));
+		provider = query();
+		provider.reduceGreaterEqualZero("money", 5);
+		assertEquals(" t_1.money >= " + FILTER, getWhere(provider));
+	}
+
+	@Test
+	public void plainColumn() {
+		assertTrue(SargableRewrite.isPlainColumn("money"));
+		assertTrue(SargableRewrite.isPlainColumn("t_1.user_age"));
+		assertTrue(SargableRewrite.isPlainColumn("#as_1.title"));
+		assertFalse(SargableRewrite.isPlainColumn("money+age"));
+		assertFalse(SargableRewrite.isPlainColumn("sum(money)"));
+		assertFalse(SargableRewrite.isPlainColumn(""));
+		assertFalse(SargableRewrite.isPlainColumn(null));
+	}
+}
@@ -0,0 +1,185 @@
+package com.obatis.orm.sql;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SQL 子句拼接及统计语句输出
+ * @author HuangLongPu
+ */
+public class SqlEmitterTest {
+
+	private SqlEmitter emitter;
+
+	@Before
+	public void acquire() {
+		emitter = SqlEmitter.acquire();
+	}
+
+	@After
+	public void release() {
+		emitter.release();
+	}
+
+	/**
+	 * 拼接不影响行数的 left join
+	 */
+	private void appendNeutralJoin(String alias, String join) {
+		int start = emitter.from.length();
+		int aliasIndex = emitter.addJoinAlias(alias);
+		emitter.from.append(join);
+		emitter.addNeutralJoin(start, aliasIndex);
+	}
+
+	private String emitCount() {
+		StringBuilder out = new StringBuilder();
+		emitter.emitCount(out);
+		return out.toString();
+	}
+
+	@Test
+	public void emitSelect() {
+		emitter.appendColumn("t_1.name");
+		emitter.appendColumn("t_1.age");
+		emitter.from.append("t_user t_1");
+		emitter.where.append("t_1.age > #{a}");
+		emitter.appendGroup("t_1.name");
+		emitter.appendGroup("t_1.age");
+		emitter.having.append("count(t_1.id) > #{b}");
+		emitter.appendOrder("t_1.age desc");
+		emitter.appendOrder("t_1.name");
+		StringBuilder out = new StringBuilder();
+		emitter.emitSelect(out);
+		assertEquals("SELECT t_1.name,t_1.age\nFROM t_user t_1\nWHERE (t_1.age > #{a})\nGROUP BY t_1.name, t_1.age\nHAVING (count(t_1.id) > #{b})\n"
+				+ "ORDER BY t_1.age desc, t_1.name", out.toString());
+	}
+
+	@Test
+	public void countDropsUnreferencedJoin() {
+		emitter.appendColumn("t_1.name");
+		emitter.appendColumn("t_2.title");
+		emitter.from.append("t_user t_1");
+		appendNeutralJoin("t_2", " left join t_dept t_2 on t_1.dept_id=t_2.id");
+		emitter.where.append("t_1.age = #{a}");
+		assertEquals("SELECT count(1)\nFROM t_user t_1\nWHERE (t_1.age = #{a})", emitCount());
+	}
+
+	@Test
+	public void countKeepsJoinReferencedByWhere() {
+		emitter.from.append("t_user t_1");
+		appendNeutralJoin("t_2", " left join t_dept t_2 on t_1.dept_id=t_2.id");
+		emitter.where.append("t_2.title = #{a}");
+		assertEquals("SELECT count(1)\nFROM t_user t_1 left join t_dept t_2 on t_1.dept_id=t_2.id\nWHERE (t_2.title = #{a})", emitCount());
+	}
+
+	@Test
+	public void countKeepsJoinReferencedByGroupOrOtherJoin() {
+		emitter.from.append("t_user t_1");
+		appendNeutralJoin("t_2", " left join t_dept t_2 on t_1.dept_id=t_2.id");
+		emitter.from.append(" left join t_org t_3 on t_2.org_id=t_3.id");
+		appendNeutralJoin("t_4", " left join t_area t_4 on t_1.area_id=t_4.id");
+		emitter.appendGroup("t_4.name");
+		assertEquals("SELECT count(1)\nFROM t_user t_1 left join t_dept t_2 on t_1.dept_id=t_2.id left join t_org t_3 on t_2.org_id=t_3.id"
+				+ " left join t_area t_4 on t_1.area_id=t_4.id\nGROUP BY t_4.name", emitCount());
+	}
+
+	@Test
+	public void aliasMatchNeedsBoundary() {
+		emitter.from.append("t_user t_1");
+		appendNeutralJoin("t_2", " left join t_dept t_2 on t_1.dept_id=t_2.id");
+		emitter.where.append("t_22.a = 1 and xt_2.b = 2");
+		assertEquals("SELECT count(1)\nFROM t_user t_1\nWHERE (t_22.a = 1 and xt_2.b = 2)", emitCount());
+	}
+
+	@Test
+	public void countDropsNestedJoinWithOuter() {
+		emitter.from.append("t_user t_1");
+		int start = emitter.from.length();
+		int aliasIndex = emitter.addJoinAlias("t_2");
+		emitter.from.append(" left join t_dept t_2 on t_1.dept_id=t_2.id");
+		appendNeutralJoin("t_3", " left join t_org t_3 on t_2.org_id=t_3.id");
+		emitter.addNeutralJoin(start, aliasIndex);
+		assertEquals("SELECT count(1)\nFROM t_user t_1", emitCount());
+	}
+
+	@Test
+	public void countKeepsOuterJoinWhenNestedReferenced() {
+		emitter.from.append("t_user t_1");
+		int start = emitter.from.length();
+		int aliasIndex = emitter.addJoinAlias("t_2");
+		emitter.from.append(" left join t_dept t_2 on t_1.dept_id=t_2.id");
+		appendNeutralJoin("t_3", " left join t_org t_3 on t_2.org_id=t_3.id");
+		emitter.addNeutralJoin(start, aliasIndex);
+		emitter.where.append("t_3.code = #{a}");
+		assertEquals("SELECT count(1)\nFROM t_user t_1 left join t_dept t_2 on t_1.dept_id=t_2.id left join t_org t_3 on t_2.org_id=t_3.id\n"
+				+ "WHERE (t_3.code = #{a})", emitCount());
+	}
+
+	@Test
+	public void countWithGroupAndHaving() {
+		emitter.from.append("t_user t_1");
+		emitter.appendGroup("t_1.name");
+		emitter.having.append("count(t_1.id) > #{a}");
+		assertFalse(emitter.isDistinctCount());
+		assertEquals("SELECT count(1)\nFROM t_user t_1\nGROUP BY t_1.name\nHAVING (count(t_1.id) > #{a})", emitCount());
+	}
+
+	@Test
+	public void emitDistinctCount() {
+		emitter.from.append("t_user t_1");
+		appendNeutralJoin("t_2", " left join t_dept t_2 on t_1.dept_id=t_2.id");
+		emitter.where.append("t_1.age = #{a}");
+		emitter.appendGroup("t_1.name");
+		assertTrue(emitter.isDistinctCount());
+		StringBuilder out = new StringBuilder();
+		emitter.emitDistinctCount(out);
+		assertEquals("SELECT count(distinct t_1.name) + CASE WHEN count(1) > count(t_1.name) THEN 1 ELSE 0 END\nFROM t_user t_1\n"
+				+ "WHERE (t_1.age = #{a})", out.toString());
+	}
+
+	@Test
+	public void distinctCountNeedsSingleGroup() {
+		emitter.appendGroup("t_1.name");
+		emitter.appendGroup("t_1.age");
+		assertFalse(emitter.isDistinctCount());
+	}
+
+	@Test
+	public void mergeJoinWhere() {
+		emitter.joinWhere.append("t_2.code = #{b}");
+		emitter.mergeJoinWhere();
+		assertEquals("t_2.code = #{b}", emitter.where.toString());
+		emitter.where.setLength(0);
+		emitter.where.append("t_1.age = #{a}");
+		emitter.mergeJoinWhere();
+		assertEquals("t_1.age = #{a} and t_2.code = #{b}", emitter.where.toString());
+	}
+
+	@Test
+	public void nestedAcquire() {
+		SqlEmitter nested = SqlEmitter.acquire();
+		assertNotSame(emitter, nested);
+		nested.release();
+		SqlEmitter again = SqlEmitter.acquire();
+		assertSame(nested, again);
+		again.release();
+	}
+
+	@Test
+	public void releaseClearsBuffers() {
+		emitter.appendColumn("a");
+		emitter.appendGroup("a");
+		emitter.release();
+		SqlEmitter reused = SqlEmitter.acquire();
+		assertSame(emitter, reused);
+		assertEquals(0, reused.select.length());
+		assertFalse(reused.isDistinctCount());
+	}
+}
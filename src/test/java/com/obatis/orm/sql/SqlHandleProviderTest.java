@@ -0,0 +1,64 @@
+package com.obatis.orm.sql;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * getReplaceSql 占位符替换
+ * @author HuangLongPu
+ */
+public class SqlHandleProviderTest {
+
+	@Test
+	public void replaceInOrder() {
+		assertEquals("select * from t_user where id = #{request[0]} and name = #{request[1]}",
+				SqlHandleProvider.getReplaceSql("select * from t_user where id = ? and name = ?", 0));
+	}
+
+	@Test
+	public void replaceFromIndex() {
+		assertEquals("age > #{request[2]} or age < #{request[3]}", SqlHandleProvider.getReplaceSql("age > ? or age < ?", 2));
+	}
+
+	@Test
+	public void noPlaceholder() {
+		String sql = "select * from t_user";
+		assertSame(sql, SqlHandleProvider.getReplaceSql(sql, 0));
+	}
+
+	@Test
+	public void skipQuoted() {
+		assertEquals("select '?', \"?\", `a?` from t where a = #{request[0]}",
+				SqlHandleProvider.getReplaceSql("select '?', \"?\", `a?` from t where a = ?", 0));
+		assertEquals("select 'it''s ?', 'a\\'?' from t where a = #{request[0]}",
+				SqlHandleProvider.getReplaceSql("select 'it''s ?', 'a\\'?' from t where a = ?", 0));
+	}
+
+	@Test
+	public void skipComment() {
+		assertEquals("select a -- ?\nfrom t /* ? */ where a = #{request[0]} # ?\nand b = #{request[1]}",
+				SqlHandleProvider.getReplaceSql("select a -- ?\nfrom t /* ? */ where a = ? # ?\nand b = ?", 0));
+	}
+
+	@Test
+	public void keepExpressionAndMinus() {
+		assertEquals("a = #{name} and b = c-#{request[0]} and d = #{request[1]}",
+				SqlHandleProvider.getReplaceSql("a = #{name} and b = c-? and d = ?", 0));
+	}
+
+	@Test
+	public void unterminatedQuote() {
+		assertEquals("a = #{request[0]} and b = '?", SqlHandleProvider.getReplaceSql("a = ? and b = '?", 0));
+	}
+
+	@Test
+	public void cachedResultIsStable() {
+		String sql = "update t set a = ? where id = ?";
+		String first = SqlHandleProvider.getReplaceSql(sql, 0);
+		assertEquals("update t set a = #{request[0]} where id = #{request[1]}", first);
+		assertSame(first, SqlHandleProvider.getReplaceSql(sql, 0));
+		assertEquals("update t set a = #{request[1]} where id = #{request[2]}", SqlHandleProvider.getReplaceSql(sql, 1));
+	}
+}
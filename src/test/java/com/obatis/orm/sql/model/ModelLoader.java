@@ -0,0 +1,20 @@
+package com.obatis.orm.sql.model;
+
+import com.obatis.orm.convert.BeanCacheConvert;
+
+/**
+ * 加载测试实体，同一个表只能加载一次，多个测试类共用
+ * @author HuangLongPu
+ */
+public class ModelLoader {
+
+	private ModelLoader() {
+
+	}
+
+	public static synchronized void load() {
+		if (BeanCacheConvert.getEntityMetadata("t_user") == null) {
+			BeanCacheConvert.loadEntityCache(UserModel.class);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.obatis.orm.sql.model;
+
+import com.obatis.orm.annotation.Column;
+import com.obatis.orm.annotation.Table;
+import com.obatis.orm.model.CommonModel;
+
+import java.math.BigDecimal;
+
+/**
+ * 测试实体
+ * @author HuangLongPu
+ */
+@Table(name = "t_user")
+public class UserModel extends CommonModel<Long> {
+
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	@Column(name = "user_age")
+	private Integer age;
+	private Long deptId;
+	private BigDecimal money;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getAge() {
+		return age;
+	}
+
+	public void setAge(Integer age) {
+		this.age = age;
+	}
+
+	public Long getDeptId() {
+		return deptId;
+	}
+
+	public void setDeptId(Long deptId) {
+		this.deptId = deptId;
+	}
+
+	public BigDecimal getMoney() {
+		return money;
+	}
+
+	public void setMoney(BigDecimal money) {
+		this.money = money;
+	}
+}
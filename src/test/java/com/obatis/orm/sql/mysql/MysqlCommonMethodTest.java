@@ -0,0 +1,43 @@
+package com.obatis.orm.sql.mysql;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * DateFormat 条件改写的时间范围
+ * @author HuangLongPu
+ */
+public class MysqlCommonMethodTest {
+
+	private final MysqlCommonMethod method = new MysqlCommonMethod();
+
+	@Test
+	public void dateRangeStart() {
+		assertEquals("CAST(CONCAT(#{v},'-01-01') AS DATETIME)", method.getDateRangeStartSql("#{v}", "%Y"));
+		assertEquals("CAST(CONCAT(#{v},'-01') AS DATETIME)", method.getDateRangeStartSql("#{v}", "%Y-%m"));
+		assertEquals("CAST(#{v} AS DATETIME)", method.getDateRangeStartSql("#{v}", "%Y-%m-%d"));
+		assertEquals("CAST(CONCAT(#{v},':00:00') AS DATETIME)", method.getDateRangeStartSql("#{v}", "%Y-%m-%d %H"));
+		assertEquals("CAST(CONCAT(#{v},':00') AS DATETIME)", method.getDateRangeStartSql("#{v}", "%Y-%m-%d %H:%i"));
+		assertEquals("CAST(#{v} AS DATETIME)", method.getDateRangeStartSql("#{v}", "%Y-%m-%d %H:%i:%s"));
+	}
+
+	@Test
+	public void dateRangeEnd() {
+		assertEquals("CAST(CONCAT(#{v},'-01-01') AS DATETIME) + INTERVAL 1 YEAR", method.getDateRangeEndSql("#{v}", "%Y"));
+		assertEquals("CAST(CONCAT(#{v},'-01') AS DATETIME) + INTERVAL 1 MONTH", method.getDateRangeEndSql("#{v}", "%Y-%m"));
+		assertEquals("CAST(#{v} AS DATETIME) + INTERVAL 1 DAY", method.getDateRangeEndSql("#{v}", "%Y-%m-%d"));
+		assertEquals("CAST(CONCAT(#{v},':00:00') AS DATETIME) + INTERVAL 1 HOUR", method.getDateRangeEndSql("#{v}", "%Y-%m-%d %H"));
+		assertEquals("CAST(CONCAT(#{v},':00') AS DATETIME) + INTERVAL 1 MINUTE", method.getDateRangeEndSql("#{v}", "%Y-%m-%d %H:%i"));
+		assertEquals("CAST(#{v} AS DATETIME) + INTERVAL 1 SECOND", method.getDateRangeEndSql("#{v}", "%Y-%m-%d %H:%i:%s"));
+	}
+
+	@Test
+	public void unsupportedPattern() {
+		for (String pattern : new String[] {"%m-%d", "%Y%m", "%H:%i", "%Y-%m-%d %T", "%y"}) {
+			assertNull(method.getDateRangeStartSql("#{v}", pattern));
+			assertNull(method.getDateRangeEndSql("#{v}", pattern));
+		}
+	}
+}